@@ -0,0 +1,153 @@
+package br.fau.laser_booking.benchmark;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Custo dos casos de uso do AgendamentoService e das checagens de conflito/prioridade.
+// SampleTime dá a distribuição (p50/p90/p99/p99.9) além da vazão.
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="AgendamentoServiceBenchmark -f 1"
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgendamentoServiceBenchmark {
+
+    // Slots sempre novos (segundas/terças/quintas, liberadas para TFG) para o agendar nunca conflitar
+    @State(Scope.Benchmark)
+    public static class Slots {
+        private final AtomicLong proximo = new AtomicLong();
+
+        LocalDateTime inicio(AmbienteBenchmark amb, long k) {
+            long j = k / AmbienteBenchmark.EQUIPAMENTOS.length;
+            long semana = j / (3 * 40);
+            long diaDaSemana = new long[]{0, 1, 3}[(int) ((j / 40) % 3)];
+            return amb.baseFutura.plusWeeks(semana).plusDays(diaDaSemana).plusMinutes(15 * (j % 40));
+        }
+
+        String equipamento(long k) {
+            return AmbienteBenchmark.EQUIPAMENTOS[(int) (k % AmbienteBenchmark.EQUIPAMENTOS.length)];
+        }
+    }
+
+    // Reserva que fica indo e voltando entre dois horários
+    @State(Scope.Thread)
+    public static class Edicao {
+        Long reservaId;
+        LocalDateTime a;
+        LocalDateTime b;
+        String equipamento;
+        boolean emA = true;
+
+        @Setup(Level.Trial)
+        public void criar(AmbienteBenchmark amb) {
+            a = amb.baseFutura.minusWeeks(1).withHour(9);
+            b = a.plusHours(2);
+            equipamento = "cortadora edicao " + Thread.currentThread().getId();
+            amb.cadastrarEquipamento(equipamento);
+            reservaId = amb.agendamentoService
+                    .agendarHorario(amb.alunoTfg, a, a.plusMinutes(30), equipamento).getId();
+        }
+    }
+
+    // Uma reserva nova por invocação para o cancelamento
+    @State(Scope.Thread)
+    public static class Cancelamento {
+        Long reservaId;
+
+        @Setup(Level.Invocation)
+        public void criar(AmbienteBenchmark amb, Slots slots) {
+            long k = slots.proximo.getAndIncrement();
+            LocalDateTime inicio = slots.inicio(amb, k);
+            reservaId = amb.agendamentoService
+                    .agendarHorario(amb.alunoTfg, inicio, inicio.plusMinutes(15), slots.equipamento(k)).getId();
+        }
+    }
+
+    // Consultas de conflito sobre horários já ocupados pela massa semeada
+    @State(Scope.Thread)
+    public static class Consultas {
+        long i;
+
+        LocalDateTime inicio(AmbienteBenchmark amb) {
+            int ativas = amb.reservas / 10 / AmbienteBenchmark.EQUIPAMENTOS.length;
+            return LocalDateTime.now().plusDays(1).withHour(8).withMinute(10).withSecond(0).withNano(0)
+                    .plusMinutes(30L * (i++ % Math.max(1, ativas)));
+        }
+
+        Integer equipamentoId(AmbienteBenchmark amb) {
+            return amb.catalogo.resolver(AmbienteBenchmark.EQUIPAMENTOS[0]).getId();
+        }
+    }
+
+    @Benchmark
+    public Reserva agendar(AmbienteBenchmark amb, Slots slots) {
+        long k = slots.proximo.getAndIncrement();
+        LocalDateTime inicio = slots.inicio(amb, k);
+        return amb.agendamentoService
+                .agendarHorario(amb.alunoTfg, inicio, inicio.plusMinutes(15), slots.equipamento(k));
+    }
+
+    @Benchmark
+    public Object agendarComConflito(AmbienteBenchmark amb, Consultas c) {
+        LocalDateTime inicio = c.inicio(amb);
+        try {
+            return amb.agendamentoService
+                    .agendarHorario(amb.alunoTfg, inicio, inicio.plusMinutes(30), AmbienteBenchmark.EQUIPAMENTOS[0]);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Reserva editar(AmbienteBenchmark amb, Edicao e) {
+        LocalDateTime destino = e.emA ? e.b : e.a;
+        e.emA = !e.emA;
+        return amb.agendamentoService.editarHorario(amb.alunoTfg, e.reservaId,
+                destino, destino.plusMinutes(30), e.equipamento);
+    }
+
+    @Benchmark
+    public void cancelar(AmbienteBenchmark amb, Cancelamento c) {
+        amb.agendamentoService.cancelarReserva(amb.alunoTfg, c.reservaId);
+    }
+
+    @Benchmark
+    public void podeAgendar(AmbienteBenchmark amb, Consultas c, Blackhole bh) {
+        LocalDateTime inicio = c.inicio(amb).plusDays(c.i % 7);
+        for (Aluno aluno : amb.todosAlunos) {
+            bh.consume(amb.agendamentoService.podeAgendar(aluno, inicio));
+        }
+    }
+
+    @Benchmark
+    public boolean conflitoIndice(AmbienteBenchmark amb, Consultas c) {
+        LocalDateTime inicio = c.inicio(amb);
+        return amb.indiceOcupacao
+                .haConflito(c.equipamentoId(amb), inicio, inicio.plusMinutes(30));
+    }
+
+    @Benchmark
+    public boolean conflitoBanco(AmbienteBenchmark amb, Consultas c) {
+        LocalDateTime inicio = c.inicio(amb);
+        return amb.reservaRepository.existsByEquipamentoIdAndStatusInAndInicioBeforeAndFimAfter(
+                c.equipamentoId(amb), List.of(Reserva.Status.ATIVA), inicio.plusMinutes(30), inicio);
+    }
+}
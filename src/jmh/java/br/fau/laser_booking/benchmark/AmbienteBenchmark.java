@@ -0,0 +1,128 @@
+package br.fau.laser_booking.benchmark;
+
+import br.fau.laser_booking.LaserBookingApplication;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.service.AgendamentoService;
+import br.fau.laser_booking.service.CatalogoEquipamentos;
+import br.fau.laser_booking.service.IndiceOcupacao;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// Contexto Spring completo (porta aleatória, a segurança exige o stack web) sobre um H2 em memória próprio, populado com volume
+// parecido com alguns semestres de uso do laboratório.
+@State(Scope.Benchmark)
+public class AmbienteBenchmark {
+
+    public static final String[] EQUIPAMENTOS = {"cortadora 1", "cortadora 2", "cortadora 3", "cortadora 4"};
+
+    @Param({"10000", "100000"})
+    public int reservas;
+
+    @Param({"500"})
+    public int alunos;
+
+    public ConfigurableApplicationContext contexto;
+    public AgendamentoService agendamentoService;
+    public IndiceOcupacao indiceOcupacao;
+    public ReservaRepository reservaRepository;
+    public CatalogoEquipamentos catalogo;
+    public JdbcTemplate jdbc;
+    public Aluno alunoTfg;
+    public List<Aluno> todosAlunos;
+
+    // primeira segunda-feira bem depois das reservas semeadas (que ocupam os próximos dias)
+    public LocalDateTime baseFutura;
+
+    @Setup(Level.Trial)
+    public void subir() {
+        contexto = new SpringApplicationBuilder(LaserBookingApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:jmh-" + UUID.randomUUID(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        agendamentoService = contexto.getBean(AgendamentoService.class);
+        indiceOcupacao = contexto.getBean(IndiceOcupacao.class);
+        reservaRepository = contexto.getBean(ReservaRepository.class);
+        catalogo = contexto.getBean(CatalogoEquipamentos.class);
+        jdbc = contexto.getBean(JdbcTemplate.class);
+
+        popular(jdbc);
+        indiceOcupacao.invalidar();
+
+        AlunoRepository alunoRepository = contexto.getBean(AlunoRepository.class);
+        alunoTfg = alunoRepository.findById(1L).orElseThrow();
+        todosAlunos = alunoRepository.findAll();
+        baseFutura = LocalDate.now().plusYears(10)
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .atTime(8, 0);
+    }
+
+    // Equipamento exclusivo (ex.: um por thread), já visível para o AgendamentoService
+    public synchronized void cadastrarEquipamento(String nome) {
+        jdbc.update("INSERT INTO equipamento (nome) VALUES (?)", nome);
+        catalogo.recarregar();
+    }
+
+    @TearDown(Level.Trial)
+    public void derrubar() {
+        contexto.close();
+    }
+
+    // 90% histórico (finalizadas/canceladas), 10% ativas nos próximos dias
+    private void popular(JdbcTemplate jdbc) {
+        Random rnd = new Random(42);
+        List<Object[]> linhasAluno = new ArrayList<>();
+        for (int i = 3; i <= alunos; i++) {
+            linhasAluno.add(new Object[]{i, "aluno " + i, "aluno" + i + "@fau.br", 3 + rnd.nextInt(8),
+                    rnd.nextInt(4) == 0 ? "TFG" : "REGULAR"});
+        }
+        jdbc.batchUpdate("INSERT INTO aluno (id, nome, email, senha_hash, semestre, tipo_trabalho) "
+                + "VALUES (?, ?, ?, 'x', ?, ?)", linhasAluno);
+
+        LocalDateTime passado = LocalDateTime.now().minusYears(3).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime amanha = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        int historico = reservas * 9 / 10;
+
+        Integer[] equipamentoIds = new Integer[EQUIPAMENTOS.length];
+        for (int i = 0; i < EQUIPAMENTOS.length; i++) {
+            equipamentoIds[i] = catalogo.resolver(EQUIPAMENTOS[i]).getId();
+        }
+
+        List<Object[]> linhas = new ArrayList<>();
+        for (int i = 0; i < reservas; i++) {
+            boolean ativa = i >= historico;
+            int k = ativa ? i - historico : i;
+            LocalDateTime inicio = (ativa ? amanha : passado).plusMinutes(30L * (k / EQUIPAMENTOS.length));
+            String status = ativa ? "ATIVA" : (rnd.nextInt(5) == 0 ? "CANCELADA" : "FINALIZADA");
+            linhas.add(new Object[]{1 + rnd.nextInt(alunos), equipamentoIds[i % EQUIPAMENTOS.length],
+                    Timestamp.valueOf(inicio), Timestamp.valueOf(inicio.plusMinutes(30)), status,
+                    Timestamp.valueOf(inicio), Timestamp.valueOf(inicio)});
+            if (linhas.size() == 5_000 || i == reservas - 1) {
+                jdbc.batchUpdate("INSERT INTO reserva (aluno_titular_id, equipamento_id, inicio, fim, status, "
+                        + "criado_em, atualizado_em) VALUES (?, ?, ?, ?, ?, ?, ?)", linhas);
+                linhas.clear();
+            }
+        }
+    }
+}
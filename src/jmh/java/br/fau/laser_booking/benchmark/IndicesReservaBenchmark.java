@@ -0,0 +1,149 @@
+package br.fau.laser_booking.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+// Latência das consultas quentes de Reserva com e sem os índices da migration V2.
+// Roda contra um H2 em memória próprio, com o schema da V1:
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=br.fau.laser_booking.benchmark.IndicesReservaBenchmark
+// Volumes configuráveis com -Dvolumes=10000,100000,1000000
+public class IndicesReservaBenchmark {
+
+    private static final String[] EQUIPAMENTOS = {"cortadora 1", "cortadora 2", "cortadora 3", "cortadora 4"};
+    private static final int ALUNOS = 2_000;
+    private static final int CONSULTAS = 2_000;
+    private static final LocalDateTime ORIGEM = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+    private static final String SQL_CONFLITO =
+            "SELECT 1 FROM reserva WHERE equipamento = ? AND status IN ('ATIVA') "
+            + "AND inicio < ? AND fim > ? FETCH FIRST 1 ROWS ONLY";
+    private static final String SQL_LISTAGEM =
+            "SELECT id, inicio, fim, equipamento, status FROM reserva "
+            + "WHERE aluno_titular_id = ? ORDER BY inicio DESC";
+
+    public static void main(String[] args) throws Exception {
+        int[] volumes = Arrays.stream(System.getProperty("volumes", "10000,100000,1000000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+
+        System.out.printf("%-10s %-12s %14s %14s %14s %14s%n",
+                "reservas", "indices", "conflito p50", "conflito p99", "listagem p50", "listagem p99");
+        for (int volume : volumes) {
+            try (Connection c = DriverManager.getConnection("jdbc:h2:mem:bench" + volume, "sa", "")) {
+                criarSchema(c);
+                popular(c, volume);
+                medir(c, volume, "sem");
+                executar(c, recurso("db/migration/V2__indices_reserva.sql"));
+                medir(c, volume, "com");
+            }
+        }
+    }
+
+    private static void criarSchema(Connection c) throws Exception {
+        executar(c, recurso("db/migration/V1__schema_inicial.sql"));
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO aluno (nome, email, senha_hash, semestre, tipo_trabalho) VALUES (?, ?, 'x', 5, 'REGULAR')")) {
+            for (int i = 1; i <= ALUNOS; i++) {
+                ps.setString(1, "aluno " + i);
+                ps.setString(2, "aluno" + i + "@fau.br");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // Reservas espalhadas ao longo dos anos; a maior parte já cancelada/finalizada
+    private static void popular(Connection c, int volume) throws SQLException {
+        Random rnd = new Random(42);
+        c.setAutoCommit(false);
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO reserva (aluno_titular_id, equipamento, inicio, fim, status, criado_em, atualizado_em) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < volume; i++) {
+                LocalDateTime inicio = ORIGEM.plusMinutes(30L * (i / EQUIPAMENTOS.length));
+                Timestamp agora = Timestamp.valueOf(inicio);
+                ps.setLong(1, 1 + rnd.nextInt(ALUNOS));
+                ps.setString(2, EQUIPAMENTOS[i % EQUIPAMENTOS.length]);
+                ps.setTimestamp(3, Timestamp.valueOf(inicio));
+                ps.setTimestamp(4, Timestamp.valueOf(inicio.plusMinutes(30)));
+                ps.setString(5, i > volume * 9 / 10 ? "ATIVA" : (rnd.nextInt(5) == 0 ? "CANCELADA" : "FINALIZADA"));
+                ps.setTimestamp(6, agora);
+                ps.setTimestamp(7, agora);
+                ps.addBatch();
+                if (i % 10_000 == 9_999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        c.commit();
+        c.setAutoCommit(true);
+        try (Statement st = c.createStatement()) {
+            st.execute("ANALYZE");
+        }
+    }
+
+    private static void medir(Connection c, int volume, String indices) throws SQLException {
+        Random rnd = new Random(7);
+        long minutosTotais = 30L * (volume / EQUIPAMENTOS.length);
+        long[] conflito = new long[CONSULTAS];
+        long[] listagem = new long[CONSULTAS];
+
+        try (PreparedStatement psConflito = c.prepareStatement(SQL_CONFLITO);
+             PreparedStatement psListagem = c.prepareStatement(SQL_LISTAGEM)) {
+            for (int i = 0; i < CONSULTAS; i++) {
+                LocalDateTime inicio = ORIGEM.plusMinutes((long) (rnd.nextDouble() * minutosTotais));
+                psConflito.setString(1, EQUIPAMENTOS[rnd.nextInt(EQUIPAMENTOS.length)]);
+                psConflito.setTimestamp(2, Timestamp.valueOf(inicio.plusMinutes(45)));
+                psConflito.setTimestamp(3, Timestamp.valueOf(inicio));
+                conflito[i] = cronometrar(psConflito);
+
+                psListagem.setLong(1, 1 + rnd.nextInt(ALUNOS));
+                listagem[i] = cronometrar(psListagem);
+            }
+        }
+        Arrays.sort(conflito);
+        Arrays.sort(listagem);
+        System.out.printf("%-10d %-12s %14s %14s %14s %14s%n", volume, indices,
+                micros(conflito, 0.50), micros(conflito, 0.99), micros(listagem, 0.50), micros(listagem, 0.99));
+    }
+
+    private static long cronometrar(PreparedStatement ps) throws SQLException {
+        long t0 = System.nanoTime();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                // consome o resultado inteiro
+            }
+        }
+        return System.nanoTime() - t0;
+    }
+
+    private static String micros(long[] ordenado, double percentil) {
+        return String.format("%.1f us", ordenado[(int) (percentil * (ordenado.length - 1))] / 1_000.0);
+    }
+
+    private static void executar(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            for (String comando : sql.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!comando.isBlank()) {
+                    st.execute(comando);
+                }
+            }
+        }
+    }
+
+    private static String recurso(String caminho) throws Exception {
+        return Files.readString(Path.of(IndicesReservaBenchmark.class.getClassLoader().getResource(caminho).toURI()),
+                StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,136 @@
+package br.fau.laser_booking.benchmark;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.RegraPrioridade;
+import br.fau.laser_booking.service.TabelaPrioridade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Regras de prioridade avaliadas em massa (ex.: tela de disponibilidade: N alunos x M horários).
+// "legado" é o podeAgendar antigo, com as regras no código e LocalDateTime.now() por avaliação;
+// "tabela" é a TabelaPrioridade compilada com as mesmas regras (seed da V6) e um "agora" só.
+// Rodar com -prof gc para ver a alocação por operação.
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="RegrasPrioridadeBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegrasPrioridadeBenchmark {
+
+    private static final int PARES = 10_000;
+
+    @Param({"10"})
+    public int regrasExtras;
+
+    private Aluno[] alunos;
+    private LocalDateTime[] inicios;
+    private TabelaPrioridade tabela;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Random rnd = new Random(42);
+        alunos = new Aluno[PARES];
+        inicios = new LocalDateTime[PARES];
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < PARES; i++) {
+            Aluno a = new Aluno();
+            a.setTipoTrabalho(rnd.nextInt(4) == 0 ? Aluno.TipoTrabalho.TFG : Aluno.TipoTrabalho.REGULAR);
+            a.setSemestre(1 + rnd.nextInt(10));
+            alunos[i] = a;
+            // até duas semanas à frente, em slots de 15 min
+            inicios[i] = base.plusMinutes(15L * rnd.nextInt(14 * 96));
+        }
+
+        List<RegraPrioridade> regras = new ArrayList<>();
+        for (DayOfWeek dia : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.THURSDAY)) {
+            regras.add(new RegraPrioridade(dia, Aluno.TipoTrabalho.TFG, null, null, null));
+        }
+        for (DayOfWeek dia : List.of(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)) {
+            regras.add(new RegraPrioridade(dia, null, 3, 8, null));
+        }
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            regras.add(new RegraPrioridade(dia, null, null, null, 24));
+        }
+        // regras a mais não mudam o custo da consulta, só o da compilação
+        for (int i = 0; i < regrasExtras; i++) {
+            regras.add(new RegraPrioridade(DayOfWeek.of(1 + i % 7), Aluno.TipoTrabalho.REGULAR, 9, 12, 48));
+        }
+        tabela = TabelaPrioridade.compilar(regras);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public int legado() {
+        int permitidos = 0;
+        for (int i = 0; i < PARES; i++) {
+            if (podeAgendarLegado(alunos[i], inicios[i])) {
+                permitidos++;
+            }
+        }
+        return permitidos;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public int tabela() {
+        LocalDateTime agora = LocalDateTime.now();
+        int permitidos = 0;
+        for (int i = 0; i < PARES; i++) {
+            if (tabela.permite(alunos[i], inicios[i], agora)) {
+                permitidos++;
+            }
+        }
+        return permitidos;
+    }
+
+    @Benchmark
+    public TabelaPrioridade compilar() {
+        List<RegraPrioridade> regras = new ArrayList<>();
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            regras.add(new RegraPrioridade(dia, null, null, null, 24));
+        }
+        return TabelaPrioridade.compilar(regras);
+    }
+
+    // Cópia do AgendamentoService.podeAgendar de antes das regras em tabela
+    private static boolean podeAgendarLegado(Aluno aluno, LocalDateTime inicioSlot) {
+        DayOfWeek dia = inicioSlot.getDayOfWeek();
+        boolean ehTFG = aluno.getTipoTrabalho() == Aluno.TipoTrabalho.TFG;
+        Integer semestre = aluno.getSemestre();
+
+        boolean diaTFG = (dia == DayOfWeek.MONDAY
+                || dia == DayOfWeek.TUESDAY
+                || dia == DayOfWeek.THURSDAY);
+
+        boolean diaSemestres = (dia == DayOfWeek.WEDNESDAY
+                || dia == DayOfWeek.FRIDAY);
+
+        if (ehTFG && diaTFG) return true;
+
+        if (semestre != null && semestre >= 3 && semestre <= 8 && diaSemestres) return true;
+
+        Duration diff = Duration.between(LocalDateTime.now(), inicioSlot);
+        return diff.toHours() < 24;
+    }
+}
@@ -0,0 +1,97 @@
+package br.fau.laser_booking.carga;
+
+import br.fau.laser_booking.LaserBookingApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Desenvolvimento (H2 em memória, seed destrutivo, show-sql) x perfil prod (H2 em arquivo, pool
+// fixo, sem show-sql): tempo de subida (base nova e restart sobre a base existente) e vazão em
+// regime com o mesmo tráfego misto da ComparacaoThreadsCarga.
+// Argumentos chave=valor: clientes=100 aquecimento=5 duracao=20
+public class ComparacaoPerfisCarga {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            opcoes.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        int clientes = Integer.parseInt(opcoes.getOrDefault("clientes", "100"));
+        int aquecimento = Integer.parseInt(opcoes.getOrDefault("aquecimento", "5"));
+        int duracao = Integer.parseInt(opcoes.getOrDefault("duracao", "20"));
+        Path dados = Files.createTempDirectory("laserbooking-prod");
+
+        System.out.printf("Java %s, %d clientes, %ds de medição, dados prod em %s%n",
+                Runtime.version(), clientes, duracao, dados);
+        // rodada descartada: o JIT e o carregamento de classes são do processo
+        rodar("aquecimento", List.of(memoria(), "--spring.jpa.show-sql=false"), clientes, aquecimento, aquecimento);
+
+        List<Linha> linhas = new ArrayList<>();
+        linhas.add(rodar("dev", List.of(memoria()), clientes, aquecimento, duracao));
+        List<String> prod = List.of("--spring.profiles.active=prod", "--laserbooking.dados.diretorio=" + dados);
+        linhas.add(rodar("prod", prod, clientes, aquecimento, duracao));
+        linhas.add(rodar("prod restart", prod, clientes, 0, 0));
+
+        System.out.println();
+        System.out.printf("%-14s %9s %9s %10s %10s %10s %10s %10s %8s%n",
+                "modo", "subida s", "reservas", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "erros");
+        for (Linha l : linhas) {
+            l.imprimir();
+        }
+    }
+
+    // Banco próprio por rodada (a URL padrão é fixa e a JVM é a mesma)
+    private static String memoria() {
+        return "--spring.datasource.url=jdbc:h2:mem:perfil-" + UUID.randomUUID();
+    }
+
+    // duracao = 0: só sobe, conta o que há na base e desce
+    private static Linha rodar(String modo, List<String> argumentos, int clientes, int aquecimento,
+                               int duracao) throws Exception {
+        // mesma carga de ComparacaoThreadsCarga (aluno 1 em todos os clientes): sem limite por aluno
+        List<String> todos = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN",
+                "--laserbooking.admissao.por-minuto=1000000", "--laserbooking.admissao.rajada=1000000"));
+        todos.addAll(argumentos);
+
+        PrintStream console = System.out;
+        long t0 = System.nanoTime();
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(LaserBookingApplication.class)
+                .run(todos.toArray(String[]::new));
+        double subida = (System.nanoTime() - t0) / 1e9;
+        try {
+            Integer reservas = contexto.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM reserva", Integer.class);
+            if (duracao == 0) {
+                return new Linha(modo, subida, reservas, null);
+            }
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            SessaoHttp sessao = new SessaoHttp("http://localhost:" + porta).entrar("aluno", "abc123");
+            // show-sql escreve direto no System.out: o custo de formatar e do println sincronizado
+            // entra na medição, o do terminal não
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            return new Linha(modo, subida, reservas, ComparacaoThreadsCarga.medir(sessao, clientes, aquecimento, duracao));
+        } finally {
+            System.setOut(console);
+            contexto.close();
+        }
+    }
+
+    private record Linha(String modo, double subida, Integer reservas, ComparacaoThreadsCarga.Resultado resultado) {
+
+        void imprimir() {
+            System.out.printf("%-14s %9.2f %9d %s%n", modo, subida, reservas,
+                    resultado == null ? "" : resultado.colunas());
+        }
+    }
+}
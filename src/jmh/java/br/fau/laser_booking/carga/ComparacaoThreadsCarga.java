@@ -0,0 +1,153 @@
+package br.fau.laser_booking.carga;
+
+import br.fau.laser_booking.LaserBookingApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Teste de carga HTTP: sobe a aplicação duas vezes (thread-per-request do Tomcat e
+// virtual threads) e dispara o mesmo tráfego misto contra cada uma, em closed loop.
+// Argumentos chave=valor: clientes=400 aquecimento=5 duracao=20 tomcatThreads=200
+// No Java 17 spring.threads.virtual.enabled é ignorado e os dois modos empatam:
+// rodar com -Pjava21 numa JDK 21.
+public class ComparacaoThreadsCarga {
+
+    private static final String[] EQUIPAMENTOS = {"cortadora 1", "cortadora 2", "cortadora 3"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            opcoes.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        int clientes = Integer.parseInt(opcoes.getOrDefault("clientes", "400"));
+        int aquecimento = Integer.parseInt(opcoes.getOrDefault("aquecimento", "5"));
+        int duracao = Integer.parseInt(opcoes.getOrDefault("duracao", "20"));
+        String tomcatThreads = opcoes.getOrDefault("tomcatThreads", "200");
+
+        System.out.printf("Java %s, %d clientes, %ds de medição, server.tomcat.threads.max=%s%n",
+                Runtime.version(), clientes, duracao, tomcatThreads);
+        // rodada descartada: o JIT é do processo, e sem ela o segundo modo medido sai na frente
+        rodar(false, clientes, aquecimento, aquecimento, tomcatThreads);
+        Resultado platform = rodar(false, clientes, aquecimento, duracao, tomcatThreads);
+        Resultado virtual = rodar(true, clientes, aquecimento, duracao, tomcatThreads);
+
+        System.out.println();
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %8s%n", "modo", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "erros");
+        platform.imprimir("platform");
+        virtual.imprimir("virtual");
+    }
+
+    private static Resultado rodar(boolean virtual, int clientes, int aquecimento, int duracao,
+                                   String tomcatThreads) throws Exception {
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(LaserBookingApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:carga-" + UUID.randomUUID(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--server.tomcat.threads.max=" + tomcatThreads,
+                        // o mesmo pool JDBC nos dois modos, para comparar só o modelo de threads
+                        "--spring.datasource.hikari.maximum-pool-size=20",
+                        // todos os clientes usam o aluno 1: sem o limite por aluno do ControleAdmissao
+                        "--laserbooking.admissao.por-minuto=1000000",
+                        "--laserbooking.admissao.rajada=1000000");
+        try {
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            SessaoHttp sessao = new SessaoHttp("http://localhost:" + porta).entrar("aluno", "abc123");
+            return medir(sessao, clientes, aquecimento, duracao);
+        } finally {
+            contexto.close();
+        }
+    }
+
+    // Tráfego misto em closed loop: cada cliente manda a próxima assim que recebe a resposta
+    static Resultado medir(SessaoHttp sessao, int clientes, int aquecimento, int duracao) throws InterruptedException {
+        Recorder latencias = new Recorder(3);
+        LongAdder erros = new LongAdder();
+        AtomicBoolean parar = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(clientes);
+        for (int i = 0; i < clientes; i++) {
+            executor.execute(() -> {
+                while (!parar.get()) {
+                    long t0 = System.nanoTime();
+                    try {
+                        int status = requisicaoMista(sessao);
+                        // 409 (conflito de horário) é resposta de negócio, não falha
+                        if (status >= 400 && status != 409) {
+                            erros.increment();
+                        }
+                    } catch (Exception e) {
+                        erros.increment();
+                    }
+                    latencias.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - t0));
+                }
+            });
+        }
+
+        TimeUnit.SECONDS.sleep(aquecimento);
+        latencias.reset();
+        erros.reset();
+        long inicio = System.nanoTime();
+        TimeUnit.SECONDS.sleep(duracao);
+        Histogram medido = latencias.getIntervalHistogram();
+        long errosMedidos = erros.sum();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        parar.set(true);
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        return new Resultado(medido, errosMedidos, segundos);
+    }
+
+    // 50% listagem paginada, 30% disponibilidade, 20% novo agendamento (aluno TFG, segunda-feira)
+    private static int requisicaoMista(SessaoHttp sessao) throws Exception {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int sorteio = rnd.nextInt(100);
+        String equipamento = EQUIPAMENTOS[rnd.nextInt(EQUIPAMENTOS.length)];
+        LocalDate segunda = LocalDate.now().plusWeeks(1 + rnd.nextInt(26)).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        if (sorteio < 50) {
+            return sessao.get("/api/agendamentos/meus/" + (1 + rnd.nextInt(2)) + "?limite=20");
+        }
+        if (sorteio < 80) {
+            return sessao.get("/api/agendamentos/disponibilidade?equipamento=" + SessaoHttp.codificar(equipamento) + "&dia=" + segunda);
+        }
+        LocalDateTime inicio = segunda.atTime(8, 0).plusMinutes(15L * rnd.nextInt(40));
+        return sessao.post("/api/agendamentos", """
+                {"alunoId":1,"inicio":"%s","fim":"%s","equipamento":"%s"}""".formatted(inicio, inicio.plusHours(1), equipamento));
+    }
+
+    record Resultado(Histogram latencias, long erros, double segundos) {
+
+        void imprimir(String modo) {
+            System.out.printf("%-10s %s%n", modo, colunas());
+        }
+
+        String colunas() {
+            return "%10.0f %10.2f %10.2f %10.2f %10.2f %8d".formatted(
+                    latencias.getTotalCount() / segundos,
+                    latencias.getValueAtPercentile(50) / 1000.0,
+                    latencias.getValueAtPercentile(99) / 1000.0,
+                    latencias.getValueAtPercentile(99.9) / 1000.0,
+                    latencias.getMaxValue() / 1000.0,
+                    erros);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package br.fau.laser_booking.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Gera um arquivo de tráfego sintético no formato do ReplayTrafegoCarga, enquanto não há
+// gravação real do servidor: manhã de abertura de agenda, com rajada nos primeiros minutos.
+// Uma requisição por linha, em ordem de "em":
+//   {"em":"2025-09-01T07:50:03","op":"agendar","ref":"r12","alunoId":1,"inicio":"...","fim":"...","equipamento":"cortadora 2"}
+//   {"em":"...","op":"cancelar","ref":"r12","alunoId":1}
+//   {"em":"...","op":"editar","ref":"r12","alunoId":1,"inicio":"...","fim":"...","equipamento":"..."}
+//   {"em":"...","op":"suplente","ref":"r12","titularId":1,"suplenteId":2}
+//   {"em":"...","op":"listar","alunoId":1,"limite":20}
+//   {"em":"...","op":"disponibilidade","equipamento":"cortadora 1","dia":"2025-09-02"}
+// "ref" liga cancelar/editar/suplente ao agendamento que criou a reserva (o id só existe na reprodução).
+// Argumentos chave=valor: saida=src/jmh/trafego/pico-segunda.jsonl requisicoes=1000
+//   inicio=2025-09-01T07:50 minutos=60 semente=42
+public class GeradorTrafego {
+
+    private static final String[] EQUIPAMENTOS = {"cortadora 1", "cortadora 2", "cortadora 3"};
+    private static final long TFG = 1L;
+    private static final long REGULAR = 2L;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            opcoes.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        Path saida = Path.of(opcoes.getOrDefault("saida", "src/jmh/trafego/pico-segunda.jsonl"));
+        int requisicoes = Integer.parseInt(opcoes.getOrDefault("requisicoes", "1000"));
+        LocalDateTime inicio = LocalDateTime.parse(opcoes.getOrDefault("inicio", "2025-09-01T07:50"));
+        int minutos = Integer.parseInt(opcoes.getOrDefault("minutos", "60"));
+        Random rnd = new Random(Long.parseLong(opcoes.getOrDefault("semente", "42")));
+
+        ObjectMapper json = new ObjectMapper();
+        List<ObjectNode> agendamentos = new ArrayList<>();
+        long janelaSegundos = minutos * 60L;
+        try (BufferedWriter out = Files.newBufferedWriter(saida)) {
+            for (LocalDateTime em : instantes(rnd, requisicoes, inicio, janelaSegundos)) {
+                ObjectNode linha = json.createObjectNode().put("em", em.toString());
+                int sorteio = rnd.nextInt(100);
+                // sem algumas reservas anteriores, o que seria cancelar/editar/suplente vira agendamento
+                if (sorteio >= 85 && agendamentos.size() < 5) {
+                    sorteio = 70;
+                }
+                if (sorteio < 35) {
+                    linha.put("op", "listar").put("alunoId", aluno(rnd)).put("limite", 20);
+                } else if (sorteio < 65) {
+                    linha.put("op", "disponibilidade")
+                            .put("equipamento", EQUIPAMENTOS[rnd.nextInt(EQUIPAMENTOS.length)])
+                            .put("dia", em.toLocalDate().plusDays(1 + rnd.nextInt(7)).toString());
+                } else if (sorteio < 85) {
+                    long alunoId = aluno(rnd);
+                    linha.put("op", "agendar").put("ref", "r" + agendamentos.size()).put("alunoId", alunoId);
+                    horario(linha, rnd, dia(rnd, alunoId, em.toLocalDate()));
+                    agendamentos.add(linha);
+                } else {
+                    // alterações miram, de preferência, reservas recentes
+                    ObjectNode reserva = agendamentos.get(Math.max(0, agendamentos.size() - 1 - rnd.nextInt(30)));
+                    long titular = reserva.get("alunoId").asLong();
+                    linha.put("ref", reserva.get("ref").asText());
+                    if (sorteio < 90) {
+                        linha.put("op", "cancelar").put("alunoId", titular);
+                    } else if (sorteio < 95) {
+                        linha.put("op", "editar").put("alunoId", titular);
+                        horario(linha, rnd, LocalDateTime.parse(reserva.get("inicio").asText()).toLocalDate());
+                    } else {
+                        linha.put("op", "suplente").put("titularId", titular)
+                                .put("suplenteId", titular == TFG ? REGULAR : TFG);
+                    }
+                }
+                out.write(json.writeValueAsString(linha));
+                out.newLine();
+            }
+        }
+        System.out.printf("%d requisições (%d agendamentos) de %s em %s%n",
+                requisicoes, agendamentos.size(), inicio, saida);
+    }
+
+    // Metade das requisições nos primeiros 10 minutos (abertura), o resto espalhado pela janela
+    private static List<LocalDateTime> instantes(Random rnd, int n, LocalDateTime inicio, long janelaSegundos) {
+        long rajada = Math.min(600, janelaSegundos);
+        List<LocalDateTime> instantes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            long limite = rnd.nextBoolean() ? rajada : janelaSegundos;
+            instantes.add(inicio.plus((long) (rnd.nextDouble() * limite * 1000), ChronoUnit.MILLIS));
+        }
+        instantes.sort(null);
+        return instantes;
+    }
+
+    private static long aluno(Random rnd) {
+        return rnd.nextInt(10) < 7 ? TFG : REGULAR;
+    }
+
+    // TFG disputa os próximos dias de TFG; o regular tenta os próximos dias e só passa nos
+    // dias do semestre dele (quarta/sexta) ou a menos de 24h: o 409 de permissão também é tráfego real
+    private static LocalDate dia(Random rnd, long alunoId, LocalDate hoje) {
+        if (alunoId == TFG) {
+            DayOfWeek[] dias = {DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.THURSDAY};
+            return hoje.plusDays(1).with(TemporalAdjusters.nextOrSame(dias[rnd.nextInt(dias.length)]))
+                    .plusWeeks(rnd.nextInt(2));
+        }
+        return rnd.nextInt(10) < 6 ? hoje.plusDays(1) : hoje.plusDays(2 + rnd.nextInt(6));
+    }
+
+    // Slots de 30 min entre 08:00 e 19:30, com 30 a 90 min de duração
+    private static void horario(ObjectNode linha, Random rnd, LocalDate dia) {
+        LocalDateTime inicio = dia.atTime(8, 0).plusMinutes(30L * rnd.nextInt(24));
+        linha.put("inicio", inicio.toString())
+                .put("fim", inicio.plusMinutes(30L * (1 + rnd.nextInt(3))).toString())
+                .put("equipamento", EQUIPAMENTOS[rnd.nextInt(EQUIPAMENTOS.length)]);
+    }
+}
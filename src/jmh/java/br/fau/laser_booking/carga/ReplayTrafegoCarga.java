@@ -0,0 +1,318 @@
+package br.fau.laser_booking.carga;
+
+import br.fau.laser_booking.LaserBookingApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Reproduz um arquivo de tráfego gravado (JSONL, formato em GeradorTrafego) contra a API REST,
+// respeitando o instante de cada requisição: carga em open loop, como a do laboratório no
+// início do semestre. A latência é medida a partir do instante PLANEJADO, então fila no
+// cliente ou no servidor aparece no p99 (sem coordinated omission).
+// A aplicação embarcada sobe com o relógio acelerado começando no instante da primeira linha,
+// e as regras de antecedência/passado valem como no dia gravado.
+// Argumentos chave=valor:
+//   arquivo=src/jmh/trafego/pico-segunda.jsonl  concorrencia=64  fator=60 (60 = 1h gravada em 1min;
+//   0 = sem pausas)  url=http://host:8080 (servidor externo, sem relógio acelerado)
+//   usuario=aluno senha=abc123  histograma=arquivo.hgrm (distribuição completa das latências)
+//   porMinuto=30*fator rajada=10 simultaneas=concorrencia (ControleAdmissao da aplicação embarcada:
+//   o limite por aluno corre em tempo real, daí escalar por-minuto pelo fator para valer o do dia gravado;
+//   fator=0 = sem limite por aluno)
+public class ReplayTrafegoCarga {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // Operações que dependem de uma reserva criada antes no mesmo arquivo (campo "ref")
+    private static final List<String> COM_REFERENCIA = List.of("cancelar", "editar", "suplente");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            opcoes.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        Path arquivo = Path.of(opcoes.getOrDefault("arquivo", "src/jmh/trafego/pico-segunda.jsonl"));
+        int concorrencia = Integer.parseInt(opcoes.getOrDefault("concorrencia", "64"));
+        double fator = Double.parseDouble(opcoes.getOrDefault("fator", "60"));
+        String url = opcoes.get("url");
+
+        List<Requisicao> trafego = ler(arquivo);
+        if (trafego.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma requisição em " + arquivo);
+        }
+        LocalDateTime primeira = trafego.get(0).em();
+        LocalDateTime ultima = trafego.get(trafego.size() - 1).em();
+        System.out.printf("Java %s, %d requisições de %s a %s, concorrência %d, fator %s%n",
+                Runtime.version(), trafego.size(), primeira, ultima, concorrencia, fator > 0 ? fator : "sem pausas");
+
+        ConfigurableApplicationContext contexto = null;
+        try {
+            if (url == null) {
+                contexto = subir(primeira, fator, admissao(opcoes, fator, concorrencia));
+                url = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            }
+            SessaoHttp sessao = new SessaoHttp(url)
+                    .entrar(opcoes.getOrDefault("usuario", "aluno"), opcoes.getOrDefault("senha", "abc123"));
+            Relatorio relatorio = reproduzir(trafego, sessao, concorrencia, fator);
+            relatorio.imprimir(System.out);
+            String histograma = opcoes.get("histograma");
+            if (histograma != null) {
+                try (PrintStream saida = new PrintStream(Files.newOutputStream(Path.of(histograma)))) {
+                    relatorio.total.outputPercentileDistribution(saida, 1000.0);
+                }
+                System.out.println("Distribuição de latências (ms) em " + histograma);
+            }
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    private static List<String> admissao(Map<String, String> opcoes, double fator, int concorrencia) {
+        long porMinuto = fator > 0 ? Math.round(Math.ceil(30 * fator)) : 1_000_000;
+        return List.of(
+                "--laserbooking.admissao.por-minuto=" + opcoes.getOrDefault("porMinuto", String.valueOf(porMinuto)),
+                "--laserbooking.admissao.rajada=" + opcoes.getOrDefault("rajada", "10"),
+                "--laserbooking.admissao.simultaneas=" + opcoes.getOrDefault("simultaneas", String.valueOf(concorrencia)));
+    }
+
+    private static ConfigurableApplicationContext subir(LocalDateTime inicioGravacao, double fator,
+                                                        List<String> admissao) {
+        // o relógio corre desde a criação do bean: o boot "consome" alguns segundos x fator
+        // do início gravado, daí o gerador deixar folga entre pedir e usar o horário
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:replay-" + UUID.randomUUID(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--laserbooking.relogio.inicio=" + inicioGravacao,
+                "--laserbooking.relogio.fator=" + (fator > 0 ? fator : 1)));
+        argumentos.addAll(admissao);
+        return new SpringApplicationBuilder(LaserBookingApplication.class)
+                .run(argumentos.toArray(String[]::new));
+    }
+
+    // === Leitura ============================================================
+    record Requisicao(int linha, LocalDateTime em, String op, String ref, JsonNode dados) {
+    }
+
+    static List<Requisicao> ler(Path arquivo) throws IOException {
+        List<Requisicao> trafego = new ArrayList<>();
+        int numero = 0;
+        for (String linha : Files.readAllLines(arquivo)) {
+            numero++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            JsonNode no = JSON.readTree(linha);
+            if (!no.hasNonNull("em") || !no.hasNonNull("op")) {
+                throw new IllegalArgumentException("Linha " + numero + ": campos 'em' e 'op' são obrigatórios");
+            }
+            String op = no.get("op").asText();
+            String ref = no.hasNonNull("ref") ? no.get("ref").asText() : null;
+            if (COM_REFERENCIA.contains(op) && ref == null) {
+                throw new IllegalArgumentException("Linha " + numero + ": '" + op + "' precisa de 'ref'");
+            }
+            trafego.add(new Requisicao(numero, LocalDateTime.parse(no.get("em").asText()), op, ref, no));
+        }
+        // estável: linhas com o mesmo instante mantêm a ordem do arquivo
+        trafego.sort(Comparator.comparing(Requisicao::em));
+        return trafego;
+    }
+
+    // === Reprodução =========================================================
+    private static Relatorio reproduzir(List<Requisicao> trafego, SessaoHttp sessao, int concorrencia,
+                                        double fator) throws InterruptedException {
+        Relatorio relatorio = new Relatorio();
+        // ref -> id da reserva criada (null se o agendamento falhou)
+        Map<String, CompletableFuture<Long>> reservas = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(concorrencia);
+        LocalDateTime primeira = trafego.get(0).em();
+        long inicio = System.nanoTime();
+
+        for (Requisicao r : trafego) {
+            long planejado = fator > 0
+                    ? inicio + (long) (Duration.between(primeira, r.em()).toNanos() / fator)
+                    : System.nanoTime();
+            long espera;
+            while ((espera = planejado - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            CompletableFuture<Long> criada = null;
+            if ("agendar".equals(r.op()) && r.ref() != null) {
+                criada = new CompletableFuture<>();
+                reservas.put(r.ref(), criada);
+            }
+            CompletableFuture<Long> dependencia = r.ref() == null || criada != null ? null : reservas.get(r.ref());
+            CompletableFuture<Long> resultado = criada;
+            // Sem deadlock ao esperar a dependência dentro do pool: o agendamento foi
+            // enfileirado antes (FIFO), então já está rodando ou terminou
+            executor.execute(() -> executar(r, sessao, planejado, dependencia, resultado, relatorio));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        relatorio.segundos = (System.nanoTime() - inicio) / 1e9;
+        return relatorio;
+    }
+
+    private static void executar(Requisicao r, SessaoHttp sessao, long planejado,
+                                 CompletableFuture<Long> dependencia, CompletableFuture<Long> criada,
+                                 Relatorio relatorio) {
+        Relatorio.PorOperacao estatistica = relatorio.de(r.op());
+        Long reservaId = null;
+        if (COM_REFERENCIA.contains(r.op())) {
+            reservaId = dependencia == null ? null : dependencia.join();
+            if (reservaId == null) {
+                estatistica.semReferencia.increment();
+                return;
+            }
+        }
+        int status;
+        try {
+            status = enviar(r, sessao, reservaId, criada);
+        } catch (Exception e) {
+            status = -1;
+        } finally {
+            if (criada != null) {
+                criada.complete(null);   // no-op se enviar() já completou com o id
+            }
+        }
+        long latencia = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - planejado);
+        estatistica.registrar(status, latencia);
+        relatorio.registrar(latencia);
+    }
+
+    private static int enviar(Requisicao r, SessaoHttp sessao, Long reservaId,
+                              CompletableFuture<Long> criada) throws Exception {
+        JsonNode d = r.dados();
+        String base = "/api/agendamentos";
+        return switch (r.op()) {
+            case "agendar" -> {
+                HttpResponse<String> resposta = sessao.postComResposta(base, """
+                        {"alunoId":%d,"inicio":"%s","fim":"%s","equipamento":"%s"}""".formatted(
+                        d.get("alunoId").asLong(), d.get("inicio").asText(), d.get("fim").asText(),
+                        d.get("equipamento").asText()));
+                if (criada != null && resposta.statusCode() == 201) {
+                    criada.complete(JSON.readTree(resposta.body()).get("id").asLong());
+                }
+                yield resposta.statusCode();
+            }
+            case "cancelar" -> sessao.post(base + "/" + reservaId + "/cancelar?alunoId=" + d.get("alunoId").asLong(), null);
+            case "editar" -> sessao.post(base + "/" + reservaId + "/editar?alunoId=" + d.get("alunoId").asLong()
+                    + "&inicio=" + SessaoHttp.codificar(d.get("inicio").asText())
+                    + "&fim=" + SessaoHttp.codificar(d.get("fim").asText())
+                    + "&equipamento=" + SessaoHttp.codificar(d.get("equipamento").asText()), null);
+            case "suplente" -> sessao.post(base + "/" + reservaId + "/suplente?titularId=" + d.get("titularId").asLong()
+                    + "&suplenteId=" + d.get("suplenteId").asLong(), null);
+            case "listar" -> sessao.get(base + "/meus/" + d.get("alunoId").asLong() + "?limite=" + d.path("limite").asInt(20));
+            case "disponibilidade" -> sessao.get(base + "/disponibilidade?equipamento="
+                    + SessaoHttp.codificar(d.get("equipamento").asText()) + "&dia=" + d.get("dia").asText());
+            default -> throw new IllegalArgumentException("Linha " + r.linha() + ": operação desconhecida '" + r.op() + "'");
+        };
+    }
+
+    // === Relatório ==========================================================
+    static final class Relatorio {
+
+        // respostas que o AgendamentoController devolve; o resto cai em "outros"
+        private static final int[] STATUS = {400, 403, 409, 429, 500};
+
+        private final Map<String, PorOperacao> operacoes = new ConcurrentHashMap<>();
+        private final Recorder latencias = new Recorder(3);
+        private Histogram total;
+        private double segundos;
+
+        PorOperacao de(String op) {
+            return operacoes.computeIfAbsent(op, k -> new PorOperacao());
+        }
+
+        void registrar(long latenciaMicros) {
+            latencias.recordValue(latenciaMicros);
+        }
+
+        void imprimir(PrintStream saida) {
+            total = latencias.getIntervalHistogram();
+            saida.println();
+            saida.printf("%-16s %7s %7s %6s %6s %6s %6s %6s %7s %6s %7s %9s %9s %9s%n",
+                    "operação", "total", "2xx", "400", "403", "409", "429", "500", "outros", "io", "sem ref",
+                    "p50 ms", "p99 ms", "max ms");
+            long enviadas = 0;
+            for (Map.Entry<String, PorOperacao> e : new TreeMap<>(operacoes).entrySet()) {
+                e.getValue().imprimir(saida, e.getKey());
+                enviadas += e.getValue().latencias.getTotalCount();
+            }
+            saida.println();
+            saida.printf("%d requisições em %.1fs: %.0f req/s; latência p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                    enviadas, segundos, enviadas / segundos,
+                    total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(99) / 1000.0,
+                    total.getValueAtPercentile(99.9) / 1000.0, total.getMaxValue() / 1000.0);
+        }
+
+        static final class PorOperacao {
+
+            // status HTTP -> quantidade; -1 = falha de I/O (timeout, conexão recusada)
+            private final Map<Integer, LongAdder> porStatus = new ConcurrentHashMap<>();
+            private final LongAdder semReferencia = new LongAdder();
+            private final Histogram latencias = new Histogram(3);
+
+            void registrar(int status, long latenciaMicros) {
+                porStatus.computeIfAbsent(status, k -> new LongAdder()).increment();
+                synchronized (latencias) {
+                    latencias.recordValue(latenciaMicros);
+                }
+            }
+
+            private long contar(int status) {
+                LongAdder n = porStatus.get(status);
+                return n == null ? 0 : n.sum();
+            }
+
+            void imprimir(PrintStream saida, String op) {
+                long sucesso = 0;
+                long outros = 0;
+                for (Map.Entry<Integer, LongAdder> e : porStatus.entrySet()) {
+                    int status = e.getKey();
+                    if (status >= 200 && status < 300) {
+                        sucesso += e.getValue().sum();
+                    } else if (status != -1 && Arrays.stream(STATUS).noneMatch(s -> s == status)) {
+                        outros += e.getValue().sum();
+                    }
+                }
+                saida.printf("%-16s %7d %7d %6d %6d %6d %6d %6d %7d %6d %7d %9.2f %9.2f %9.2f%n",
+                        op, latencias.getTotalCount() + semReferencia.sum(), sucesso,
+                        contar(400), contar(403), contar(409), contar(429), contar(500), outros, contar(-1), semReferencia.sum(),
+                        latencias.getValueAtPercentile(50) / 1000.0,
+                        latencias.getValueAtPercentile(99) / 1000.0,
+                        latencias.getMaxValue() / 1000.0);
+            }
+        }
+    }
+}
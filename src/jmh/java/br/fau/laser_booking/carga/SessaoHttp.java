@@ -0,0 +1,85 @@
+package br.fau.laser_booking.carga;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Sessão autenticada pelo mesmo caminho do navegador: form login + token CSRF.
+// Uma sessão é compartilhada por todos os clientes simulados (HttpClient é thread-safe).
+public class SessaoHttp {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private final HttpClient http;
+    private final String base;
+    private String tokenCsrf;
+
+    public SessaoHttp(String base) {
+        this.base = base;
+        this.http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public SessaoHttp entrar(String usuario, String senha) throws IOException, InterruptedException {
+        String form = "username=" + codificar(usuario) + "&password=" + codificar(senha) + "&_csrf=" + codificar(lerTokenCsrf());
+        HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (resposta.headers().firstValue("Location").orElse("").contains("error")) {
+            throw new IllegalStateException("Login recusado para " + usuario);
+        }
+        // o login troca a sessão e o token; a página de login renderiza o novo
+        tokenCsrf = lerTokenCsrf();
+        return this;
+    }
+
+    public int get(String caminho) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create(base + caminho)).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    public int post(String caminho, String json) throws IOException, InterruptedException {
+        return http.send(requisicaoPost(caminho, json), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // Para quem precisa do corpo da resposta (ex.: id da reserva criada)
+    public HttpResponse<String> postComResposta(String caminho, String json) throws IOException, InterruptedException {
+        return http.send(requisicaoPost(caminho, json), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest requisicaoPost(String caminho, String json) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(base + caminho))
+                .header("X-CSRF-TOKEN", tokenCsrf);
+        if (json != null) {
+            req.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            req.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        return req.build();
+    }
+
+    private String lerTokenCsrf() throws IOException, InterruptedException {
+        String pagina = http.send(HttpRequest.newBuilder(URI.create(base + "/login")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher m = CSRF.matcher(pagina);
+        if (!m.find()) {
+            throw new IllegalStateException("Token CSRF não encontrado em /login");
+        }
+        return m.group(1);
+    }
+
+    public static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+}
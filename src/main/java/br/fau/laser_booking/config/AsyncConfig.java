@@ -0,0 +1,26 @@
+package br.fau.laser_booking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// @Async usa o applicationTaskExecutor do Spring Boot: pool de platform threads
+// por padrão, uma virtual thread por tarefa com o profile "virtual" (Java 21).
+// Entrega de SSE e fila de espera têm pools próprios (poolDedicado), fora do contexto:
+// um bean Executor a mais faria o Spring Boot deixar de criar o applicationTaskExecutor.
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Tamanho fixo e fila limitada: saturado, execute() lança TaskRejectedException.
+    // Quem cria é dono do pool e o encerra no @PreDestroy.
+    public static ThreadPoolTaskExecutor poolDedicado(String prefixo, int threads, int fila) {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setThreadNamePrefix(prefixo);
+        pool.setCorePoolSize(threads);
+        pool.setMaxPoolSize(threads);
+        pool.setQueueCapacity(fila);
+        pool.initialize();
+        return pool;
+    }
+}
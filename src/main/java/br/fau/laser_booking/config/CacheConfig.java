@@ -0,0 +1,38 @@
+package br.fau.laser_booking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Caches nomeados, tamanho e TTL ficam em application.properties (spring.cache.*).
+// Com recordStats o actuator publica cache.gets{result=hit|miss} por cache.
+// O CacheManager é montado aqui (e não pelo Spring Boot) para duas coisas:
+// - put/evict dentro de transação só valem depois do commit: uma leitura concorrente não
+//   recoloca no cache o aluno de antes de uma escrita que ainda nem foi confirmada;
+// - os caches guardam cópias (CacheDeAlunos), nunca a instância que alguém recebeu.
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties propriedades) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String nome, Cache<Object, Object> cache) {
+                return new CacheDeAlunos(nome, cache, isAllowNullValues());
+            }
+        };
+        if (propriedades.getCaffeine().getSpec() != null) {
+            caffeine.setCacheSpecification(propriedades.getCaffeine().getSpec());
+        }
+        caffeine.setCacheNames(propriedades.getCacheNames());
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
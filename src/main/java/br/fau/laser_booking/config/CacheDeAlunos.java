@@ -0,0 +1,45 @@
+package br.fau.laser_booking.config;
+
+import br.fau.laser_booking.model.Aluno;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+// Cache Caffeine que guarda um retrato imutável do Aluno em vez da entidade: cada leitura
+// devolve uma instância nova (desanexada), então um setNome() de quem leu não muda o que o
+// cache entrega às outras threads. Outros valores passam como estão.
+class CacheDeAlunos extends CaffeineCache {
+
+    private record Retrato(Long id, String nome, String email, String senhaHash, Integer semestre,
+                           Aluno.TipoTrabalho tipoTrabalho) {
+
+        static Retrato de(Aluno a) {
+            return new Retrato(a.getId(), a.getNome(), a.getEmail(), a.getSenhaHash(), a.getSemestre(), a.getTipoTrabalho());
+        }
+
+        Aluno paraAluno() {
+            Aluno a = new Aluno();
+            a.setId(id);
+            a.setNome(nome);
+            a.setEmail(email);
+            a.setSenhaHash(senhaHash);
+            a.setSemestre(semestre);
+            a.setTipoTrabalho(tipoTrabalho);
+            return a;
+        }
+    }
+
+    CacheDeAlunos(String nome, Cache<Object, Object> cache, boolean permiteNulos) {
+        super(nome, cache, permiteNulos);
+    }
+
+    @Override
+    protected Object toStoreValue(Object valor) {
+        return super.toStoreValue(valor instanceof Aluno a ? Retrato.de(a) : valor);
+    }
+
+    @Override
+    protected Object fromStoreValue(Object guardado) {
+        Object valor = super.fromStoreValue(guardado);
+        return valor instanceof Retrato r ? r.paraAluno() : valor;
+    }
+}
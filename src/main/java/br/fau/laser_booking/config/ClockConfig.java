@@ -0,0 +1,27 @@
+package br.fau.laser_booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Fonte única de "agora" do domínio (serviços, jobs e auditoria da Reserva).
+// Com laserbooking.relogio.inicio=yyyy-MM-ddTHH:mm o relógio começa nesse instante e anda
+// laserbooking.relogio.fator vezes mais rápido: reprodução de um dia de pico em carga/benchmark.
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock(@Value("${laserbooking.relogio.inicio:}") String inicio,
+                       @Value("${laserbooking.relogio.fator:1}") double fator) {
+        Clock sistema = Clock.systemDefaultZone();
+        if (inicio.isBlank()) {
+            return sistema;
+        }
+        ZoneId zona = sistema.getZone();
+        return new RelogioAcelerado(LocalDateTime.parse(inicio).atZone(zona).toInstant(), fator, sistema);
+    }
+}
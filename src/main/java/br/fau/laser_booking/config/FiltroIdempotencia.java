@@ -0,0 +1,260 @@
+package br.fau.laser_booking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Idempotency-Key nos POST de /api/agendamentos: o formulário reenviado (Wi-Fi instável) recebe a
+// resposta ORIGINAL, sem passar de novo por validação, índice de conflito e insert.
+// Chave por usuário; guarda status + corpo da resposta num cache Caffeine limitado e com validade.
+// - mesma chave, mesma requisição: repete a resposta (cabeçalho Idempotency-Replayed: true);
+//   se a primeira ainda está rodando, espera por ela em vez de executar de novo
+// - mesma chave, outra requisição (método/caminho/parâmetros/corpo): 422
+// - resposta 5xx ou 429 (ControleAdmissao) não fica guardada: a próxima tentativa executa de verdade
+// Roda depois do Spring Security (ordem padrão de filtro): usuário autenticado e CSRF já conferidos.
+@Component
+public class FiltroIdempotencia extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETIDA = "Idempotency-Replayed";
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+    private static final String PARAMETRO_CSRF = "_csrf";
+
+    private final Cache<String, Entrada> respostas;
+    private final Duration esperaEmAndamento;
+    private final MeterRegistry registry;
+
+    public FiltroIdempotencia(MeterRegistry registry,
+                              @Value("${laserbooking.idempotencia.maximo-chaves:10000}") long maximoChaves,
+                              @Value("${laserbooking.idempotencia.validade:PT24H}") Duration validade,
+                              @Value("${laserbooking.idempotencia.espera-em-andamento:PT10S}") Duration esperaEmAndamento) {
+        this.respostas = Caffeine.newBuilder()
+                .maximumSize(maximoChaves)
+                .expireAfterWrite(validade)
+                .build();
+        this.esperaEmAndamento = esperaEmAndamento;
+        this.registry = registry;
+    }
+
+    private record Resposta(int status, String contentType, byte[] corpo) {
+    }
+
+    // Impressão digital da requisição + resposta (completa quando a primeira execução termina)
+    private record Entrada(String impressao, CompletableFuture<Resposta> resposta) {
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/agendamentos")
+                || request.getHeader(CABECALHO) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String chave = request.getHeader(CABECALHO).trim();
+        if (chave.isEmpty() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            responder(response, HttpStatus.BAD_REQUEST, CABECALHO + " deve ter de 1 a " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+            return;
+        }
+        String usuario = request.getUserPrincipal() == null ? "" : request.getUserPrincipal().getName();
+        String chaveCompleta = usuario + '\n' + chave;
+
+        // parâmetros antes do corpo: em formulário o Tomcat lê os parâmetros do próprio corpo
+        Map<String, String[]> parametros = request.getParameterMap();
+        byte[] corpo = ehFormulario(request) ? new byte[0] : request.getInputStream().readAllBytes();
+        String impressao = impressao(request, parametros, corpo);
+
+        Entrada nova = new Entrada(impressao, new CompletableFuture<>());
+        Entrada existente = respostas.asMap().putIfAbsent(chaveCompleta, nova);
+        if (existente != null) {
+            repetir(existente, impressao, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper gravador = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(corpo.length == 0 ? request : new CorpoRelido(request, corpo), gravador);
+        } catch (IOException | ServletException | RuntimeException e) {
+            respostas.asMap().remove(chaveCompleta, nova);
+            nova.resposta().completeExceptionally(e);
+            throw e;
+        }
+        Resposta resposta = new Resposta(gravador.getStatus(), gravador.getContentType(), gravador.getContentAsByteArray());
+        if (resposta.status() >= 500 || resposta.status() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            respostas.asMap().remove(chaveCompleta, nova);
+        }
+        nova.resposta().complete(resposta);
+        contar("executada");
+        gravador.copyBodyToResponse();
+    }
+
+    private void repetir(Entrada existente, String impressao, HttpServletResponse response) throws IOException {
+        if (!existente.impressao().equals(impressao)) {
+            contar("divergente");
+            responder(response, HttpStatus.UNPROCESSABLE_ENTITY, CABECALHO + " já usada com outra requisição.");
+            return;
+        }
+        Resposta original;
+        try {
+            original = existente.resposta().get(esperaEmAndamento.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            contar("em_andamento");
+            responder(response, HttpStatus.CONFLICT, "Requisição com a mesma " + CABECALHO + " ainda em andamento.");
+            return;
+        } catch (ExecutionException e) {
+            // a original falhou sem resposta: o cliente tenta de novo (a chave já foi liberada)
+            contar("falhou");
+            responder(response, HttpStatus.CONFLICT, "Requisição original falhou; tente novamente.");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        contar("repetida");
+        response.setStatus(original.status());
+        if (original.contentType() != null) {
+            response.setContentType(original.contentType());
+        }
+        response.setHeader(CABECALHO_REPETIDA, "true");
+        response.setContentLength(original.corpo().length);
+        response.getOutputStream().write(original.corpo());
+    }
+
+    private void contar(String resultado) {
+        registry.counter("laserbooking.idempotencia.requisicoes", "resultado", resultado).increment();
+    }
+
+    private static void responder(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensagem);
+    }
+
+    private static boolean ehFormulario(HttpServletRequest request) {
+        String tipo = request.getContentType();
+        return tipo != null && tipo.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    private static String impressao(HttpServletRequest request, Map<String, String[]> parametros, byte[] corpo) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String[]> p : new TreeMap<>(parametros).entrySet()) {
+                // o token CSRF pode mudar entre o envio e o reenvio do mesmo formulário
+                if (p.getKey().equals(PARAMETRO_CSRF)) {
+                    continue;
+                }
+                sha.update((byte) 0);
+                sha.update(p.getKey().getBytes(StandardCharsets.UTF_8));
+                for (String valor : p.getValue()) {
+                    sha.update((byte) 1);
+                    sha.update(valor.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            sha.update((byte) 2);
+            sha.update(corpo);
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // O corpo já foi lido para a impressão digital; o controller lê esta cópia
+    static final class CorpoRelido extends HttpServletRequestWrapper {
+
+        private final byte[] corpo;
+
+        CorpoRelido(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // o corpo já está todo em memória: está sempre pronto e acaba numa leitura só
+                    try {
+                        if (entrada.available() > 0) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(charset)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return corpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return corpo.length;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.fau.laser_booking.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+// Relógio que parte de um instante simulado e avança "fator" vezes o tempo real decorrido
+public final class RelogioAcelerado extends Clock {
+
+    private final Instant origemSimulada;
+    private final Instant origemReal;
+    private final double fator;
+    private final Clock base;
+
+    public RelogioAcelerado(Instant origemSimulada, double fator, Clock base) {
+        this(origemSimulada, base.instant(), fator, base);
+    }
+
+    private RelogioAcelerado(Instant origemSimulada, Instant origemReal, double fator, Clock base) {
+        if (fator <= 0) {
+            throw new IllegalArgumentException("Fator do relógio deve ser positivo.");
+        }
+        this.origemSimulada = origemSimulada;
+        this.origemReal = origemReal;
+        this.fator = fator;
+        this.base = base;
+    }
+
+    @Override
+    public Instant instant() {
+        long decorridoNanos = Duration.between(origemReal, base.instant()).toNanos();
+        return origemSimulada.plusNanos((long) (decorridoNanos * fator));
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return base.getZone();
+    }
+
+    @Override
+    public Clock withZone(ZoneId zona) {
+        return new RelogioAcelerado(origemSimulada, origemReal, fator, base.withZone(zona));
+    }
+}
@@ -0,0 +1,11 @@
+package br.fau.laser_booking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Jobs @Scheduled (ex.: FinalizacaoReservas). O scheduler do Spring Boot tem uma
+// thread só por padrão (spring.task.scheduling.pool.size); jobs não se sobrepõem.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,157 @@
+package br.fau.laser_booking.controller;
+
+import br.fau.laser_booking.service.ArquivamentoReservas;
+import br.fau.laser_booking.service.CatalogoEquipamentos;
+import br.fau.laser_booking.service.EstatisticasUso;
+import br.fau.laser_booking.service.ExportacaoReservas;
+import br.fau.laser_booking.service.RegrasPrioridade;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+// Operações de manutenção (role ADMIN, ver SecurityConfig)
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final ArquivamentoReservas arquivamentoReservas;
+    private final RegrasPrioridade regrasPrioridade;
+    private final ExportacaoReservas exportacaoReservas;
+    private final EstatisticasUso estatisticasUso;
+    private final CatalogoEquipamentos catalogoEquipamentos;
+
+    public AdminController(ArquivamentoReservas arquivamentoReservas,
+                           RegrasPrioridade regrasPrioridade,
+                           ExportacaoReservas exportacaoReservas,
+                           EstatisticasUso estatisticasUso,
+                           CatalogoEquipamentos catalogoEquipamentos) {
+        this.arquivamentoReservas = arquivamentoReservas;
+        this.regrasPrioridade = regrasPrioridade;
+        this.exportacaoReservas = exportacaoReservas;
+        this.estatisticasUso = estatisticasUso;
+        this.catalogoEquipamentos = catalogoEquipamentos;
+    }
+
+    // === Arquivamento ======================================================
+    // Dispara agora o mesmo job do cron; ?horizonteDias= sobrescreve o configurado
+    @PostMapping("/arquivamento")
+    public ResponseEntity<?> arquivar(@RequestParam(required = false) Integer horizonteDias) {
+        try {
+            int arquivadas = horizonteDias == null
+                    ? arquivamentoReservas.arquivar()
+                    : arquivamentoReservas.arquivar(horizonteDias);
+            return ResponseEntity.ok(Map.of("arquivadas", arquivadas));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao arquivar reservas: " + e.getMessage());
+        }
+    }
+
+    // === Regras de prioridade ===============================================
+    // Depois de alterar regra_prioridade: recompila sem reiniciar a aplicação
+    @PostMapping("/regras/recarregar")
+    public ResponseEntity<?> recarregarRegras() {
+        try {
+            return ResponseEntity.ok(Map.of("regras", regrasPrioridade.recarregar()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao recarregar regras: " + e.getMessage());
+        }
+    }
+
+    // === Equipamentos =======================================================
+    // Depois de incluir/desativar linhas em equipamento
+    @PostMapping("/equipamentos/recarregar")
+    public ResponseEntity<?> recarregarEquipamentos() {
+        try {
+            return ResponseEntity.ok(Map.of("equipamentos", catalogoEquipamentos.recarregar()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao recarregar equipamentos: " + e.getMessage());
+        }
+    }
+
+    // === Uso por equipamento ================================================
+    // Painel: ?granularidade=dia|semana&de=&ate= (datas inclusivas), &equipamento= opcional
+    @GetMapping("/uso")
+    public ResponseEntity<?> consultarUso(@RequestParam(defaultValue = "dia") String granularidade,
+                                          @RequestParam(required = false) String equipamento,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        try {
+            return ResponseEntity.ok(estatisticasUso.consultar(
+                    EstatisticasUso.granularidade(granularidade), equipamento, de, ate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Recalcula a partir de reserva + reserva_arquivo (backfill depois da migration V8)
+    @PostMapping("/uso/reconstruir")
+    public ResponseEntity<?> reconstruirUso() {
+        try {
+            return ResponseEntity.ok(Map.of("linhas", estatisticasUso.reconstruir()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao reconstruir uso por equipamento: " + e.getMessage());
+        }
+    }
+
+    // === Exportação =========================================================
+    // Reservas com início em [de, ate] (datas inclusivas), em CSV ou NDJSON, escritas enquanto
+    // o cursor anda (StreamingResponseBody roda fora da thread do Tomcat).
+    // Retorno tipado como em /api/agendamentos/eventos: os erros saem como ResponseStatusException
+    @GetMapping("/reservas/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportarReservas(
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = "true") boolean incluirArquivo,
+            HttpServletRequest request) {
+        ExportacaoReservas.Formato f = switch (formato.toLowerCase(Locale.ROOT)) {
+            case "csv" -> ExportacaoReservas.Formato.CSV;
+            case "ndjson" -> ExportacaoReservas.Formato.NDJSON;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato deve ser csv ou ndjson.");
+        };
+        ExportacaoReservas.Exportacao exportacao;
+        try {
+            exportacao = exportacaoReservas.iniciar(f, de.atStartOfDay(), ate.plusDays(1).atStartOfDay(), incluirArquivo);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        // fim do request assíncrono (completo, timeout, erro, cliente desconectou) devolve a vaga
+        // mesmo que o corpo nunca tenha sido escrito
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("exportacao", new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                exportacao.liberar();
+            }
+        });
+        String arquivo = "reservas-" + de + "-" + ate + "." + f.extensao;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(f.contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo).build().toString())
+                .body(exportacao::escrever);
+    }
+}
@@ -1,14 +1,37 @@
 package br.fau.laser_booking.controller;
 
+import br.fau.laser_booking.dto.AgendamentoLoteRequest;
 import br.fau.laser_booking.dto.AgendamentoRequest;
+import br.fau.laser_booking.dto.HorarioSolicitado;
+import br.fau.laser_booking.dto.PaginaReservas;
+import br.fau.laser_booking.dto.PedidoEsperaResumo;
+import br.fau.laser_booking.dto.ReservaEvento;
+import br.fau.laser_booking.dto.ReservaResumo;
 import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Equipamento;
 import br.fau.laser_booking.model.Reserva;
 import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.service.AdmissaoNegadaException;
+import br.fau.laser_booking.service.AgendamentoLoteService;
 import br.fau.laser_booking.service.AgendamentoService;
+import br.fau.laser_booking.service.AlteracaoConcorrenteException;
+import br.fau.laser_booking.service.BarramentoReservas;
+import br.fau.laser_booking.service.CatalogoEquipamentos;
+import br.fau.laser_booking.service.ControleAdmissao;
+import br.fau.laser_booking.service.FilaEspera;
+import br.fau.laser_booking.service.PermissaoNegadaException;
+import br.fau.laser_booking.service.ReservaAlteradaEvent;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,26 +40,51 @@ import java.util.List;
 public class AgendamentoController {
 
     private final AgendamentoService agendamentoService;
+    private final AgendamentoLoteService agendamentoLoteService;
     private final AlunoRepository alunoRepository;
+    private final BarramentoReservas barramentoReservas;
+    private final CatalogoEquipamentos catalogo;
+    private final FilaEspera filaEspera;
+    private final ControleAdmissao controleAdmissao;
 
     public AgendamentoController(AgendamentoService agendamentoService,
-                                 AlunoRepository alunoRepository) {
+                                 AgendamentoLoteService agendamentoLoteService,
+                                 AlunoRepository alunoRepository,
+                                 BarramentoReservas barramentoReservas,
+                                 CatalogoEquipamentos catalogo,
+                                 FilaEspera filaEspera,
+                                 ControleAdmissao controleAdmissao) {
         this.agendamentoService = agendamentoService;
+        this.agendamentoLoteService = agendamentoLoteService;
         this.alunoRepository = alunoRepository;
+        this.barramentoReservas = barramentoReservas;
+        this.catalogo = catalogo;
+        this.filaEspera = filaEspera;
+        this.controleAdmissao = controleAdmissao;
+    }
+
+    // Escritas (POST) passam pelo ControleAdmissao antes de tocar o banco: limite por aluno
+    // e de escritas simultâneas; recusa = 429 com Retry-After
+    private static ResponseEntity<String> muitasRequisicoes(AdmissaoNegadaException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.esperaSegundos()))
+                .body(e.getMessage());
     }
 
     // === UC01: Agendar horário ==============================================
     @PostMapping
     public ResponseEntity<?> criarAgendamento(@RequestBody AgendamentoRequest req) {
-        try {
+        try (ControleAdmissao.Vaga vaga = controleAdmissao.admitir(req.getAlunoId())) {
             Aluno aluno = alunoRepository.findById(req.getAlunoId())
                     .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
 
             Reserva reserva = agendamentoService.agendarHorario(
                     aluno, req.getInicio(), req.getFim(), req.getEquipamento()
             );
-            return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
+            return ResponseEntity.status(HttpStatus.CREATED).body(resumo(reserva));
 
+        } catch (AdmissaoNegadaException e) {
+            return muitasRequisicoes(e);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IllegalStateException e) {
@@ -47,31 +95,129 @@ public class AgendamentoController {
         }
     }
 
+    // === UC01 em lote: vários horários / recorrência ========================
+    // Cada horário volta com sua situação (CRIADA, CONFLITO, SEM_PERMISSAO, INVALIDO)
+    @PostMapping("/lote")
+    public ResponseEntity<?> criarAgendamentoEmLote(@RequestBody AgendamentoLoteRequest req) {
+        try (ControleAdmissao.Vaga vaga = controleAdmissao.admitir(req.getAlunoId())) {
+            Aluno aluno = alunoRepository.findById(req.getAlunoId())
+                    .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
+
+            List<HorarioSolicitado> horarios = agendamentoLoteService.expandir(req);
+            return ResponseEntity.ok(agendamentoLoteService.agendarLote(aluno, horarios));
+
+        } catch (AdmissaoNegadaException e) {
+            return muitasRequisicoes(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao agendar em lote: " + e.getMessage());
+        }
+    }
+
     // === UC04: Visualizar horário marcado ===================================
+    // Paginado por cursor: ?antesDeInicio=yyyy-MM-ddTHH:mm&antesDeId=..&limite=..
+    // (valores vindos de proximoInicio/proximoId da página anterior); &incluirArquivo=true traz o histórico antigo
     @GetMapping("/meus/{alunoId}")
-    public ResponseEntity<?> listarReservasDoAluno(@PathVariable Long alunoId) {
+    public ResponseEntity<?> listarReservasDoAluno(@PathVariable Long alunoId,
+                                                   @RequestParam(required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime antesDeInicio,
+                                                   @RequestParam(required = false) Long antesDeId,
+                                                   @RequestParam(defaultValue = "" + AgendamentoService.LIMITE_PAGINA_PADRAO) int limite,
+                                                   @RequestParam(defaultValue = "false") boolean incluirArquivo) {
         try {
             Aluno aluno = alunoRepository.findById(alunoId)
                     .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
-            List<Reserva> reservas = agendamentoService.listarReservasDoAluno(aluno);
-            return ResponseEntity.ok(reservas);
+            PaginaReservas pagina = agendamentoService.listarReservasDoAluno(aluno, antesDeInicio, antesDeId, limite, incluirArquivo);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Erro ao listar reservas: " + e.getMessage());
         }
     }
 
+    // === Equipamentos ======================================================
+    // Nomes aceitos em equipamento (ativos, em ordem alfabética)
+    @GetMapping("/equipamentos")
+    public List<String> listarEquipamentos() {
+        return catalogo.ativos().stream().map(Equipamento::getNome).toList();
+    }
+
+    // === Disponibilidade ===================================================
+    // ?equipamento=cortadora 1,cortadora 2&dia=yyyy-MM-dd&dias=7
+    @GetMapping("/disponibilidade")
+    public ResponseEntity<?> consultarDisponibilidade(@RequestParam List<String> equipamento,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dia,
+                                                      @RequestParam(defaultValue = "1") int dias) {
+        try {
+            return ResponseEntity.ok(agendamentoService.consultarDisponibilidade(equipamento, dia, dias));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao consultar disponibilidade: " + e.getMessage());
+        }
+    }
+
+    // === Eventos (SSE) =====================================================
+    // ?equipamento=cortadora 1 e/ou ?alunoId=1 (titular ou suplente).
+    // Cada evento sai com name = tipo (criada, editada, cancelada, suplente_incluido);
+    // "ressincronizar" avisa que a fila do cliente transbordou e a listagem deve ser recarregada.
+    private static final long TIMEOUT_EVENTOS_MS = 30 * 60 * 1000L;
+
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    // Retorno tipado (ResponseEntity<SseEmitter>): com <?> o MVC não reconhece o stream,
+    // por isso os erros saem como ResponseStatusException
+    public ResponseEntity<SseEmitter> assinarEventos(@RequestParam(required = false) String equipamento,
+                                            @RequestParam(required = false) Long alunoId) {
+        try {
+            // filtro por equipamento desconhecido: 400 antes de abrir o stream
+            Integer equipamentoId = equipamento == null || equipamento.isBlank()
+                    ? null : catalogo.buscar(equipamento).getId();
+            SseEmitter emitter = new SseEmitter(TIMEOUT_EVENTOS_MS);
+            BarramentoReservas.Assinatura assinatura = barramentoReservas.assinar(equipamentoId, alunoId, (eventos, perdeu) -> {
+                if (perdeu) {
+                    emitter.send(SseEmitter.event().name("ressincronizar").data(""));
+                }
+                for (ReservaAlteradaEvent e : eventos) {
+                    emitter.send(SseEmitter.event()
+                            .name(e.tipo().name().toLowerCase())
+                            .data(ReservaEvento.de(e, catalogo.nome(e.equipamentoId())), MediaType.APPLICATION_JSON));
+                }
+            });
+            emitter.onCompletion(assinatura::cancelar);
+            emitter.onError(erro -> assinatura.cancelar());
+            emitter.onTimeout(emitter::complete);
+            emitter.send(SseEmitter.event().comment("conectado"));
+            return ResponseEntity.ok(emitter);
+
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erro ao assinar eventos: " + e.getMessage());
+        }
+    }
+
     // === UC02: Cancelar Horário ============================================
     @PostMapping("/{reservaId}/cancelar")
     public ResponseEntity<?> cancelarReserva(@PathVariable Long reservaId,
                                              @RequestParam Long alunoId) {
-        try {
+        try (ControleAdmissao.Vaga vaga = controleAdmissao.admitir(alunoId)) {
             Aluno aluno = alunoRepository.findById(alunoId)
                     .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
             agendamentoService.cancelarReserva(aluno, reservaId);
             return ResponseEntity.ok("Reserva cancelada com sucesso.");
+        } catch (AdmissaoNegadaException e) {
+            return muitasRequisicoes(e);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AlteracaoConcorrenteException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (Exception e) {
@@ -85,7 +231,7 @@ public class AgendamentoController {
     public ResponseEntity<?> incluirSuplente(@PathVariable Long reservaId,
                                              @RequestParam Long titularId,
                                              @RequestParam Long suplenteId) {
-        try {
+        try (ControleAdmissao.Vaga vaga = controleAdmissao.admitir(titularId)) {
             Aluno titular = alunoRepository.findById(titularId)
                     .orElseThrow(() -> new RuntimeException("Titular não encontrado"));
             Aluno suplente = alunoRepository.findById(suplenteId)
@@ -93,8 +239,12 @@ public class AgendamentoController {
 
             agendamentoService.incluirSuplente(titular, reservaId, suplente);
             return ResponseEntity.ok("Suplente incluído com sucesso.");
+        } catch (AdmissaoNegadaException e) {
+            return muitasRequisicoes(e);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AlteracaoConcorrenteException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (Exception e) {
@@ -111,7 +261,7 @@ public class AgendamentoController {
                                            @RequestParam String inicio,
                                            @RequestParam String fim,
                                            @RequestParam String equipamento) {
-        try {
+        try (ControleAdmissao.Vaga vaga = controleAdmissao.admitir(alunoId)) {
             Aluno aluno = alunoRepository.findById(alunoId)
                     .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
 
@@ -119,8 +269,10 @@ public class AgendamentoController {
             LocalDateTime nf = LocalDateTime.parse(fim);
 
             Reserva editada = agendamentoService.editarHorario(aluno, reservaId, ni, nf, equipamento);
-            return ResponseEntity.ok(editada);
+            return ResponseEntity.ok(resumo(editada));
 
+        } catch (AdmissaoNegadaException e) {
+            return muitasRequisicoes(e);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IllegalStateException e) {
@@ -130,4 +282,65 @@ public class AgendamentoController {
                     .body("Erro ao editar reserva: " + e.getMessage());
         }
     }
+
+    // === Fila de espera =====================================================
+    // Horário ocupado (409 no agendar): entra na fila em vez de repetir o POST.
+    // 202: a reserva sai quando a vaga for liberada (evento "criada" no SSE do aluno).
+    @PostMapping("/fila-espera")
+    public ResponseEntity<?> entrarNaFila(@RequestBody AgendamentoRequest req) {
+        try (ControleAdmissao.Vaga vaga = controleAdmissao.admitir(req.getAlunoId())) {
+            Aluno aluno = alunoRepository.findById(req.getAlunoId())
+                    .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
+            PedidoEsperaResumo pedido = filaEspera.entrar(aluno, req.getInicio(), req.getFim(), req.getEquipamento());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(pedido);
+
+        } catch (AdmissaoNegadaException e) {
+            return muitasRequisicoes(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao entrar na fila de espera: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/fila-espera")
+    public ResponseEntity<?> listarFila(@RequestParam Long alunoId) {
+        try {
+            Aluno aluno = alunoRepository.findById(alunoId)
+                    .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
+            return ResponseEntity.ok(filaEspera.listar(aluno));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao listar fila de espera: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/fila-espera/{pedidoId}/desistir")
+    public ResponseEntity<?> desistirDaFila(@PathVariable Long pedidoId,
+                                            @RequestParam Long alunoId) {
+        try (ControleAdmissao.Vaga vaga = controleAdmissao.admitir(alunoId)) {
+            Aluno aluno = alunoRepository.findById(alunoId)
+                    .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
+            filaEspera.desistir(aluno, pedidoId);
+            return ResponseEntity.ok("Pedido retirado da fila de espera.");
+        } catch (AdmissaoNegadaException e) {
+            return muitasRequisicoes(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PermissaoNegadaException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro ao desistir da fila de espera: " + e.getMessage());
+        }
+    }
+
+    private ReservaResumo resumo(Reserva r) {
+        return ReservaResumo.de(r, catalogo.nome(r.getEquipamento().getId()));
+    }
 }
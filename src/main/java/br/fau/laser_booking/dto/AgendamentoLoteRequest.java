@@ -0,0 +1,118 @@
+package br.fau.laser_booking.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Vários horários de uma vez: lista explícita e/ou regra de recorrência
+// (ex.: toda segunda/terça/quinta das 14h às 17h até o fim do mês)
+public class AgendamentoLoteRequest {
+
+    private Long alunoId;
+    private List<Horario> horarios = new ArrayList<>();
+    private Recorrencia recorrencia;
+
+    public Long getAlunoId() {
+        return alunoId;
+    }
+    public void setAlunoId(Long alunoId) {
+        this.alunoId = alunoId;
+    }
+
+    public List<Horario> getHorarios() {
+        return horarios;
+    }
+    public void setHorarios(List<Horario> horarios) {
+        this.horarios = horarios;
+    }
+
+    public Recorrencia getRecorrencia() {
+        return recorrencia;
+    }
+    public void setRecorrencia(Recorrencia recorrencia) {
+        this.recorrencia = recorrencia;
+    }
+
+    public static class Horario {
+
+        private LocalDateTime inicio;
+        private LocalDateTime fim;
+        private String equipamento;
+
+        public LocalDateTime getInicio() {
+            return inicio;
+        }
+        public void setInicio(LocalDateTime inicio) {
+            this.inicio = inicio;
+        }
+
+        public LocalDateTime getFim() {
+            return fim;
+        }
+        public void setFim(LocalDateTime fim) {
+            this.fim = fim;
+        }
+
+        public String getEquipamento() {
+            return equipamento;
+        }
+        public void setEquipamento(String equipamento) {
+            this.equipamento = equipamento;
+        }
+    }
+
+    public static class Recorrencia {
+
+        private List<DayOfWeek> diasDaSemana = new ArrayList<>();
+        private LocalDate de;
+        private LocalDate ate;
+        private LocalTime horaInicio;
+        private LocalTime horaFim;
+        private String equipamento;
+
+        public List<DayOfWeek> getDiasDaSemana() {
+            return diasDaSemana;
+        }
+        public void setDiasDaSemana(List<DayOfWeek> diasDaSemana) {
+            this.diasDaSemana = diasDaSemana;
+        }
+
+        public LocalDate getDe() {
+            return de;
+        }
+        public void setDe(LocalDate de) {
+            this.de = de;
+        }
+
+        public LocalDate getAte() {
+            return ate;
+        }
+        public void setAte(LocalDate ate) {
+            this.ate = ate;
+        }
+
+        public LocalTime getHoraInicio() {
+            return horaInicio;
+        }
+        public void setHoraInicio(LocalTime horaInicio) {
+            this.horaInicio = horaInicio;
+        }
+
+        public LocalTime getHoraFim() {
+            return horaFim;
+        }
+        public void setHoraFim(LocalTime horaFim) {
+            this.horaFim = horaFim;
+        }
+
+        public String getEquipamento() {
+            return equipamento;
+        }
+        public void setEquipamento(String equipamento) {
+            this.equipamento = equipamento;
+        }
+    }
+}
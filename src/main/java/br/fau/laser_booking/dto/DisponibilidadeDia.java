@@ -0,0 +1,7 @@
+package br.fau.laser_booking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DisponibilidadeDia(String equipamento, LocalDate dia, List<FaixaLivre> livres) {
+}
@@ -0,0 +1,7 @@
+package br.fau.laser_booking.dto;
+
+import java.time.LocalDateTime;
+
+// Intervalo contíguo sem reserva ativa, alinhado aos slots de 15 minutos
+public record FaixaLivre(LocalDateTime inicio, LocalDateTime fim) {
+}
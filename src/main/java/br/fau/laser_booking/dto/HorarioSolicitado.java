@@ -0,0 +1,6 @@
+package br.fau.laser_booking.dto;
+
+import java.time.LocalDateTime;
+
+public record HorarioSolicitado(LocalDateTime inicio, LocalDateTime fim, String equipamento) {
+}
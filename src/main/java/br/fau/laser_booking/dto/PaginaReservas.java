@@ -0,0 +1,11 @@
+package br.fau.laser_booking.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Página da listagem por cursor (keyset em inicio DESC, id DESC).
+// Para a próxima página, reenviar proximoInicio/proximoId; ambos null = acabou.
+public record PaginaReservas(List<ReservaResumo> itens,
+                             LocalDateTime proximoInicio,
+                             Long proximoId) {
+}
@@ -0,0 +1,19 @@
+package br.fau.laser_booking.dto;
+
+import br.fau.laser_booking.model.PedidoEspera;
+
+import java.time.LocalDateTime;
+
+// Pedido da fila de espera para o cliente; reservaId preenchido quando ATENDIDO
+public record PedidoEsperaResumo(Long id,
+                                 String equipamento,
+                                 LocalDateTime inicio,
+                                 LocalDateTime fim,
+                                 PedidoEspera.Status status,
+                                 Long reservaId) {
+
+    // equipamento: nome no CatalogoEquipamentos (sem inicializar o proxy LAZY)
+    public static PedidoEsperaResumo de(PedidoEspera p, String equipamento) {
+        return new PedidoEsperaResumo(p.getId(), equipamento, p.getInicio(), p.getFim(), p.getStatus(), p.getReservaId());
+    }
+}
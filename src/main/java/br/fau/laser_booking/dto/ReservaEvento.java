@@ -0,0 +1,23 @@
+package br.fau.laser_booking.dto;
+
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.service.ReservaAlteradaEvent;
+
+import java.time.LocalDateTime;
+
+// Payload de cada evento do stream SSE /api/agendamentos/eventos
+public record ReservaEvento(ReservaAlteradaEvent.Tipo tipo,
+                            Long reservaId,
+                            Long titularId,
+                            Long suplenteId,
+                            String equipamento,
+                            LocalDateTime inicio,
+                            LocalDateTime fim,
+                            Reserva.Status status) {
+
+    // equipamento: nome de e.equipamentoId() no CatalogoEquipamentos
+    public static ReservaEvento de(ReservaAlteradaEvent e, String equipamento) {
+        return new ReservaEvento(e.tipo(), e.reservaId(), e.titularId(), e.suplenteId(),
+                equipamento, e.inicio(), e.fim(), e.status());
+    }
+}
@@ -0,0 +1,28 @@
+package br.fau.laser_booking.dto;
+
+import br.fau.laser_booking.model.Reserva;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Linha da exportação para relatórios de uso do laboratório (CSV/NDJSON).
+// Projeção direta da consulta: nada entra no contexto de persistência enquanto o cursor anda.
+public record ReservaExportada(Long id,
+                               Long titularId,
+                               String titularNome,
+                               Long suplenteId,
+                               String equipamento,
+                               LocalDateTime inicio,
+                               LocalDateTime fim,
+                               Reserva.Status status,
+                               LocalDateTime criadoEm,
+                               LocalDateTime atualizadoEm,
+                               boolean arquivada) {
+
+    // Base das horas de uso por máquina/aluno nos relatórios
+    @JsonProperty
+    public long duracaoMinutos() {
+        return Duration.between(inicio, fim).toMinutes();
+    }
+}
@@ -0,0 +1,24 @@
+package br.fau.laser_booking.dto;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+
+import java.time.LocalDateTime;
+
+// Linha da listagem "minhas reservas": só colunas, sem as entidades Aluno penduradas
+public record ReservaResumo(Long id,
+                            String equipamento,
+                            LocalDateTime inicio,
+                            LocalDateTime fim,
+                            Reserva.Status status,
+                            Long suplenteId,
+                            String suplenteNome) {
+
+    // Suplente precisa ter vindo carregado (ver ReservaRepository#findComSuplenteById);
+    // o nome do equipamento vem do CatalogoEquipamentos, sem inicializar o proxy LAZY
+    public static ReservaResumo de(Reserva r, String equipamento) {
+        Aluno s = r.getSuplente();
+        return new ReservaResumo(r.getId(), equipamento, r.getInicio(), r.getFim(), r.getStatus(),
+                s == null ? null : s.getId(), s == null ? null : s.getNome());
+    }
+}
@@ -0,0 +1,27 @@
+package br.fau.laser_booking.dto;
+
+import java.time.LocalDateTime;
+
+// Resultado de um horário dentro de um agendamento em lote
+public record ResultadoHorario(LocalDateTime inicio,
+                               LocalDateTime fim,
+                               String equipamento,
+                               Situacao situacao,
+                               Long reservaId,
+                               String mensagem) {
+
+    public enum Situacao {
+        CRIADA,
+        INVALIDO,
+        CONFLITO,
+        SEM_PERMISSAO
+    }
+
+    public static ResultadoHorario criada(HorarioSolicitado h, Long reservaId) {
+        return new ResultadoHorario(h.inicio(), h.fim(), h.equipamento(), Situacao.CRIADA, reservaId, null);
+    }
+
+    public static ResultadoHorario recusado(HorarioSolicitado h, Situacao situacao, String mensagem) {
+        return new ResultadoHorario(h.inicio(), h.fim(), h.equipamento(), situacao, null, mensagem);
+    }
+}
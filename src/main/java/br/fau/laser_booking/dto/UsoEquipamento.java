@@ -0,0 +1,12 @@
+package br.fau.laser_booking.dto;
+
+import java.time.LocalDate;
+
+// Linha do painel de uso: um equipamento num dia (ou na semana que começa em "periodo")
+public record UsoEquipamento(String equipamento,
+                             LocalDate periodo,
+                             long minutosReservados,
+                             int reservas,
+                             int cancelamentos,
+                             int alunos) {
+}
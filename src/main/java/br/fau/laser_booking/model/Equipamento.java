@@ -0,0 +1,44 @@
+package br.fau.laser_booking.model;
+
+import jakarta.persistence.*;
+
+// Máquina do laboratório (ex.: "cortadora 1"). Reserva aponta pelo id (INTEGER);
+// o nome só aparece na borda (requisição/resposta), resolvido pelo CatalogoEquipamentos.
+@Entity
+@Table(name = "equipamento")
+public class Equipamento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String nome;
+
+    // Inativo: não aceita reservas novas, mas continua nomeando as antigas
+    @Column(nullable = false)
+    private boolean ativo = true;
+
+    protected Equipamento() {
+    }
+
+    public Equipamento(String nome) {
+        this.nome = nome;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    public void setAtivo(boolean ativo) {
+        this.ativo = ativo;
+    }
+}
@@ -0,0 +1,120 @@
+package br.fau.laser_booking.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Pedido na fila de espera de um horário ocupado (ver FilaEspera)
+@Entity
+@Table(name = "pedido_espera", indexes = {
+        // mesmas colunas da migration V10
+        @Index(name = "ix_pedido_espera_janela", columnList = "equipamento_id, status, inicio, fim"),
+        @Index(name = "ix_pedido_espera_aluno", columnList = "aluno_id, status")
+})
+public class PedidoEspera {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "aluno_id")
+    private Aluno aluno;
+
+    // LAZY como em Reserva: o nome vem do CatalogoEquipamentos
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "equipamento_id")
+    private Equipamento equipamento;
+
+    // Janela pedida (a reserva criada tem exatamente essa janela)
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Column(nullable = false)
+    private LocalDateTime fim;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    // Reserva criada quando o pedido foi atendido
+    private Long reservaId;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    public enum Status {
+        AGUARDANDO,
+        ATENDIDO,
+        DESISTIU,
+        EXPIRADO
+    }
+
+    protected PedidoEspera() {
+    }
+
+    public PedidoEspera(Aluno aluno, Equipamento equipamento, LocalDateTime inicio, LocalDateTime fim,
+                        LocalDateTime agora) {
+        this.aluno = aluno;
+        this.equipamento = equipamento;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.status = Status.AGUARDANDO;
+        this.criadoEm = agora;
+        this.atualizadoEm = agora;
+    }
+
+    public void atender(Long reservaId, LocalDateTime agora) {
+        this.status = Status.ATENDIDO;
+        this.reservaId = reservaId;
+        this.atualizadoEm = agora;
+    }
+
+    public void desistir(LocalDateTime agora) {
+        this.status = Status.DESISTIU;
+        this.atualizadoEm = agora;
+    }
+
+    public void expirar(LocalDateTime agora) {
+        this.status = Status.EXPIRADO;
+        this.atualizadoEm = agora;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Aluno getAluno() {
+        return aluno;
+    }
+
+    public Equipamento getEquipamento() {
+        return equipamento;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getReservaId() {
+        return reservaId;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+}
@@ -0,0 +1,114 @@
+package br.fau.laser_booking.model;
+
+import jakarta.persistence.*;
+
+import java.time.DayOfWeek;
+
+// Janela de prioridade: quem (tipo/semestre) pode agendar em que dia da semana, e com
+// quanta antecedência. Campos null valem "qualquer" / "sem limite".
+// Compiladas em TabelaPrioridade pelo RegrasPrioridade (alterar a tabela + recarregar).
+@Entity
+@Table(name = "regra_prioridade")
+public class RegraPrioridade {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayOfWeek diaSemana;
+
+    @Enumerated(EnumType.STRING)
+    private Aluno.TipoTrabalho tipoTrabalho;
+
+    private Integer semestreMinimo;
+    private Integer semestreMaximo;
+
+    // Horas entre "agora" e o início do horário: permitido se MENOR que isto
+    private Integer antecedenciaMaximaHoras;
+
+    @Column(nullable = false)
+    private boolean ativa = true;
+
+    private String descricao;
+
+    protected RegraPrioridade() {
+    }
+
+    public RegraPrioridade(DayOfWeek diaSemana,
+                           Aluno.TipoTrabalho tipoTrabalho,
+                           Integer semestreMinimo,
+                           Integer semestreMaximo,
+                           Integer antecedenciaMaximaHoras) {
+        this.diaSemana = diaSemana;
+        this.tipoTrabalho = tipoTrabalho;
+        this.semestreMinimo = semestreMinimo;
+        this.semestreMaximo = semestreMaximo;
+        this.antecedenciaMaximaHoras = antecedenciaMaximaHoras;
+    }
+
+    // =========================
+    // Getters e Setters
+    // =========================
+
+    public Long getId() {
+        return id;
+    }
+
+    public DayOfWeek getDiaSemana() {
+        return diaSemana;
+    }
+
+    public void setDiaSemana(DayOfWeek diaSemana) {
+        this.diaSemana = diaSemana;
+    }
+
+    public Aluno.TipoTrabalho getTipoTrabalho() {
+        return tipoTrabalho;
+    }
+
+    public void setTipoTrabalho(Aluno.TipoTrabalho tipoTrabalho) {
+        this.tipoTrabalho = tipoTrabalho;
+    }
+
+    public Integer getSemestreMinimo() {
+        return semestreMinimo;
+    }
+
+    public void setSemestreMinimo(Integer semestreMinimo) {
+        this.semestreMinimo = semestreMinimo;
+    }
+
+    public Integer getSemestreMaximo() {
+        return semestreMaximo;
+    }
+
+    public void setSemestreMaximo(Integer semestreMaximo) {
+        this.semestreMaximo = semestreMaximo;
+    }
+
+    public Integer getAntecedenciaMaximaHoras() {
+        return antecedenciaMaximaHoras;
+    }
+
+    public void setAntecedenciaMaximaHoras(Integer antecedenciaMaximaHoras) {
+        this.antecedenciaMaximaHoras = antecedenciaMaximaHoras;
+    }
+
+    public boolean isAtiva() {
+        return ativa;
+    }
+
+    public void setAtiva(boolean ativa) {
+        this.ativa = ativa;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+}
@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reserva")
+@Table(name = "reserva", indexes = {
+        // mesmas colunas das migrations V2-V4 e V9 (conflito, listagem do aluno e job de finalização)
+        @Index(name = "ix_reserva_conflito", columnList = "equipamento_id, status, inicio, fim"),
+        @Index(name = "ix_reserva_titular_inicio_id", columnList = "aluno_titular_id, inicio, id"),
+        @Index(name = "ix_reserva_status_fim", columnList = "status, fim")
+})
+@EntityListeners(ReservaAuditoriaListener.class)
 public class Reserva {
 
     @Id
@@ -12,12 +18,13 @@ public class Reserva {
     private Long id;
 
     // Aluno que fez a reserva
-    @ManyToOne(optional = false)
+    // LAZY: quem precisa do aluno inteiro busca com fetch join/entity graph no repositório
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "aluno_titular_id")
     private Aluno titular;
 
     // Suplente pode ser null
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "aluno_suplente_id")
     private Aluno suplente;
 
@@ -25,14 +32,20 @@ public class Reserva {
     private LocalDateTime inicio;
     private LocalDateTime fim;
 
-    // Qual máquina (ex.: "cortadora 1")
-    private String equipamento;
+    // Qual máquina; LAZY: getId() no proxy basta, o nome vem do CatalogoEquipamentos
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "equipamento_id")
+    private Equipamento equipamento;
 
     // Status atual da reserva
     @Enumerated(EnumType.STRING)
     private Status status;
 
-    // Auditoria
+    // Lock otimista: UPDATE ... WHERE versao = ?; update em massa (JPQL) incrementa na mão
+    @Version
+    private Long versao;
+
+    // Auditoria (preenchida pelo ReservaAuditoriaListener)
     private LocalDateTime criadoEm;
     private LocalDateTime atualizadoEm;
 
@@ -42,20 +55,6 @@ public class Reserva {
         FINALIZADA
     }
 
-    @PrePersist
-    public void onCreate() {
-        this.criadoEm = LocalDateTime.now();
-        this.atualizadoEm = LocalDateTime.now();
-        if (this.status == null) {
-            this.status = Status.ATIVA;
-        }
-    }
-
-    @PreUpdate
-    public void onUpdate() {
-        this.atualizadoEm = LocalDateTime.now();
-    }
-
     // =========================
     // Getters e Setters
     // =========================
@@ -64,6 +63,10 @@ public class Reserva {
         return id;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
     public Aluno getTitular() {
         return titular;
     }
@@ -100,11 +103,11 @@ public class Reserva {
         this.fim = fim;
     }
 
-    public String getEquipamento() {
+    public Equipamento getEquipamento() {
         return equipamento;
     }
 
-    public void setEquipamento(String equipamento) {
+    public void setEquipamento(Equipamento equipamento) {
         this.equipamento = equipamento;
     }
 
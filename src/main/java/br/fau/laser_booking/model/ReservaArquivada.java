@@ -0,0 +1,83 @@
+package br.fau.laser_booking.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Reserva antiga (CANCELADA/FINALIZADA) movida para reserva_arquivo pelo ArquivamentoReservas.
+// Só leitura: entra e sai da tabela por SQL em conjunto, nunca por save().
+@Entity
+@Immutable
+@Table(name = "reserva_arquivo", indexes = {
+        // mesmas colunas da migration V5 (listagem do aluno com histórico)
+        @Index(name = "ix_reserva_arquivo_titular_inicio_id", columnList = "aluno_titular_id, inicio, id")
+})
+public class ReservaArquivada {
+
+    // Mesmo id que a reserva tinha em "reserva"
+    @Id
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "aluno_titular_id")
+    private Aluno titular;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "aluno_suplente_id")
+    private Aluno suplente;
+
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "equipamento_id")
+    private Equipamento equipamento;
+
+    @Enumerated(EnumType.STRING)
+    private Reserva.Status status;
+
+    private LocalDateTime criadoEm;
+    private LocalDateTime atualizadoEm;
+    private LocalDateTime arquivadoEm;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Aluno getTitular() {
+        return titular;
+    }
+
+    public Aluno getSuplente() {
+        return suplente;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public Equipamento getEquipamento() {
+        return equipamento;
+    }
+
+    public Reserva.Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public LocalDateTime getArquivadoEm() {
+        return arquivadoEm;
+    }
+}
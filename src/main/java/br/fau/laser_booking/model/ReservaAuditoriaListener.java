@@ -0,0 +1,35 @@
+package br.fau.laser_booking.model;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+// Datas de auditoria da Reserva a partir do Clock da aplicação (bean do Spring:
+// o Hibernate instancia listeners pelo container do Spring Boot)
+@Component
+public class ReservaAuditoriaListener {
+
+    private final Clock clock;
+
+    public ReservaAuditoriaListener(Clock clock) {
+        this.clock = clock;
+    }
+
+    @PrePersist
+    public void aoCriar(Reserva reserva) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        reserva.setCriadoEm(agora);
+        reserva.setAtualizadoEm(agora);
+        if (reserva.getStatus() == null) {
+            reserva.setStatus(Reserva.Status.ATIVA);
+        }
+    }
+
+    @PreUpdate
+    public void aoAtualizar(Reserva reserva) {
+        reserva.setAtualizadoEm(LocalDateTime.now(clock));
+    }
+}
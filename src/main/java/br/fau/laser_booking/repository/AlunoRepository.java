@@ -1,10 +1,79 @@
 package br.fau.laser_booking.repository;
 
 import br.fau.laser_booking.model.Aluno;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
+// Todo endpoint busca o aluno antes de qualquer coisa e esses dados quase não mudam:
+// findById/findByEmail passam pelo cache (Caffeine, ver application.properties)
+// e toda escrita em Aluno feita por aqui (inclusive as em conjunto herdadas de
+// JpaRepository) invalida as entradas, depois do commit quando há transação (ver CacheConfig).
 public interface AlunoRepository extends JpaRepository<Aluno, Long> {
+
+    @Cacheable(cacheNames = "alunosPorEmail", unless = "#result == null")
     Optional<Aluno> findByEmail(String email);
+
+    @Override
+    @Cacheable(cacheNames = "alunos", unless = "#result == null")
+    Optional<Aluno> findById(Long id);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "alunos", key = "#result.id"),
+            @CacheEvict(cacheNames = "alunosPorEmail", allEntries = true)
+    })
+    <S extends Aluno> S save(S aluno);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "alunos", key = "#result.id"),
+            @CacheEvict(cacheNames = "alunosPorEmail", allEntries = true)
+    })
+    <S extends Aluno> S saveAndFlush(S aluno);
+
+    // Escritas em conjunto: mais simples limpar tudo do que casar cada id
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    <S extends Aluno> List<S> saveAll(Iterable<S> alunos);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    <S extends Aluno> List<S> saveAllAndFlush(Iterable<S> alunos);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void delete(Aluno aluno);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void deleteAll(Iterable<? extends Aluno> alunos);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void deleteAllInBatch(Iterable<Aluno> alunos);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void deleteAllInBatch();
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {"alunos", "alunosPorEmail"}, allEntries = true)
+    void deleteAll();
 }
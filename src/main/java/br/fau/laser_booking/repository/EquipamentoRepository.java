@@ -0,0 +1,7 @@
+package br.fau.laser_booking.repository;
+
+import br.fau.laser_booking.model.Equipamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EquipamentoRepository extends JpaRepository<Equipamento, Integer> {
+}
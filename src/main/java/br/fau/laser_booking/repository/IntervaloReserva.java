@@ -0,0 +1,11 @@
+package br.fau.laser_booking.repository;
+
+import java.time.LocalDateTime;
+
+// Projeção enxuta usada pelo índice de ocupação (só o necessário p/ detectar conflito)
+public record IntervaloReserva(Long id, Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim) {
+
+    public boolean sobrepoe(LocalDateTime outroInicio, LocalDateTime outroFim) {
+        return inicio.isBefore(outroFim) && fim.isAfter(outroInicio);
+    }
+}
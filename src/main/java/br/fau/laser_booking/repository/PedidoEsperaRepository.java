@@ -0,0 +1,51 @@
+package br.fau.laser_booking.repository;
+
+import br.fau.laser_booking.model.PedidoEspera;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface PedidoEsperaRepository extends JpaRepository<PedidoEspera, Long> {
+
+    // Candidatos de uma vaga liberada: pedidos do equipamento que se sobrepõem à janela e
+    // ainda não começaram; com o aluno (tipo/semestre decidem a prioridade) numa consulta só
+    @Query("""
+            select p from PedidoEspera p join fetch p.aluno
+            where p.equipamento.id = :equipamentoId and p.status = :status
+              and p.inicio < :fimJanela and p.fim > :inicioJanela and p.inicio > :depoisDe
+            """)
+    List<PedidoEspera> findCandidatos(
+            Integer equipamentoId,
+            PedidoEspera.Status status,
+            LocalDateTime fimJanela,
+            LocalDateTime inicioJanela,
+            LocalDateTime depoisDe
+    );
+
+    // Pedir de novo a mesma janela devolve o pedido que já está na fila
+    Optional<PedidoEspera> findFirstByAlunoIdAndEquipamentoIdAndInicioAndFimAndStatus(
+            Long alunoId,
+            Integer equipamentoId,
+            LocalDateTime inicio,
+            LocalDateTime fim,
+            PedidoEspera.Status status
+    );
+
+    long countByAlunoIdAndStatus(Long alunoId, PedidoEspera.Status status);
+
+    List<PedidoEspera> findByAlunoIdAndFimAfterOrderByInicioAsc(Long alunoId, LocalDateTime depoisDe);
+
+    @Query("""
+            select new br.fau.laser_booking.repository.PedidosPorEquipamento(p.equipamento.id, count(p))
+            from PedidoEspera p
+            where p.status = :status
+            group by p.equipamento.id
+            """)
+    List<PedidosPorEquipamento> contarPorEquipamento(PedidoEspera.Status status);
+
+    // Job de expiração: horário começou e ninguém liberou a vaga (poucas linhas por rodada)
+    List<PedidoEspera> findByStatusAndInicioLessThanEqual(PedidoEspera.Status status, LocalDateTime agora);
+}
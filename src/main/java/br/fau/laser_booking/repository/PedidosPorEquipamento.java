@@ -0,0 +1,5 @@
+package br.fau.laser_booking.repository;
+
+// Quantos pedidos aguardam em cada equipamento (carga inicial da FilaEspera)
+public record PedidosPorEquipamento(Integer equipamentoId, long pedidos) {
+}
@@ -0,0 +1,11 @@
+package br.fau.laser_booking.repository;
+
+import br.fau.laser_booking.model.RegraPrioridade;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RegraPrioridadeRepository extends JpaRepository<RegraPrioridade, Long> {
+
+    List<RegraPrioridade> findByAtivaTrue();
+}
@@ -0,0 +1,50 @@
+package br.fau.laser_booking.repository;
+
+import br.fau.laser_booking.dto.ReservaExportada;
+import br.fau.laser_booking.dto.ReservaResumo;
+import br.fau.laser_booking.model.ReservaArquivada;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ReservaArquivadaRepository extends JpaRepository<ReservaArquivada, Long> {
+
+    // Mesmas consultas por cursor do ReservaRepository, sobre o histórico arquivado
+    @Query("""
+            select new br.fau.laser_booking.dto.ReservaResumo(
+                r.id, e.nome, r.inicio, r.fim, r.status, s.id, s.nome)
+            from ReservaArquivada r join r.equipamento e left join r.suplente s
+            where r.titular.id = :titularId
+            order by r.inicio desc, r.id desc
+            """)
+    List<ReservaResumo> findPrimeiraPaginaDoTitular(Long titularId, Limit limite);
+
+    @Query("""
+            select new br.fau.laser_booking.dto.ReservaResumo(
+                r.id, e.nome, r.inicio, r.fim, r.status, s.id, s.nome)
+            from ReservaArquivada r join r.equipamento e left join r.suplente s
+            where r.titular.id = :titularId
+              and (r.inicio < :inicio or (r.inicio = :inicio and r.id < :id))
+            order by r.inicio desc, r.id desc
+            """)
+    List<ReservaResumo> findPaginaDoTitularAntesDe(Long titularId, LocalDateTime inicio, Long id, Limit limite);
+
+    // Exportação do histórico arquivado, mesma projeção do ReservaRepository
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new br.fau.laser_booking.dto.ReservaExportada(
+                r.id, t.id, t.nome, s.id, e.nome, r.inicio, r.fim, r.status,
+                r.criadoEm, r.atualizadoEm, true)
+            from ReservaArquivada r join r.titular t join r.equipamento e left join r.suplente s
+            where r.inicio >= :de and r.inicio < :ate
+            order by r.id
+            """)
+    Stream<ReservaExportada> streamParaExportacao(LocalDateTime de, LocalDateTime ate);
+}
@@ -1,32 +1,123 @@
 package br.fau.laser_booking.repository;
 
+import br.fau.laser_booking.dto.ReservaExportada;
+import br.fau.laser_booking.dto.ReservaResumo;
 import br.fau.laser_booking.model.Reserva;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
 
     // Conflito de horário por EQUIPAMENTO + STATUS (ex.: ATIVA)
     // sobreposição: (inicio < fimNovo) AND (fim > inicioNovo)
-    boolean existsByEquipamentoAndStatusInAndInicioBeforeAndFimAfter(
-            String equipamento,
+    boolean existsByEquipamentoIdAndStatusInAndInicioBeforeAndFimAfter(
+            Integer equipamentoId,
             Collection<Reserva.Status> status,
             LocalDateTime fimNovo,
             LocalDateTime inicioNovo
     );
 
-    // Mesmo que o de cima, mas IGNORANDO a própria reserva (para edição)
-    boolean existsByEquipamentoAndStatusInAndInicioBeforeAndFimAfterAndIdNot(
-            String equipamento,
-            Collection<Reserva.Status> status,
-            LocalDateTime fimNovo,
-            LocalDateTime inicioNovo,
-            Long idToIgnore
+    // Edição devolve a reserva com o suplente (nome) para o cliente; o resto usa findById
+    // e só lê titular.getId(), que não inicializa o proxy LAZY
+    @EntityGraph(attributePaths = "suplente")
+    Optional<Reserva> findComSuplenteById(Long id);
+
+    // Agendamento em lote: todas as ativas do equipamento na janela do lote, numa consulta só
+    // (r.equipamento.id é a própria coluna equipamento_id, sem join)
+    @Query("""
+            select new br.fau.laser_booking.repository.IntervaloReserva(r.id, r.equipamento.id, r.inicio, r.fim)
+            from Reserva r
+            where r.equipamento.id = :equipamentoId and r.status = :status
+              and r.inicio < :fimJanela and r.fim > :inicioJanela
+            """)
+    List<IntervaloReserva> findIntervalosNaJanela(
+            Integer equipamentoId,
+            Reserva.Status status,
+            LocalDateTime fimJanela,
+            LocalDateTime inicioJanela
+    );
+
+    // Carga do índice de ocupação (warm-up e cache miss por equipamento)
+    @Query("""
+            select new br.fau.laser_booking.repository.IntervaloReserva(r.id, r.equipamento.id, r.inicio, r.fim)
+            from Reserva r
+            where r.status = :status and r.fim > :depoisDe
+            """)
+    List<IntervaloReserva> findIntervalosPorStatusEFimApos(Reserva.Status status, LocalDateTime depoisDe);
+
+    @Query("""
+            select new br.fau.laser_booking.repository.IntervaloReserva(r.id, r.equipamento.id, r.inicio, r.fim)
+            from Reserva r
+            where r.equipamento.id = :equipamentoId and r.status = :status and r.fim > :depoisDe
+            """)
+    List<IntervaloReserva> findIntervalosDoEquipamentoPorStatusEFimApos(
+            Integer equipamentoId,
+            Reserva.Status status,
+            LocalDateTime depoisDe
     );
 
-    // Listagem dos agendamentos do aluno (tela principal)
-    List<Reserva> findAllByTitularIdOrderByInicioDesc(Long titularId);
+    // Listagem dos agendamentos do aluno (tela principal), paginada por cursor:
+    // primeira página e páginas seguintes (reservas "antes" de (inicio, id))
+    @Query("""
+            select new br.fau.laser_booking.dto.ReservaResumo(
+                r.id, e.nome, r.inicio, r.fim, r.status, s.id, s.nome)
+            from Reserva r join r.equipamento e left join r.suplente s
+            where r.titular.id = :titularId
+            order by r.inicio desc, r.id desc
+            """)
+    List<ReservaResumo> findPrimeiraPaginaDoTitular(Long titularId, Limit limite);
+
+    @Query("""
+            select new br.fau.laser_booking.dto.ReservaResumo(
+                r.id, e.nome, r.inicio, r.fim, r.status, s.id, s.nome)
+            from Reserva r join r.equipamento e left join r.suplente s
+            where r.titular.id = :titularId
+              and (r.inicio < :inicio or (r.inicio = :inicio and r.id < :id))
+            order by r.inicio desc, r.id desc
+            """)
+    List<ReservaResumo> findPaginaDoTitularAntesDe(Long titularId, LocalDateTime inicio, Long id, Limit limite);
+
+    // Job de finalização: ids das ativas já encerradas, em lotes (ix_reserva_status_fim)
+    @Query("""
+            select r.id from Reserva r
+            where r.status = :status and r.fim <= :ate
+            order by r.id
+            """)
+    List<Long> findIdsPorStatusEncerradasAte(Reserva.Status status, LocalDateTime ate, Limit limite);
+
+    // UPDATE em conjunto (sem carregar entidades); o status atual volta a ser conferido
+    // no WHERE: uma reserva cancelada entre o select e o update fica como está.
+    // Incrementa a versão: quem leu a reserva antes do job falha no lock otimista
+    @Modifying
+    @Query("""
+            update Reserva r
+            set r.status = :novo, r.atualizadoEm = :agora, r.versao = r.versao + 1
+            where r.id in :ids and r.status = :atual
+            """)
+    int alterarStatus(Collection<Long> ids, Reserva.Status atual, Reserva.Status novo, LocalDateTime agora);
+
+    // Exportação (ExportacaoReservas): cursor só de ida, em ordem de id; o fetch size vale
+    // para bancos com cursor no servidor (no H2 embarcado, resultado grande vai para disco)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new br.fau.laser_booking.dto.ReservaExportada(
+                r.id, t.id, t.nome, s.id, e.nome, r.inicio, r.fim, r.status,
+                r.criadoEm, r.atualizadoEm, false)
+            from Reserva r join r.titular t join r.equipamento e left join r.suplente s
+            where r.inicio >= :de and r.inicio < :ate
+            order by r.id
+            """)
+    Stream<ReservaExportada> streamParaExportacao(LocalDateTime de, LocalDateTime ate);
 }
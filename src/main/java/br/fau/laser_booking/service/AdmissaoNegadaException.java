@@ -0,0 +1,21 @@
+package br.fau.laser_booking.service;
+
+import java.time.Duration;
+
+// Escrita recusada pelo ControleAdmissao (limite do aluno ou sistema cheio);
+// controller responde 429 com Retry-After
+public class AdmissaoNegadaException extends RuntimeException {
+
+    private final Duration espera;
+
+    public AdmissaoNegadaException(String mensagem, Duration espera) {
+        super(mensagem);
+        this.espera = espera;
+    }
+
+    // Retry-After em segundos inteiros, arredondado para cima (nunca 0)
+    public long esperaSegundos() {
+        long segundos = espera.toSeconds();
+        return espera.equals(Duration.ofSeconds(segundos)) ? Math.max(1, segundos) : segundos + 1;
+    }
+}
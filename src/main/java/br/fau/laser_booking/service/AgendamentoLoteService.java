@@ -0,0 +1,225 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.AgendamentoLoteRequest;
+import br.fau.laser_booking.dto.HorarioSolicitado;
+import br.fau.laser_booking.dto.ResultadoHorario;
+import br.fau.laser_booking.dto.ResultadoHorario.Situacao;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.IntervaloReserva;
+import br.fau.laser_booking.repository.ReservaRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Agendamento de vários horários numa requisição só (ex.: TFG reservando o mês inteiro).
+// Uma transação, uma consulta de conflito por equipamento, regras de prioridade em
+// memória e um único INSERT em batch para tudo que foi aceito. Cada horário é
+// aceito ou recusado individualmente.
+@Service
+public class AgendamentoLoteService {
+
+    public static final int MAXIMO_HORARIOS = 100;
+
+    private static final String INSERT_RESERVA = """
+            INSERT INTO reserva (aluno_titular_id, equipamento_id, inicio, fim, status, criado_em, atualizado_em)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final AgendamentoService agendamentoService;
+    private final ReservaRepository reservaRepository;
+    private final TravasPorEquipamento travas;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventos;
+    private final MetricasAgendamento metricas;
+    private final RegrasPrioridade regrasPrioridade;
+    private final Clock clock;
+    private final TransactionTemplate transacao;
+
+    public AgendamentoLoteService(AgendamentoService agendamentoService,
+                                  ReservaRepository reservaRepository,
+                                  TravasPorEquipamento travas,
+                                  JdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventos,
+                                  MetricasAgendamento metricas,
+                                  RegrasPrioridade regrasPrioridade,
+                                  Clock clock,
+                                  PlatformTransactionManager transactionManager) {
+        this.agendamentoService = agendamentoService;
+        this.reservaRepository = reservaRepository;
+        this.travas = travas;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventos = eventos;
+        this.metricas = metricas;
+        this.regrasPrioridade = regrasPrioridade;
+        this.clock = clock;
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+
+    // Lista explícita + recorrência expandida, na ordem em que vieram
+    public List<HorarioSolicitado> expandir(AgendamentoLoteRequest req) {
+        List<HorarioSolicitado> horarios = new ArrayList<>();
+        if (req.getHorarios() != null) {
+            for (AgendamentoLoteRequest.Horario h : req.getHorarios()) {
+                horarios.add(new HorarioSolicitado(h.getInicio(), h.getFim(), h.getEquipamento()));
+            }
+        }
+
+        AgendamentoLoteRequest.Recorrencia rec = req.getRecorrencia();
+        if (rec != null) {
+            if (rec.getDe() == null || rec.getAte() == null || rec.getHoraInicio() == null
+                    || rec.getHoraFim() == null || rec.getDiasDaSemana() == null || rec.getDiasDaSemana().isEmpty()) {
+                throw new IllegalArgumentException("Recorrência incompleta: dias da semana, período e horário são obrigatórios.");
+            }
+            if (rec.getAte().isBefore(rec.getDe())) {
+                throw new IllegalArgumentException("Fim da recorrência deve ser depois do início.");
+            }
+            for (LocalDate dia = rec.getDe(); !dia.isAfter(rec.getAte()); dia = dia.plusDays(1)) {
+                if (rec.getDiasDaSemana().contains(dia.getDayOfWeek())) {
+                    horarios.add(new HorarioSolicitado(dia.atTime(rec.getHoraInicio()), dia.atTime(rec.getHoraFim()),
+                            rec.getEquipamento()));
+                }
+                if (horarios.size() > MAXIMO_HORARIOS) {
+                    break;
+                }
+            }
+        }
+
+        if (horarios.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum horário informado.");
+        }
+        if (horarios.size() > MAXIMO_HORARIOS) {
+            throw new IllegalArgumentException("No máximo " + MAXIMO_HORARIOS + " horários por lote.");
+        }
+        return horarios;
+    }
+
+    public List<ResultadoHorario> agendarLote(Aluno aluno, List<HorarioSolicitado> horarios) {
+        return metricas.medir("agendar_lote", m -> processar(aluno, horarios));
+    }
+
+    private List<ResultadoHorario> processar(Aluno aluno, List<HorarioSolicitado> horarios) {
+        if (aluno == null || aluno.getId() == null) {
+            throw new IllegalArgumentException("Aluno inválido.");
+        }
+
+        // resultado na mesma posição do pedido; null = ainda pendente
+        ResultadoHorario[] resultados = new ResultadoHorario[horarios.size()];
+        // mesmo "agora" para validar, checar prioridade e auditar todos os horários do lote
+        LocalDateTime agora = LocalDateTime.now(clock);
+        // id do equipamento de cada horário válido, por posição
+        Integer[] equipamentoIds = new Integer[horarios.size()];
+        Map<Integer, List<Integer>> porEquipamento = new LinkedHashMap<>();
+        for (int i = 0; i < horarios.size(); i++) {
+            HorarioSolicitado h = horarios.get(i);
+            try {
+                equipamentoIds[i] = agendamentoService.validarNovoHorario(h.inicio(), h.fim(), h.equipamento(), agora).getId();
+                porEquipamento.computeIfAbsent(equipamentoIds[i], k -> new ArrayList<>()).add(i);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = ResultadoHorario.recusado(h, Situacao.INVALIDO, e.getMessage());
+            }
+        }
+
+        if (!porEquipamento.isEmpty()) {
+            // mesma versão das regras para todos os horários do lote
+            TabelaPrioridade regras = regrasPrioridade.tabela();
+            travas.executar(porEquipamento.keySet(), () -> transacao.execute(tx -> {
+                List<Integer> aceitos = new ArrayList<>();
+                porEquipamento.forEach((equipamentoId, indices) ->
+                        aceitos.addAll(selecionar(aluno, equipamentoId, indices, horarios, resultados, regras, agora)));
+                inserir(aluno, aceitos, horarios, equipamentoIds, resultados, agora);
+                return null;
+            }));
+        }
+        return List.of(resultados);
+    }
+
+    // Confere os horários de um equipamento contra o banco (uma consulta) e entre si
+    private List<Integer> selecionar(Aluno aluno,
+                                     Integer equipamentoId,
+                                     List<Integer> indices,
+                                     List<HorarioSolicitado> horarios,
+                                     ResultadoHorario[] resultados,
+                                     TabelaPrioridade regras,
+                                     LocalDateTime agora) {
+        LocalDateTime inicioJanela = indices.stream().map(i -> horarios.get(i).inicio())
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime fimJanela = indices.stream().map(i -> horarios.get(i).fim())
+                .max(Comparator.naturalOrder()).orElseThrow();
+        List<IntervaloReserva> ocupados = new ArrayList<>(reservaRepository
+                .findIntervalosNaJanela(equipamentoId, Reserva.Status.ATIVA, fimJanela, inicioJanela));
+
+        List<Integer> aceitos = new ArrayList<>();
+        for (int i : indices) {
+            HorarioSolicitado h = horarios.get(i);
+            if (ocupados.stream().anyMatch(o -> o.sobrepoe(h.inicio(), h.fim()))) {
+                resultados[i] = ResultadoHorario.recusado(h, Situacao.CONFLITO,
+                        "Horário já está reservado para este equipamento.");
+            } else if (!regras.permite(aluno, h.inicio(), agora)) {
+                resultados[i] = ResultadoHorario.recusado(h, Situacao.SEM_PERMISSAO,
+                        "Você não tem permissão para agendar esse horário.");
+            } else {
+                aceitos.add(i);
+                // os próximos do mesmo lote não podem cair em cima deste
+                ocupados.add(new IntervaloReserva(null, equipamentoId, h.inicio(), h.fim()));
+            }
+        }
+        return aceitos;
+    }
+
+    private void inserir(Aluno aluno, List<Integer> aceitos, List<HorarioSolicitado> horarios,
+                         Integer[] equipamentoIds, ResultadoHorario[] resultados, LocalDateTime agora) {
+        if (aceitos.isEmpty()) {
+            return;
+        }
+        Timestamp criadoEm = Timestamp.valueOf(agora);
+        KeyHolder chaves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_RESERVA, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int n) throws SQLException {
+                        HorarioSolicitado h = horarios.get(aceitos.get(n));
+                        ps.setLong(1, aluno.getId());
+                        ps.setInt(2, equipamentoIds[aceitos.get(n)]);
+                        ps.setTimestamp(3, Timestamp.valueOf(h.inicio()));
+                        ps.setTimestamp(4, Timestamp.valueOf(h.fim()));
+                        ps.setString(5, Reserva.Status.ATIVA.name());
+                        ps.setTimestamp(6, criadoEm);
+                        ps.setTimestamp(7, criadoEm);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return aceitos.size();
+                    }
+                },
+                chaves);
+
+        List<Map<String, Object>> ids = chaves.getKeyList();
+        for (int n = 0; n < aceitos.size(); n++) {
+            int i = aceitos.get(n);
+            HorarioSolicitado h = horarios.get(i);
+            Long id = ((Number) ids.get(n).values().iterator().next()).longValue();
+            resultados[i] = ResultadoHorario.criada(h, id);
+            eventos.publishEvent(ReservaAlteradaEvent.criada(id, aluno.getId(), equipamentoIds[i], h.inicio(), h.fim()));
+        }
+    }
+}
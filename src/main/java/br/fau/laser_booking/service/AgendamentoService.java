@@ -1,66 +1,106 @@
 package br.fau.laser_booking.service;
 
+import br.fau.laser_booking.dto.DisponibilidadeDia;
+import br.fau.laser_booking.dto.PaginaReservas;
+import br.fau.laser_booking.dto.ReservaResumo;
 import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Equipamento;
 import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.ReservaArquivadaRepository;
 import br.fau.laser_booking.repository.ReservaRepository;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.DayOfWeek;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 @Service
 public class AgendamentoService {
 
     private final ReservaRepository reservaRepository;
-
-    public AgendamentoService(ReservaRepository reservaRepository) {
+    private final ReservaArquivadaRepository reservaArquivadaRepository;
+    private final IndiceOcupacao indiceOcupacao;
+    private final ApplicationEventPublisher eventos;
+    private final TravasPorEquipamento travas;
+    private final MapaOcupacao mapaOcupacao;
+    private final MetricasAgendamento metricas;
+    private final RegrasPrioridade regrasPrioridade;
+    private final CatalogoEquipamentos catalogo;
+    private final Clock clock;
+    private final TransactionTemplate transacao;
+    private final int tentativas;
+
+    public AgendamentoService(ReservaRepository reservaRepository,
+                              ReservaArquivadaRepository reservaArquivadaRepository,
+                              IndiceOcupacao indiceOcupacao,
+                              ApplicationEventPublisher eventos,
+                              TravasPorEquipamento travas,
+                              MapaOcupacao mapaOcupacao,
+                              MetricasAgendamento metricas,
+                              RegrasPrioridade regrasPrioridade,
+                              CatalogoEquipamentos catalogo,
+                              Clock clock,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${laserbooking.concorrencia.tentativas:3}") int tentativas) {
         this.reservaRepository = reservaRepository;
+        this.reservaArquivadaRepository = reservaArquivadaRepository;
+        this.indiceOcupacao = indiceOcupacao;
+        this.eventos = eventos;
+        this.travas = travas;
+        this.mapaOcupacao = mapaOcupacao;
+        this.metricas = metricas;
+        this.regrasPrioridade = regrasPrioridade;
+        this.catalogo = catalogo;
+        this.clock = clock;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.tentativas = tentativas;
     }
 
     // === UC01: Agendar horário ============================================
-    @Transactional
+    // Sem @Transactional: a transação é aberta DENTRO da trava do equipamento,
+    // assim checagem de conflito, insert e commit acontecem sem intercalação.
     public Reserva agendarHorario(Aluno aluno,
                                   LocalDateTime inicio,
                                   LocalDateTime fim,
                                   String equipamento) {
+        return metricas.medir("agendar", m -> {
+            // 0) validações básicas
+            if (aluno == null || aluno.getId() == null) {
+                throw new IllegalArgumentException("Aluno inválido.");
+            }
+            LocalDateTime agora = LocalDateTime.now(clock);
+            Equipamento eq = validarNovoHorario(inicio, fim, equipamento, agora);
+            m.equipamento(eq);
+
+            return travas.executar(eq.getId(), () -> transacao.execute(tx -> criar(aluno, inicio, fim, eq, agora)));
+        });
+    }
 
-        // 0) validações básicas
-        if (aluno == null || aluno.getId() == null) {
-            throw new IllegalArgumentException("Aluno inválido.");
-        }
-        if (equipamento == null || equipamento.isBlank()) {
-            throw new IllegalArgumentException("Equipamento é obrigatório.");
-        }
-        if (inicio == null || fim == null) {
-            throw new IllegalArgumentException("Início e fim são obrigatórios.");
-        }
-        if (!fim.isAfter(inicio)) {
-            throw new IllegalArgumentException("Fim deve ser depois do início.");
-        }
-        if (inicio.isBefore(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Não é possível agendar no passado.");
-        }
-
-        // 1) Conflito por equipamento + status ATIVA + sobreposição
-        boolean conflito = reservaRepository
-                .existsByEquipamentoAndStatusInAndInicioBeforeAndFimAfter(
-                        equipamento,
-                        List.of(Reserva.Status.ATIVA),
-                        fim,
-                        inicio
-                );
+    // Chamado com a trava do equipamento e a transação abertas (também pela FilaEspera)
+    Reserva criar(Aluno aluno, LocalDateTime inicio, LocalDateTime fim, Equipamento equipamento, LocalDateTime agora) {
+        // 1) Conflito por equipamento + status ATIVA + sobreposição (índice em memória)
+        boolean conflito = indiceOcupacao.haConflito(equipamento.getId(), inicio, fim);
 
         if (conflito) {
-            throw new IllegalStateException("Horário já está reservado para este equipamento.");
+            throw new ConflitoHorarioException("Horário já está reservado para este equipamento.");
         }
 
         // 2) Regra de permissão (TFG / 3º–8º / <24h)
-        if (!podeAgendar(aluno, inicio)) {
-            throw new IllegalStateException("Você não tem permissão para agendar esse horário.");
+        if (!regrasPrioridade.permite(aluno, inicio, agora)) {
+            throw new PermissaoNegadaException("Você não tem permissão para agendar esse horário.");
         }
 
         // 3) Criar e salvar
@@ -70,145 +110,280 @@ public class AgendamentoService {
         r.setInicio(inicio);
         r.setFim(fim);
         r.setStatus(Reserva.Status.ATIVA);
-        r.setCriadoEm(LocalDateTime.now());
-        r.setAtualizadoEm(LocalDateTime.now());
 
-        return reservaRepository.save(r);
+        Reserva salva = reservaRepository.save(r);
+        eventos.publishEvent(ReservaAlteradaEvent.de(ReservaAlteradaEvent.Tipo.CRIADA, salva));
+        return salva;
     }
 
-    // Regras de prioridade
-    public boolean podeAgendar(Aluno aluno, LocalDateTime inicioSlot) {
-        DayOfWeek dia = inicioSlot.getDayOfWeek();
-        boolean ehTFG = aluno.getTipoTrabalho() == Aluno.TipoTrabalho.TFG;
-        Integer semestre = aluno.getSemestre();
-
-        boolean diaTFG = (dia == DayOfWeek.MONDAY
-                || dia == DayOfWeek.TUESDAY
-                || dia == DayOfWeek.THURSDAY);
-
-        boolean diaSemestres = (dia == DayOfWeek.WEDNESDAY
-                || dia == DayOfWeek.FRIDAY);
-
-        if (ehTFG && diaTFG) return true;
-
-        if (semestre != null && semestre >= 3 && semestre <= 8 && diaSemestres) return true;
+    // Validações de um horário novo (também usadas por horário do agendamento em lote).
+    // Devolve o equipamento do catálogo: nome desconhecido/inativo para aqui, antes do banco
+    Equipamento validarNovoHorario(LocalDateTime inicio, LocalDateTime fim, String equipamento, LocalDateTime agora) {
+        Equipamento eq = catalogo.resolver(equipamento);
+        if (inicio == null || fim == null) {
+            throw new IllegalArgumentException("Início e fim são obrigatórios.");
+        }
+        if (!fim.isAfter(inicio)) {
+            throw new IllegalArgumentException("Fim deve ser depois do início.");
+        }
+        if (inicio.isBefore(agora)) {
+            throw new IllegalArgumentException("Não é possível agendar no passado.");
+        }
+        return eq;
+    }
 
-        Duration diff = Duration.between(LocalDateTime.now(), inicioSlot);
-        return diff.toHours() < 24;
+    // Regras de prioridade (tabela regra_prioridade, ver RegrasPrioridade)
+    public boolean podeAgendar(Aluno aluno, LocalDateTime inicioSlot) {
+        return regrasPrioridade.permite(aluno, inicioSlot, LocalDateTime.now(clock));
     }
 
     // === UC02: Cancelar ============================================
-    @Transactional
     public void cancelarReserva(Aluno aluno, Long reservaId) {
-        Reserva r = reservaRepository.findById(reservaId)
-                .orElseThrow(() -> new IllegalArgumentException("Reserva não encontrada."));
-
-        if (!Objects.equals(r.getTitular().getId(), aluno.getId())) {
-            throw new IllegalStateException("Você não pode cancelar essa reserva.");
-        }
-        if (r.getStatus() != Reserva.Status.ATIVA) {
-            throw new IllegalStateException("Apenas reservas ativas podem ser canceladas.");
-        }
-
-        Duration diff = Duration.between(LocalDateTime.now(), r.getInicio());
-        if (diff.toMinutes() < 60) {
-            throw new IllegalStateException("Cancelamento não permitido: falta menos de 1h para o início.");
-        }
-
-        r.setStatus(Reserva.Status.CANCELADA);
-        r.setAtualizadoEm(LocalDateTime.now());
-        reservaRepository.save(r);
+        // Perdeu a corrida no lock otimista: relê e revalida. Se a outra operação já cancelou,
+        // cai em "apenas reservas ativas" (IllegalStateException, 403 no controller, como
+        // cancelar de novo uma reserva cancelada); 409 só quando as retentativas se esgotam
+        metricas.medir("cancelar", m -> comRetentativa("cancelar", tentativas, () -> transacao.execute(tx -> {
+            Reserva r = reservaRepository.findById(reservaId)
+                    .orElseThrow(() -> new IllegalArgumentException("Reserva não encontrada."));
+            m.equipamento(catalogo.porId(r.getEquipamento().getId()));
+
+            if (!Objects.equals(r.getTitular().getId(), aluno.getId())) {
+                throw new PermissaoNegadaException("Você não pode cancelar essa reserva.");
+            }
+            if (r.getStatus() != Reserva.Status.ATIVA) {
+                throw new IllegalStateException("Apenas reservas ativas podem ser canceladas.");
+            }
+
+            Duration diff = Duration.between(LocalDateTime.now(clock), r.getInicio());
+            if (diff.toMinutes() < 60) {
+                throw new IllegalStateException("Cancelamento não permitido: falta menos de 1h para o início.");
+            }
+
+            r.setStatus(Reserva.Status.CANCELADA);
+            reservaRepository.save(r);
+            eventos.publishEvent(ReservaAlteradaEvent.de(ReservaAlteradaEvent.Tipo.CANCELADA, r));
+            return null;
+        })));
     }
 
     // === UC03: Incluir Suplente ===================================
-    @Transactional
     public void incluirSuplente(Aluno titular, Long reservaId, Aluno suplente) {
-        if (suplente == null || suplente.getId() == null) {
-            throw new IllegalArgumentException("Suplente inválido.");
-        }
-
-        Reserva r = reservaRepository.findById(reservaId)
-                .orElseThrow(() -> new IllegalArgumentException("Reserva não encontrada."));
-
-        if (!Objects.equals(r.getTitular().getId(), titular.getId())) {
-            throw new IllegalStateException("Você não é o titular dessa reserva.");
-        }
-        if (Objects.equals(r.getTitular().getId(), suplente.getId())) {
-            throw new IllegalStateException("Titular não pode ser suplente da própria reserva.");
-        }
-
-        if (LocalDateTime.now().isAfter(r.getFim())) {
-            throw new IllegalStateException("Não é possível adicionar suplente após o término.");
-        }
-
-        r.setSuplente(suplente);
-        r.setAtualizadoEm(LocalDateTime.now());
-        reservaRepository.save(r);
+        metricas.medir("incluir_suplente", m -> {
+            if (suplente == null || suplente.getId() == null) {
+                throw new IllegalArgumentException("Suplente inválido.");
+            }
+
+            // Idempotente (mesmo suplente de novo = mesmo estado): repete sobre a versão nova
+            return comRetentativa("incluir_suplente", tentativas, () -> transacao.execute(tx -> {
+                Reserva r = reservaRepository.findById(reservaId)
+                        .orElseThrow(() -> new IllegalArgumentException("Reserva não encontrada."));
+                m.equipamento(catalogo.porId(r.getEquipamento().getId()));
+
+                if (!Objects.equals(r.getTitular().getId(), titular.getId())) {
+                    throw new PermissaoNegadaException("Você não é o titular dessa reserva.");
+                }
+                if (Objects.equals(r.getTitular().getId(), suplente.getId())) {
+                    throw new IllegalStateException("Titular não pode ser suplente da própria reserva.");
+                }
+
+                if (LocalDateTime.now(clock).isAfter(r.getFim())) {
+                    throw new IllegalStateException("Não é possível adicionar suplente após o término.");
+                }
+
+                r.setSuplente(suplente);
+                // reincluir o mesmo suplente não suja a entidade (o listener não roda),
+                // mas o evento sai do mesmo jeito: marca a alteração explicitamente
+                r.setAtualizadoEm(LocalDateTime.now(clock));
+                reservaRepository.save(r);
+                eventos.publishEvent(ReservaAlteradaEvent.de(ReservaAlteradaEvent.Tipo.SUPLENTE_INCLUIDO, r));
+                return null;
+            }));
+        });
     }
 
     // === UC05: Editar Horário marcado =============================
-    @Transactional
+    // Mesma ideia do agendar: trava o equipamento de DESTINO em volta da transação
     public Reserva editarHorario(Aluno aluno,
                                  Long reservaId,
                                  LocalDateTime novoInicio,
                                  LocalDateTime novoFim,
                                  String equipamento) {
-        // 0) validações
-        if (aluno == null || aluno.getId() == null)
-            throw new IllegalArgumentException("Aluno inválido.");
-        if (equipamento == null || equipamento.isBlank())
-            throw new IllegalArgumentException("Equipamento é obrigatório.");
-        if (novoInicio == null || novoFim == null)
-            throw new IllegalArgumentException("Início e fim são obrigatórios.");
-        if (!novoFim.isAfter(novoInicio))
-            throw new IllegalArgumentException("Fim deve ser depois do início.");
-        if (novoInicio.isBefore(LocalDateTime.now()))
-            throw new IllegalArgumentException("Não é possível mover para o passado.");
-
-        Reserva r = reservaRepository.findById(reservaId)
-                .orElseThrow(() -> new IllegalArgumentException("Reserva não encontrada."));
+        return metricas.medir("editar", m -> {
+            // 0) validações
+            if (aluno == null || aluno.getId() == null)
+                throw new IllegalArgumentException("Aluno inválido.");
+            Equipamento eq = catalogo.resolver(equipamento);
+            m.equipamento(eq);
+            if (novoInicio == null || novoFim == null)
+                throw new IllegalArgumentException("Início e fim são obrigatórios.");
+            if (!novoFim.isAfter(novoInicio))
+                throw new IllegalArgumentException("Fim deve ser depois do início.");
+            LocalDateTime agora = LocalDateTime.now(clock);
+            if (novoInicio.isBefore(agora))
+                throw new IllegalArgumentException("Não é possível mover para o passado.");
+
+            // Sem retentativa: o horário novo foi decidido sobre um estado que mudou
+            // (cancelada, movida, finalizada); conflito de verdade, 409 para o cliente recarregar
+            return travas.executar(eq.getId(), () -> comRetentativa("editar", 1, () -> transacao.execute(tx -> {
+                Reserva r = reservaRepository.findComSuplenteById(reservaId)
+                        .orElseThrow(() -> new IllegalArgumentException("Reserva não encontrada."));
+
+                if (!Objects.equals(r.getTitular().getId(), aluno.getId()))
+                    throw new PermissaoNegadaException("Você não é o titular.");
+
+                if (r.getStatus() != Reserva.Status.ATIVA)
+                    throw new IllegalStateException("Apenas reservas ativas podem ser editadas.");
+
+                // se não mudou nada, retorna
+                if (Objects.equals(eq.getId(), r.getEquipamento().getId()) &&
+                    Objects.equals(novoInicio, r.getInicio()) &&
+                    Objects.equals(novoFim, r.getFim())) {
+                    return r;
+                }
+
+                // conflito ignorando a própria reserva
+                boolean conflito = indiceOcupacao.haConflito(eq.getId(), novoInicio, novoFim, r.getId());
+                if (conflito) {
+                    throw new ConflitoHorarioException("Conflito de horário para o equipamento selecionado.");
+                }
+
+                // regra de prioridade novamente
+                if (!regrasPrioridade.permite(aluno, novoInicio, agora)) {
+                    throw new PermissaoNegadaException("Sem permissão neste novo horário.");
+                }
+
+                // persistir alterações
+                Integer equipamentoAnteriorId = r.getEquipamento().getId();
+                LocalDateTime inicioAnterior = r.getInicio();
+                LocalDateTime fimAnterior = r.getFim();
+                r.setEquipamento(eq);
+                r.setInicio(novoInicio);
+                r.setFim(novoFim);
+                Reserva salva = reservaRepository.save(r);
+                eventos.publishEvent(ReservaAlteradaEvent.de(ReservaAlteradaEvent.Tipo.EDITADA, salva, equipamentoAnteriorId, inicioAnterior, fimAnterior));
+                return salva;
+            })));
+        });
+    }
 
-        if (!Objects.equals(r.getTitular().getId(), aluno.getId()))
-            throw new IllegalStateException("Você não é o titular.");
+    // Cada tentativa é uma transação inteira (leitura + validação + gravação). Sem espera entre
+    // tentativas: quem venceu a corrida já commitou, a releitura enxerga a versão nova.
+    private <T> T comRetentativa(String operacao, int maximo, Supplier<T> tentativa) {
+        for (int i = 1; ; i++) {
+            try {
+                return tentativa.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (i >= maximo) {
+                    throw new AlteracaoConcorrenteException(
+                            "A reserva foi alterada por outra operação; recarregue e tente de novo.", e);
+                }
+                metricas.retentativa(operacao);
+            }
+        }
+    }
 
-        if (r.getStatus() != Reserva.Status.ATIVA)
-            throw new IllegalStateException("Apenas reservas ativas podem ser editadas.");
+    // Visualizar minhas reservas (UC "Visualizar Horário marcado")
+    // Paginação por cursor: custo constante por página, não importa o tamanho do histórico
+    public static final int LIMITE_PAGINA_PADRAO = 20;
+    public static final int LIMITE_PAGINA_MAXIMO = 100;
+
+    public PaginaReservas listarReservasDoAluno(Aluno aluno,
+                                                LocalDateTime antesDeInicio,
+                                                Long antesDeId,
+                                                int limite) {
+        return listarReservasDoAluno(aluno, antesDeInicio, antesDeId, limite, false);
+    }
 
-        // se não mudou nada, retorna
-        if (Objects.equals(equipamento, r.getEquipamento()) &&
-            Objects.equals(novoInicio, r.getInicio()) &&
-            Objects.equals(novoFim, r.getFim())) {
-            return r;
+    // incluirArquivo: junta o histórico de reserva_arquivo na mesma ordem (inicio DESC, id DESC).
+    // Cada tabela devolve sua página pelo mesmo cursor e as duas são intercaladas; o cursor
+    // continua valendo porque o id da reserva é o mesmo nas duas tabelas.
+    @Transactional(readOnly = true)
+    public PaginaReservas listarReservasDoAluno(Aluno aluno,
+                                                LocalDateTime antesDeInicio,
+                                                Long antesDeId,
+                                                int limite,
+                                                boolean incluirArquivo) {
+        if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_PAGINA_MAXIMO + ".");
+        }
+        if ((antesDeInicio == null) != (antesDeId == null)) {
+            throw new IllegalArgumentException("Cursor incompleto: informe início e id juntos.");
         }
 
-        // conflito ignorando a própria reserva
-        boolean conflito = reservaRepository
-                .existsByEquipamentoAndStatusInAndInicioBeforeAndFimAfterAndIdNot(
-                        equipamento,
-                        List.of(Reserva.Status.ATIVA),
-                        novoFim,
-                        novoInicio,
-                        r.getId()
-                );
-        if (conflito) {
-            throw new IllegalStateException("Conflito de horário para o equipamento selecionado.");
+        // busca um a mais só para saber se existe próxima página
+        Limit limiteBusca = Limit.of(limite + 1);
+        List<ReservaResumo> itens = antesDeInicio == null
+                ? reservaRepository.findPrimeiraPaginaDoTitular(aluno.getId(), limiteBusca)
+                : reservaRepository.findPaginaDoTitularAntesDe(aluno.getId(), antesDeInicio, antesDeId, limiteBusca);
+
+        if (incluirArquivo) {
+            // depois da quente: uma reserva arquivada no meio da listagem aparece nas duas
+            // (e é deduplicada), nunca em nenhuma
+            List<ReservaResumo> arquivadas = antesDeInicio == null
+                    ? reservaArquivadaRepository.findPrimeiraPaginaDoTitular(aluno.getId(), limiteBusca)
+                    : reservaArquivadaRepository.findPaginaDoTitularAntesDe(aluno.getId(), antesDeInicio, antesDeId, limiteBusca);
+            itens = intercalar(itens, arquivadas, limite + 1);
         }
 
-        // regra de prioridade novamente
-        if (!podeAgendar(aluno, novoInicio)) {
-            throw new IllegalStateException("Sem permissão neste novo horário.");
+        if (itens.size() <= limite) {
+            return new PaginaReservas(itens, null, null);
         }
+        List<ReservaResumo> pagina = itens.subList(0, limite);
+        ReservaResumo ultima = pagina.get(limite - 1);
+        return new PaginaReservas(List.copyOf(pagina), ultima.inicio(), ultima.id());
+    }
 
-        // persistir alterações
-        r.setEquipamento(equipamento);
-        r.setInicio(novoInicio);
-        r.setFim(novoFim);
-        r.setAtualizadoEm(LocalDateTime.now());
-        return reservaRepository.save(r);
+    // Merge de duas listas já ordenadas por (inicio DESC, id DESC), sem repetir id
+    private static List<ReservaResumo> intercalar(List<ReservaResumo> a, List<ReservaResumo> b, int maximo) {
+        List<ReservaResumo> resultado = new ArrayList<>(Math.min(maximo, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (resultado.size() < maximo && (i < a.size() || j < b.size())) {
+            ReservaResumo proxima;
+            if (j >= b.size()) {
+                proxima = a.get(i++);
+            } else if (i >= a.size()) {
+                proxima = b.get(j++);
+            } else {
+                ReservaResumo x = a.get(i);
+                ReservaResumo y = b.get(j);
+                int cmp = x.inicio().compareTo(y.inicio());
+                if (cmp == 0) {
+                    cmp = x.id().compareTo(y.id());
+                }
+                if (cmp == 0) {
+                    j++;
+                    continue;
+                }
+                proxima = cmp > 0 ? a.get(i++) : b.get(j++);
+            }
+            resultado.add(proxima);
+        }
+        return resultado;
     }
 
-    // Visualizar minhas reservas (UC "Visualizar Horário marcado")
-    public List<Reserva> listarReservasDoAluno(Aluno aluno) {
-        return reservaRepository.findAllByTitularIdOrderByInicioDesc(aluno.getId());
+    // Horários livres por equipamento/dia (bitmap em memória, sem consulta ao banco)
+    public static final int DIAS_DISPONIBILIDADE_MAXIMO = 14;
+
+    public List<DisponibilidadeDia> consultarDisponibilidade(List<String> equipamentos, LocalDate dia, int dias) {
+        if (equipamentos == null || equipamentos.isEmpty()) {
+            throw new IllegalArgumentException("Equipamento é obrigatório.");
+        }
+        List<Equipamento> resolvidos = equipamentos.stream().map(catalogo::resolver).toList();
+        if (dia == null) {
+            throw new IllegalArgumentException("Dia é obrigatório.");
+        }
+        if (dias < 1 || dias > DIAS_DISPONIBILIDADE_MAXIMO) {
+            throw new IllegalArgumentException("Dias deve estar entre 1 e " + DIAS_DISPONIBILIDADE_MAXIMO + ".");
+        }
+
+        List<DisponibilidadeDia> resultado = new ArrayList<>();
+        for (Equipamento equipamento : resolvidos) {
+            for (int i = 0; i < dias; i++) {
+                LocalDate d = dia.plusDays(i);
+                resultado.add(new DisponibilidadeDia(equipamento.getNome(), d, mapaOcupacao.faixasLivres(equipamento.getId(), d)));
+            }
+        }
+        return resultado;
     }
 }
@@ -0,0 +1,10 @@
+package br.fau.laser_booking.service;
+
+// Reserva alterada por outra operação entre a leitura e a gravação (lock otimista);
+// controller responde 409 e o cliente recarrega antes de tentar de novo
+public class AlteracaoConcorrenteException extends IllegalStateException {
+
+    public AlteracaoConcorrenteException(String mensagem, Throwable causa) {
+        super(mensagem, causa);
+    }
+}
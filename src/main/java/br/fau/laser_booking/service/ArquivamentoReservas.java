@@ -0,0 +1,163 @@
+package br.fau.laser_booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+// Move reservas CANCELADA/FINALIZADA que terminaram antes do horizonte para reserva_arquivo.
+// Em lotes, cada um numa transação (INSERT ... SELECT + DELETE pelos mesmos ids): a linha
+// está sempre em exatamente uma das tabelas, e uma execução interrompida só perde o lote
+// corrente, que a próxima execução pega de novo (reiniciável sem estado guardado).
+// Exportação com histórico lê reserva e depois reserva_arquivo: enquanto ela segura o
+// histórico (bloquearHistorico), nenhum lote é movido e cada reserva sai uma vez só.
+@Component
+public class ArquivamentoReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoReservas.class);
+
+    private static final String SELECIONAR = """
+            SELECT id FROM reserva
+            WHERE status IN ('CANCELADA', 'FINALIZADA') AND fim < :limite
+            ORDER BY id
+            LIMIT :lote""";
+
+    private static final String COPIAR = """
+            INSERT INTO reserva_arquivo (id, aluno_titular_id, aluno_suplente_id, equipamento_id, inicio, fim,
+                                         status, criado_em, atualizado_em, arquivado_em)
+            SELECT id, aluno_titular_id, aluno_suplente_id, equipamento_id, inicio, fim,
+                   status, criado_em, atualizado_em, :agora
+            FROM reserva
+            WHERE id IN (:ids)""";
+
+    private static final String APAGAR = "DELETE FROM reserva WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final Clock clock;
+    private final Counter arquivadas;
+    private final int horizonteDias;
+    private final int tamanhoLote;
+    // agendado e disparo manual (admin) não rodam juntos
+    final ReentrantLock emExecucao = new ReentrantLock();
+    // leitura = exportações em andamento; escrita = um lote sendo movido. StampedLock não tem
+    // dono: a exportação trava na thread do request e solta na da escrita assíncrona
+    private final StampedLock historico = new StampedLock();
+
+    public ArquivamentoReservas(NamedParameterJdbcTemplate jdbc,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry registry,
+                                Clock clock,
+                                @Value("${laserbooking.arquivamento.horizonte-dias:180}") int horizonteDias,
+                                @Value("${laserbooking.arquivamento.lote:1000}") int tamanhoLote) {
+        this.jdbc = jdbc;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.arquivadas = Counter.builder("laserbooking.arquivamento.reservas")
+                .description("Reservas movidas para reserva_arquivo")
+                .register(registry);
+        this.horizonteDias = horizonteDias;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    // Disparo manual em andamento já faz o trabalho: o agendado só pula (sem erro no scheduler)
+    @Scheduled(cron = "${laserbooking.arquivamento.cron:0 30 3 * * *}")
+    public void executar() {
+        if (!emExecucao.tryLock()) {
+            log.debug("Arquivamento agendado pulado: execução manual em andamento");
+            return;
+        }
+        try {
+            mover(horizonteDias, false);
+        } finally {
+            emExecucao.unlock();
+        }
+    }
+
+    public int arquivar() {
+        return arquivar(horizonteDias);
+    }
+
+    // Disparo manual (admin): devolve quantas reservas foram arquivadas; ocupado vira 409
+    public int arquivar(int horizonteDias) {
+        if (horizonteDias < 1) {
+            throw new IllegalArgumentException("Horizonte deve ser de pelo menos 1 dia.");
+        }
+        if (!emExecucao.tryLock()) {
+            throw new IllegalStateException("Arquivamento já em andamento.");
+        }
+        try {
+            return mover(horizonteDias, true);
+        } finally {
+            emExecucao.unlock();
+        }
+    }
+
+    // Chamado com emExecucao travado. Exportação em andamento interrompe entre lotes:
+    // o disparo manual recebe o conflito, o agendado pára e a próxima execução continua
+    private int mover(int horizonteDias, boolean manual) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        Timestamp limite = Timestamp.valueOf(agora.minusDays(horizonteDias));
+        int total = 0;
+        while (true) {
+            long lote = historico.tryWriteLock();
+            if (lote == 0) {
+                if (manual) {
+                    throw new IllegalStateException("Exportação do histórico em andamento; "
+                            + total + " reserva(s) arquivadas até aqui.");
+                }
+                log.debug("Arquivamento agendado interrompido: exportação do histórico em andamento");
+                break;
+            }
+            Integer n;
+            try {
+                n = transacao.execute(tx -> arquivarLote(limite, Timestamp.valueOf(agora)));
+            } finally {
+                historico.unlockWrite(lote);
+            }
+            if (n == null || n == 0) {
+                break;
+            }
+            total += n;
+            arquivadas.increment(n);
+        }
+        if (total > 0) {
+            log.info("Arquivamento: {} reserva(s) terminadas antes de {} movidas para reserva_arquivo", total, limite);
+        }
+        return total;
+    }
+
+    // Espera no máximo o lote corrente terminar; devolve o carimbo para desbloquearHistorico
+    public long bloquearHistorico() {
+        return historico.readLock();
+    }
+
+    public void desbloquearHistorico(long carimbo) {
+        historico.unlockRead(carimbo);
+    }
+
+    private int arquivarLote(Timestamp limite, Timestamp agora) {
+        List<Long> ids = jdbc.queryForList(SELECIONAR,
+                new MapSqlParameterSource("limite", limite).addValue("lote", tamanhoLote), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids).addValue("agora", agora);
+        jdbc.update(COPIAR, parametros);
+        return jdbc.update(APAGAR, parametros);
+    }
+}
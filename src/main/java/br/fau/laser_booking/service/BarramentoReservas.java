@@ -0,0 +1,223 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.config.AsyncConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Barramento em processo das alterações de reserva, para push (SSE) aos clientes.
+// Cada assinatura filtra por equipamento e/ou aluno (titular ou suplente) e tem fila
+// LIMITADA: quem não acompanha perde os eventos pendentes e recebe um aviso de
+// "ressincronizar" (recarregar a listagem), em vez de segurar memória ou o commit.
+// A entrega (I/O de rede) roda num pool próprio e limitado, nunca na thread do commit:
+// cliente lento que prende thread em SseEmitter.send não toma o applicationTaskExecutor.
+// Pool saturado também vira "ressincronizar" para a assinatura que não conseguiu entrar.
+@Component
+public class BarramentoReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(BarramentoReservas.class);
+
+    // Quem recebe os eventos; lança exceção se o cliente sumiu (a assinatura é encerrada)
+    @FunctionalInterface
+    public interface Entrega {
+        void entregar(List<ReservaAlteradaEvent> eventos, boolean perdeuEventos) throws Exception;
+    }
+
+    private final TaskExecutor executor;
+    private final int capacidadeFila;
+    private final int maximoAssinaturas;
+    private final AtomicInteger ativas = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Set<Assinatura>> porEquipamento = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Assinatura>> porAluno = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BarramentoReservas(@Value("${laserbooking.eventos.threads-entrega:8}") int threadsEntrega,
+                              @Value("${laserbooking.eventos.fila-entrega:500}") int filaEntrega,
+                              @Value("${laserbooking.eventos.fila-assinatura:256}") int capacidadeFila,
+                              @Value("${laserbooking.eventos.maximo-assinaturas:1000}") int maximoAssinaturas) {
+        this(AsyncConfig.poolDedicado("entrega-eventos-", threadsEntrega, filaEntrega), capacidadeFila, maximoAssinaturas);
+    }
+
+    BarramentoReservas(TaskExecutor executor, int capacidadeFila, int maximoAssinaturas) {
+        this.executor = executor;
+        this.capacidadeFila = capacidadeFila;
+        this.maximoAssinaturas = maximoAssinaturas;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    // === Assinaturas ========================================================
+    // equipamentoId já resolvido pelo CatalogoEquipamentos (null = qualquer equipamento)
+    public Assinatura assinar(Integer equipamentoId, Long alunoId, Entrega entrega) {
+        if (equipamentoId == null && alunoId == null) {
+            throw new IllegalArgumentException("Informe equipamento e/ou alunoId.");
+        }
+        if (ativas.incrementAndGet() > maximoAssinaturas) {
+            ativas.decrementAndGet();
+            throw new IllegalStateException("Limite de assinaturas de eventos atingido.");
+        }
+        Assinatura a = new Assinatura(equipamentoId, alunoId, entrega);
+        // indexada por um só critério; o outro (se houver) é conferido em aceita()
+        // (add dentro do compute: não corre com o cancelar() que remove o conjunto vazio)
+        if (a.equipamentoId != null) {
+            porEquipamento.compute(a.equipamentoId, (k, s) -> comAssinatura(s, a));
+        } else {
+            porAluno.compute(a.alunoId, (k, s) -> comAssinatura(s, a));
+        }
+        return a;
+    }
+
+    private static Set<Assinatura> comAssinatura(Set<Assinatura> s, Assinatura a) {
+        Set<Assinatura> conjunto = s != null ? s : ConcurrentHashMap.newKeySet();
+        conjunto.add(a);
+        return conjunto;
+    }
+
+    public int assinaturasAtivas() {
+        return ativas.get();
+    }
+
+    // === Publicação =========================================================
+    // Depois do commit e depois de índice/mapa (Order 0/1): quem recebe o evento e
+    // consulta a disponibilidade em seguida já enxerga a alteração.
+    @Order(2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarReserva(ReservaAlteradaEvent e) {
+        Set<Assinatura> candidatas = new LinkedHashSet<>();
+        adicionar(candidatas, porEquipamento.get(e.equipamentoId()));
+        if (!Objects.equals(e.equipamentoId(), e.equipamentoAnteriorId())) {
+            adicionar(candidatas, porEquipamento.get(e.equipamentoAnteriorId()));
+        }
+        if (e.titularId() != null) {
+            adicionar(candidatas, porAluno.get(e.titularId()));
+        }
+        if (e.suplenteId() != null) {
+            adicionar(candidatas, porAluno.get(e.suplenteId()));
+        }
+        for (Assinatura a : candidatas) {
+            if (a.aceita(e)) {
+                a.enfileirar(e);
+            }
+        }
+    }
+
+    private static void adicionar(Set<Assinatura> destino, Set<Assinatura> origem) {
+        if (origem != null) {
+            destino.addAll(origem);
+        }
+    }
+
+    public final class Assinatura {
+
+        private final Integer equipamentoId;
+        private final Long alunoId;
+        private final Entrega entrega;
+        private final BlockingQueue<ReservaAlteradaEvent> fila = new ArrayBlockingQueue<>(capacidadeFila);
+        private final AtomicBoolean transbordou = new AtomicBoolean();
+        private final AtomicBoolean agendada = new AtomicBoolean();
+        private final AtomicBoolean encerrada = new AtomicBoolean();
+
+        private Assinatura(Integer equipamentoId, Long alunoId, Entrega entrega) {
+            this.equipamentoId = equipamentoId;
+            this.alunoId = alunoId;
+            this.entrega = entrega;
+        }
+
+        boolean aceita(ReservaAlteradaEvent e) {
+            boolean equipamentoOk = equipamentoId == null
+                    || equipamentoId.equals(e.equipamentoId())
+                    || equipamentoId.equals(e.equipamentoAnteriorId());
+            boolean alunoOk = alunoId == null
+                    || alunoId.equals(e.titularId())
+                    || alunoId.equals(e.suplenteId());
+            return equipamentoOk && alunoOk;
+        }
+
+        // Nunca bloqueia quem publica: fila cheia descarta o pendente e marca transbordo
+        void enfileirar(ReservaAlteradaEvent e) {
+            if (encerrada.get()) {
+                return;
+            }
+            if (!fila.offer(e)) {
+                fila.clear();
+                transbordou.set(true);
+            }
+            agendar();
+        }
+
+        // Uma drenagem por vez por assinatura: preserva a ordem dos eventos
+        private void agendar() {
+            if (agendada.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drenar);
+                } catch (TaskRejectedException ex) {
+                    // sem thread livre: descarta o pendente e a próxima drenagem avisa "ressincronizar"
+                    fila.clear();
+                    transbordou.set(true);
+                    agendada.set(false);
+                    log.debug("Entrega de eventos saturada: {}", ex.toString());
+                }
+            }
+        }
+
+        private void drenar() {
+            try {
+                while (!encerrada.get()) {
+                    List<ReservaAlteradaEvent> lote = new ArrayList<>();
+                    fila.drainTo(lote);
+                    boolean perdeu = transbordou.getAndSet(false);
+                    if (lote.isEmpty() && !perdeu) {
+                        break;
+                    }
+                    entrega.entregar(lote, perdeu);
+                }
+            } catch (Exception ex) {
+                log.debug("Assinatura de eventos encerrada: {}", ex.toString());
+                cancelar();
+            } finally {
+                agendada.set(false);
+                // evento que chegou entre o último drainTo e a liberação
+                if (!encerrada.get() && (!fila.isEmpty() || transbordou.get())) {
+                    agendar();
+                }
+            }
+        }
+
+        public void cancelar() {
+            if (!encerrada.compareAndSet(false, true)) {
+                return;
+            }
+            ativas.decrementAndGet();
+            fila.clear();
+            if (equipamentoId != null) {
+                porEquipamento.computeIfPresent(equipamentoId, (k, s) -> s.remove(this) && s.isEmpty() ? null : s);
+            } else {
+                porAluno.computeIfPresent(alunoId, (k, s) -> s.remove(this) && s.isEmpty() ? null : s);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Equipamento;
+import br.fau.laser_booking.repository.EquipamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Equipamentos cadastrados, lidos da tabela na subida e a cada recarregar()
+// (POST /api/admin/equipamentos/recarregar), como o RegrasPrioridade.
+// Nome -> id na borda (requisição), id -> nome na resposta; sem ida ao banco.
+// Nome desconhecido ou inativo é recusado aqui: não vira "máquina fantasma" sem conflito.
+@Component
+public class CatalogoEquipamentos {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoEquipamentos.class);
+
+    private final EquipamentoRepository equipamentoRepository;
+    private volatile Catalogo catalogo;
+
+    public CatalogoEquipamentos(EquipamentoRepository equipamentoRepository) {
+        this.equipamentoRepository = equipamentoRepository;
+        recarregar();
+    }
+
+    // Troca de referência inteira: leitores nunca veem um mapa pela metade
+    private record Catalogo(Map<String, Equipamento> porNome, Map<Integer, Equipamento> porId) {
+    }
+
+    // Equipamento ATIVO com esse nome (espaços nas pontas ignorados): para reservar
+    public Equipamento resolver(String nome) {
+        Equipamento e = buscar(nome);
+        if (!e.isAtivo()) {
+            throw new IllegalArgumentException("Equipamento indisponível: " + e.getNome() + ".");
+        }
+        return e;
+    }
+
+    // Ativo ou não: para consultar histórico
+    public Equipamento buscar(String nome) {
+        if (nome == null || nome.isBlank()) {
+            throw new IllegalArgumentException("Equipamento é obrigatório.");
+        }
+        Equipamento e = catalogo.porNome().get(nome.strip());
+        if (e == null) {
+            throw new IllegalArgumentException("Equipamento desconhecido: " + nome.strip() + ".");
+        }
+        return e;
+    }
+
+    // null se o id não está no catálogo
+    public Equipamento porId(Integer id) {
+        return catalogo.porId().get(id);
+    }
+
+    // Nome para exibir (inclusive de inativos, que ainda aparecem em reservas antigas)
+    public String nome(Integer id) {
+        Equipamento e = catalogo.porId().get(id);
+        return e != null ? e.getNome() : null;
+    }
+
+    public List<Equipamento> ativos() {
+        return catalogo.porId().values().stream()
+                .filter(Equipamento::isAtivo)
+                .sorted(Comparator.comparing(Equipamento::getNome))
+                .toList();
+    }
+
+    // Devolve quantos equipamentos ativos há
+    public int recarregar() {
+        List<Equipamento> todos = equipamentoRepository.findAll();
+        catalogo = new Catalogo(
+                todos.stream().collect(Collectors.toUnmodifiableMap(Equipamento::getNome, Function.identity())),
+                todos.stream().collect(Collectors.toUnmodifiableMap(Equipamento::getId, Function.identity())));
+        int ativos = (int) todos.stream().filter(Equipamento::isAtivo).count();
+        log.info("Equipamentos carregados: {} ativo(s) de {}", ativos, todos.size());
+        return ativos;
+    }
+}
@@ -0,0 +1,9 @@
+package br.fau.laser_booking.service;
+
+// Horário já ocupado no equipamento (controller responde 409)
+public class ConflitoHorarioException extends IllegalStateException {
+
+    public ConflitoHorarioException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,133 @@
+package br.fau.laser_booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Controle de admissão das escritas de agendamento (AgendamentoController), antes de qualquer
+// acesso ao banco. Na abertura da janela de reservas, poucos alunos com script não podem ocupar
+// o pool JDBC e as travas por equipamento de todo mundo:
+// - por aluno: token bucket (rajada + reposição por minuto) na forma GCRA: o estado é um long por
+//   aluno (instante em que o balde estaria cheio de novo), atualizado com CAS, sem trava;
+// - global: no máximo N escritas em andamento; sem vaga depois de uma espera curta, recusa
+//   em vez de enfileirar trabalho sem limite.
+// Recusa = AdmissaoNegadaException com o Retry-After sugerido (429).
+@Component
+public class ControleAdmissao {
+
+    private final Cache<Long, AtomicLong> baldes;
+    // reposição de uma ficha
+    private final long intervaloNanos;
+    // balde cheio = rajada fichas
+    private final long toleranciaNanos;
+    private final Semaphore vagas;
+    private final long esperaVagaNanos;
+    private final MeterRegistry registry;
+
+    public ControleAdmissao(MeterRegistry registry,
+                            @Value("${laserbooking.admissao.por-minuto:30}") int porMinuto,
+                            @Value("${laserbooking.admissao.rajada:10}") int rajada,
+                            @Value("${laserbooking.admissao.simultaneas:32}") int simultaneas,
+                            @Value("${laserbooking.admissao.espera-vaga:PT0.1S}") Duration esperaVaga,
+                            @Value("${laserbooking.admissao.maximo-alunos:100000}") long maximoAlunos) {
+        if (porMinuto < 1 || rajada < 1 || simultaneas < 1) {
+            throw new IllegalArgumentException("laserbooking.admissao.*: por-minuto, rajada e simultaneas devem ser >= 1");
+        }
+        this.intervaloNanos = TimeUnit.MINUTES.toNanos(1) / porMinuto;
+        this.toleranciaNanos = intervaloNanos * rajada;
+        // balde parado há mais tempo do que leva para encher é igual a um novo: pode sair do cache
+        this.baldes = Caffeine.newBuilder()
+                .maximumSize(maximoAlunos)
+                .expireAfterAccess(Duration.ofNanos(toleranciaNanos))
+                .build();
+        this.vagas = new Semaphore(simultaneas);
+        this.esperaVagaNanos = esperaVaga.toNanos();
+        this.registry = registry;
+        Gauge.builder("laserbooking.admissao.em_andamento", vagas, s -> simultaneas - s.availablePermits())
+                .description("Escritas de agendamento admitidas e ainda em andamento")
+                .register(registry);
+    }
+
+    // Vaga no limite global; fechar (try-with-resources) devolve a vaga
+    public final class Vaga implements AutoCloseable {
+
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        private Vaga() {
+        }
+
+        @Override
+        public void close() {
+            if (liberada.compareAndSet(false, true)) {
+                vagas.release();
+            }
+        }
+    }
+
+    // alunoId null: só o limite global (a requisição falha na validação logo em seguida)
+    public Vaga admitir(Long alunoId) {
+        long falta = alunoId == null ? 0 : consumir(alunoId);
+        if (falta > 0) {
+            contar("limite_aluno");
+            throw new AdmissaoNegadaException("Muitas requisições deste aluno; tente de novo em instantes.",
+                    Duration.ofNanos(falta));
+        }
+        boolean admitida;
+        try {
+            admitida = vagas.tryAcquire(esperaVagaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+        if (!admitida) {
+            // a ficha do aluno não foi usada
+            devolver(alunoId);
+            contar("sobrecarga");
+            throw new AdmissaoNegadaException("Sistema ocupado; tente de novo em instantes.", Duration.ofSeconds(1));
+        }
+        contar("admitida");
+        return new Vaga();
+    }
+
+    // GCRA: cada requisição empurra o "cheio de novo" em um intervalo; passou da tolerância
+    // (rajada) à frente de agora, recusa. Devolve 0 se admitiu, senão quanto falta (ns)
+    private long consumir(Long alunoId) {
+        long agora = System.nanoTime();
+        AtomicLong cheioEm = baldes.get(alunoId, k -> new AtomicLong(agora));
+        while (true) {
+            long atual = cheioEm.get();
+            // nanoTime só se compara por diferença
+            long novo = (atual - agora > 0 ? atual : agora) + intervaloNanos;
+            long excesso = novo - agora - toleranciaNanos;
+            if (excesso > 0) {
+                return excesso;
+            }
+            if (cheioEm.compareAndSet(atual, novo)) {
+                return 0;
+            }
+        }
+    }
+
+    private void devolver(Long alunoId) {
+        if (alunoId == null) {
+            return;
+        }
+        AtomicLong cheioEm = baldes.getIfPresent(alunoId);
+        if (cheioEm != null) {
+            cheioEm.addAndGet(-intervaloNanos);
+        }
+    }
+
+    private void contar(String resultado) {
+        registry.counter("laserbooking.admissao.requisicoes", "resultado", resultado).increment();
+    }
+}
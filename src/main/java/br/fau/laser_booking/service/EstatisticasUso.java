@@ -0,0 +1,320 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.UsoEquipamento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Uso por equipamento (minutos reservados, reservas, cancelamentos, alunos distintos) por dia
+// e por semana, em uso_equipamento. Mantido em incrementos a cada ReservaAlteradaEvent, na
+// MESMA transação da escrita em reserva (BEFORE_COMMIT): o painel lê poucas linhas prontas
+// em vez de varrer reserva + reserva_arquivo, e nunca diverge do que foi commitado.
+// A reserva conta no dia/semana do início. Arquivar não mexe aqui (o histórico continua contado).
+// reconstruir() recalcula tudo a partir das reservas: backfill depois da migration V8
+// e correção se a tabela for alterada à mão.
+@Component
+public class EstatisticasUso {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasUso.class);
+
+    public enum Granularidade {
+        DIA, SEMANA;
+
+        LocalDate periodo(LocalDateTime inicio) {
+            LocalDate dia = inicio.toLocalDate();
+            return this == DIA ? dia : dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        // Mesmo cálculo do periodo(), em SQL (H2), para a reconstrução
+        String periodoSql() {
+            return this == DIA
+                    ? "CAST(inicio AS DATE)"
+                    : "DATEADD(DAY, 1 - ISO_DAY_OF_WEEK(inicio), CAST(inicio AS DATE))";
+        }
+    }
+
+    private static final String CHAVE = "granularidade = :granularidade AND equipamento_id = :equipamento AND periodo = :periodo";
+
+    private static final String SOMAR = """
+            UPDATE uso_equipamento
+            SET minutos_reservados = minutos_reservados + :minutos, reservas = reservas + :reservas,
+                cancelamentos = cancelamentos + :cancelamentos, alunos = alunos + :alunos
+            WHERE\s""" + CHAVE;
+
+    private static final String INSERIR = """
+            INSERT INTO uso_equipamento (granularidade, equipamento_id, periodo, minutos_reservados, reservas,
+                                         cancelamentos, alunos)
+            VALUES (:granularidade, :equipamento, :periodo, :minutos, :reservas, :cancelamentos, :alunos)""";
+
+    private static final String SOMAR_ALUNO = """
+            UPDATE uso_equipamento_aluno SET reservas = reservas + :reservas
+            WHERE\s""" + CHAVE + " AND aluno_id = :aluno AND reservas + :reservas > 0";
+
+    private static final String INSERIR_ALUNO = """
+            INSERT INTO uso_equipamento_aluno (granularidade, equipamento_id, periodo, aluno_id, reservas)
+            VALUES (:granularidade, :equipamento, :periodo, :aluno, :reservas)""";
+
+    private static final String APAGAR_ALUNO =
+            "DELETE FROM uso_equipamento_aluno WHERE " + CHAVE + " AND aluno_id = :aluno AND reservas + :reservas <= 0";
+
+    private static final String CONSULTAR = """
+            SELECT e.nome AS equipamento, u.periodo, u.minutos_reservados, u.reservas, u.cancelamentos, u.alunos
+            FROM uso_equipamento u JOIN equipamento e ON e.id = u.equipamento_id
+            WHERE u.granularidade = :granularidade AND u.periodo BETWEEN :de AND :ate""";
+
+    // Reservas quentes + arquivadas; "periodo" vem de Granularidade.periodoSql()
+    private static final String HISTORICO = """
+            SELECT equipamento_id, status, inicio, fim, aluno_titular_id, %s AS periodo
+            FROM (SELECT equipamento_id, status, inicio, fim, aluno_titular_id FROM reserva
+                  UNION ALL
+                  SELECT equipamento_id, status, inicio, fim, aluno_titular_id FROM reserva_arquivo) h""";
+
+    private static final String RECONSTRUIR = """
+            INSERT INTO uso_equipamento (granularidade, equipamento_id, periodo, minutos_reservados, reservas,
+                                         cancelamentos, alunos)
+            SELECT '%s', equipamento_id, periodo,
+                   COALESCE(SUM(CASE WHEN status <> 'CANCELADA' THEN DATEDIFF(MINUTE, inicio, fim) END), 0),
+                   COUNT(CASE WHEN status <> 'CANCELADA' THEN 1 END),
+                   COUNT(CASE WHEN status = 'CANCELADA' THEN 1 END),
+                   COUNT(DISTINCT CASE WHEN status <> 'CANCELADA' THEN aluno_titular_id END)
+            FROM (%s) r
+            GROUP BY equipamento_id, periodo""";
+
+    private static final String RECONSTRUIR_ALUNO = """
+            INSERT INTO uso_equipamento_aluno (granularidade, equipamento_id, periodo, aluno_id, reservas)
+            SELECT '%s', equipamento_id, periodo, aluno_titular_id, COUNT(*)
+            FROM (%s) r
+            WHERE status <> 'CANCELADA'
+            GROUP BY equipamento_id, periodo, aluno_titular_id""";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CatalogoEquipamentos catalogo;
+    private final TransactionTemplate transacao;
+    // Leitura: cada transação que aplica incrementos, do listener até o fim do commit.
+    // Escrita: a reconstrução, que não pode intercalar com incrementos (somariam em
+    // linhas apagadas ou entrariam em dobro no INSERT ... SELECT)
+    private final ReentrantReadWriteLock reconstrucao = new ReentrantReadWriteLock();
+
+    public EstatisticasUso(NamedParameterJdbcTemplate jdbc,
+                           CatalogoEquipamentos catalogo,
+                           PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.catalogo = catalogo;
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+
+    // === Consulta (painel) ==================================================
+    // Custo proporcional ao tamanho do período pedido, não ao histórico de reservas
+    public List<UsoEquipamento> consultar(Granularidade granularidade, String equipamento, LocalDate de, LocalDate ate) {
+        if (ate.isBefore(de)) {
+            throw new IllegalArgumentException("Fim do período deve ser depois do início.");
+        }
+        MapSqlParameterSource p = new MapSqlParameterSource("granularidade", granularidade.name())
+                .addValue("de", Date.valueOf(granularidade.periodo(de.atStartOfDay())))
+                .addValue("ate", Date.valueOf(ate));
+        String sql = CONSULTAR;
+        if (equipamento != null && !equipamento.isBlank()) {
+            sql += " AND u.equipamento_id = :equipamento";
+            p.addValue("equipamento", catalogo.buscar(equipamento).getId());
+        }
+        return jdbc.query(sql + " ORDER BY e.nome, u.periodo", p, (rs, i) -> new UsoEquipamento(
+                rs.getString("equipamento"),
+                rs.getDate("periodo").toLocalDate(),
+                rs.getLong("minutos_reservados"),
+                rs.getInt("reservas"),
+                rs.getInt("cancelamentos"),
+                rs.getInt("alunos")));
+    }
+
+    // === Manutenção incremental =============================================
+    // Antes do commit, na transação de quem publicou: se a atualização falhar, a escrita
+    // na reserva volta junto. Sem transação (não acontece hoje) aplica direto.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void aoAlterarReserva(ReservaAlteradaEvent e) {
+        Map<Chave, Incremento> incrementos = incrementos(e);
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        reconstrucao.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                aplicar(incrementos);
+            } finally {
+                reconstrucao.readLock().unlock();
+            }
+            return;
+        }
+        // solta no fim do commit/rollback: a reconstrução não começa com incremento pendente
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                reconstrucao.readLock().unlock();
+            }
+        });
+        aplicar(incrementos);
+    }
+
+    private record Chave(Granularidade granularidade, Integer equipamentoId, LocalDate periodo) {
+    }
+
+    // Ordem fixa das linhas tocadas: duas transações nunca travam as mesmas linhas em ordem inversa
+    private static final Comparator<Chave> ORDEM = Comparator.comparing(Chave::granularidade)
+            .thenComparing(Chave::equipamentoId)
+            .thenComparing(Chave::periodo);
+
+    private static final class Incremento {
+        long minutos;
+        int reservas;
+        int cancelamentos;
+        final Map<Long, Integer> porAluno = new HashMap<>();
+
+        boolean vazio() {
+            return minutos == 0 && reservas == 0 && cancelamentos == 0
+                    && porAluno.values().stream().allMatch(n -> n == 0);
+        }
+    }
+
+    private static Map<Chave, Incremento> incrementos(ReservaAlteradaEvent e) {
+        Map<Chave, Incremento> incrementos = new TreeMap<>(ORDEM);
+        switch (e.tipo()) {
+            case CRIADA -> contar(incrementos, e.equipamentoId(), e.inicio(), e.fim(), e.titularId(), 1);
+            case EDITADA -> {
+                contar(incrementos, e.equipamentoAnteriorId(), e.inicioAnterior(), e.fimAnterior(), e.titularId(), -1);
+                contar(incrementos, e.equipamentoId(), e.inicio(), e.fim(), e.titularId(), 1);
+            }
+            case CANCELADA -> {
+                contar(incrementos, e.equipamentoId(), e.inicio(), e.fim(), e.titularId(), -1);
+                for (Granularidade g : Granularidade.values()) {
+                    incrementos.get(new Chave(g, e.equipamentoId(), g.periodo(e.inicio()))).cancelamentos++;
+                }
+            }
+            case SUPLENTE_INCLUIDO -> {
+                // suplente não conta como uso
+            }
+        }
+        // edição dentro do mesmo dia/semana e equipamento: só os minutos mudam
+        incrementos.values().removeIf(Incremento::vazio);
+        return incrementos;
+    }
+
+    private static void contar(Map<Chave, Incremento> incrementos, Integer equipamentoId, LocalDateTime inicio,
+                               LocalDateTime fim, Long titularId, int sinal) {
+        long minutos = Duration.between(inicio, fim).toMinutes();
+        for (Granularidade g : Granularidade.values()) {
+            Incremento inc = incrementos.computeIfAbsent(new Chave(g, equipamentoId, g.periodo(inicio)), k -> new Incremento());
+            inc.minutos += sinal * minutos;
+            inc.reservas += sinal;
+            inc.porAluno.merge(titularId, sinal, Integer::sum);
+        }
+    }
+
+    private void aplicar(Map<Chave, Incremento> incrementos) {
+        incrementos.forEach((chave, inc) -> {
+            int alunos = 0;
+            for (Map.Entry<Long, Integer> a : inc.porAluno.entrySet()) {
+                if (a.getValue() != 0) {
+                    alunos += aplicarAluno(chave, a.getKey(), a.getValue());
+                }
+            }
+            somar(SOMAR, INSERIR, parametros(chave)
+                    .addValue("minutos", inc.minutos)
+                    .addValue("reservas", inc.reservas)
+                    .addValue("cancelamentos", inc.cancelamentos)
+                    .addValue("alunos", alunos));
+        });
+    }
+
+    // Devolve +1 se o aluno passou a ter reserva no período, -1 se deixou de ter
+    private int aplicarAluno(Chave chave, Long alunoId, int reservas) {
+        MapSqlParameterSource p = parametros(chave).addValue("aluno", alunoId).addValue("reservas", reservas);
+        if (reservas > 0) {
+            return somar(SOMAR_ALUNO, INSERIR_ALUNO, p) ? 1 : 0;
+        }
+        if (jdbc.update(SOMAR_ALUNO, p) > 0) {
+            return 0;
+        }
+        return jdbc.update(APAGAR_ALUNO, p) > 0 ? -1 : 0;
+    }
+
+    // UPDATE e, se a linha ainda não existe, INSERT. Perdeu a corrida do INSERT para outra
+    // transação (mesma chave): a linha agora existe, volta ao UPDATE. Devolve se inseriu
+    private boolean somar(String atualizar, String inserir, MapSqlParameterSource p) {
+        for (int tentativa = 1; ; tentativa++) {
+            if (jdbc.update(atualizar, p) > 0) {
+                return false;
+            }
+            try {
+                jdbc.update(inserir, p);
+                return true;
+            } catch (DuplicateKeyException e) {
+                if (tentativa == 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static MapSqlParameterSource parametros(Chave chave) {
+        return new MapSqlParameterSource("granularidade", chave.granularidade().name())
+                .addValue("equipamento", chave.equipamentoId())
+                .addValue("periodo", Date.valueOf(chave.periodo()));
+    }
+
+    // === Reconstrução =======================================================
+    // Apaga e recalcula tudo numa transação; incrementos de agendamentos concorrentes esperam
+    // o fim (trava de escrita). Devolve quantas linhas (equipamento x período) foram geradas
+    public int reconstruir() {
+        long t0 = System.nanoTime();
+        reconstrucao.writeLock().lock();
+        try {
+            Integer linhas = transacao.execute(tx -> {
+                MapSqlParameterSource vazio = new MapSqlParameterSource();
+                jdbc.update("DELETE FROM uso_equipamento_aluno", vazio);
+                jdbc.update("DELETE FROM uso_equipamento", vazio);
+                int n = 0;
+                for (Granularidade g : Granularidade.values()) {
+                    String historico = HISTORICO.formatted(g.periodoSql());
+                    n += jdbc.update(RECONSTRUIR.formatted(g.name(), historico), vazio);
+                    jdbc.update(RECONSTRUIR_ALUNO.formatted(g.name(), historico), vazio);
+                }
+                return n;
+            });
+            log.info("Uso por equipamento reconstruído: {} linha(s) em {} ms", linhas,
+                    Duration.ofNanos(System.nanoTime() - t0).toMillis());
+            return linhas == null ? 0 : linhas;
+        } finally {
+            reconstrucao.writeLock().unlock();
+        }
+    }
+
+    public static Granularidade granularidade(String valor) {
+        try {
+            return Granularidade.valueOf(valor.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularidade deve ser dia ou semana.");
+        }
+    }
+}
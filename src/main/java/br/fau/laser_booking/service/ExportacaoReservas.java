@@ -0,0 +1,208 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.ReservaExportada;
+import br.fau.laser_booking.repository.ReservaArquivadaRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Exporta reservas (e opcionalmente o histórico arquivado) para relatórios de uso do laboratório.
+// Cursor só de ida sobre uma projeção (sem entidades no contexto de persistência) escrito direto
+// na resposta: memória constante, não importa quantas linhas.
+// Transação somente leitura numa conexão do pool: não trava as escritas de agendamento (MVCC);
+// o limite de exportações simultâneas impede que relatórios ocupem o pool JDBC.
+// Com o histórico, são dois cursores (reserva, depois reserva_arquivo): a vaga segura o
+// ArquivamentoReservas até o fim, senão uma reserva movida entre os dois sairia duplicada.
+@Component
+public class ExportacaoReservas {
+
+    public enum Formato {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+    }
+
+    private static final String CABECALHO_CSV =
+            "id,titular_id,titular_nome,suplente_id,equipamento,inicio,fim,duracao_minutos,status,criado_em,atualizado_em,arquivada";
+
+    private final ReservaRepository reservaRepository;
+    private final ReservaArquivadaRepository reservaArquivadaRepository;
+    private final ArquivamentoReservas arquivamento;
+    private final ObjectMapper json;
+    private final TransactionTemplate leitura;
+    private final Semaphore simultaneas;
+    private final Counter linhas;
+
+    public ExportacaoReservas(ReservaRepository reservaRepository,
+                              ReservaArquivadaRepository reservaArquivadaRepository,
+                              ArquivamentoReservas arquivamento,
+                              ObjectMapper json,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry registry,
+                              @Value("${laserbooking.exportacao.simultaneas:1}") int simultaneas) {
+        this.reservaRepository = reservaRepository;
+        this.reservaArquivadaRepository = reservaArquivadaRepository;
+        this.arquivamento = arquivamento;
+        this.json = json;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.simultaneas = new Semaphore(simultaneas);
+        this.linhas = Counter.builder("laserbooking.exportacao.linhas")
+                .description("Reservas escritas em exportações")
+                .register(registry);
+    }
+
+    // Reserva uma vaga antes de começar a resposta (o controller ainda pode devolver 409);
+    // a vaga é liberada quando a escrita termina, com sucesso ou não, ou por liberar() se a
+    // escrita nunca chegar a rodar (cliente desistiu, timeout do request assíncrono)
+    public Exportacao iniciar(Formato formato, LocalDateTime de, LocalDateTime ate, boolean incluirArquivo) {
+        if (!ate.isAfter(de)) {
+            throw new IllegalArgumentException("Fim do período deve ser depois do início.");
+        }
+        if (!simultaneas.tryAcquire()) {
+            throw new IllegalStateException("Já existe uma exportação em andamento; tente mais tarde.");
+        }
+        long historico = incluirArquivo ? arquivamento.bloquearHistorico() : 0;
+        return new Exportacao(formato, de, ate, incluirArquivo, historico);
+    }
+
+    public final class Exportacao {
+
+        private final Formato formato;
+        private final LocalDateTime de;
+        private final LocalDateTime ate;
+        private final boolean incluirArquivo;
+        // carimbo do bloqueio do arquivamento (0 = sem histórico, nada bloqueado)
+        private final long historico;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        private Exportacao(Formato formato, LocalDateTime de, LocalDateTime ate, boolean incluirArquivo, long historico) {
+            this.formato = formato;
+            this.de = de;
+            this.ate = ate;
+            this.incluirArquivo = incluirArquivo;
+            this.historico = historico;
+        }
+
+        // Idempotente: o fim da escrita e o fim do request podem chamar os dois
+        public void liberar() {
+            if (liberada.compareAndSet(false, true)) {
+                if (historico != 0) {
+                    arquivamento.desbloquearHistorico(historico);
+                }
+                simultaneas.release();
+            }
+        }
+
+        // Devolve quantas linhas foram escritas
+        public long escrever(OutputStream saida) throws IOException {
+            if (liberada.get()) {
+                // a vaga já voltou (request encerrado): não abre um cursor fora do limite
+                throw new IOException("Exportação abandonada antes de começar a escrita.");
+            }
+            try {
+                Writer out = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+                if (formato == Formato.CSV) {
+                    out.write(CABECALHO_CSV);
+                    out.write('\n');
+                }
+                Long total = leitura.execute(tx -> {
+                    long n = escreverTodas(reservaRepository.streamParaExportacao(de, ate), out);
+                    if (incluirArquivo) {
+                        n += escreverTodas(reservaArquivadaRepository.streamParaExportacao(de, ate), out);
+                    }
+                    return n;
+                });
+                out.flush();
+                return total == null ? 0 : total;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                liberar();
+            }
+        }
+
+        private long escreverTodas(Stream<ReservaExportada> reservas, Writer out) {
+            long n = 0;
+            // fechar o stream fecha o cursor JDBC
+            try (reservas) {
+                for (var it = reservas.iterator(); it.hasNext(); ) {
+                    ReservaExportada r = it.next();
+                    if (formato == Formato.CSV) {
+                        escreverCsv(r, out);
+                    } else {
+                        out.write(json.writeValueAsString(r));
+                    }
+                    out.write('\n');
+                    n++;
+                }
+            } catch (IOException e) {
+                // cliente desconectou: sai do cursor e libera a conexão
+                throw new UncheckedIOException(e);
+            }
+            linhas.increment(n);
+            return n;
+        }
+    }
+
+    private static void escreverCsv(ReservaExportada r, Writer out) throws IOException {
+        out.write(String.valueOf(r.id()));
+        out.write(',');
+        out.write(String.valueOf(r.titularId()));
+        out.write(',');
+        out.write(csv(r.titularNome()));
+        out.write(',');
+        out.write(r.suplenteId() == null ? "" : String.valueOf(r.suplenteId()));
+        out.write(',');
+        out.write(csv(r.equipamento()));
+        out.write(',');
+        out.write(String.valueOf(r.inicio()));
+        out.write(',');
+        out.write(String.valueOf(r.fim()));
+        out.write(',');
+        out.write(String.valueOf(r.duracaoMinutos()));
+        out.write(',');
+        out.write(r.status().name());
+        out.write(',');
+        out.write(r.criadoEm() == null ? "" : r.criadoEm().toString());
+        out.write(',');
+        out.write(r.atualizadoEm() == null ? "" : r.atualizadoEm().toString());
+        out.write(',');
+        out.write(String.valueOf(r.arquivada()));
+    }
+
+    // RFC 4180: aspas só quando o valor tem separador, aspas ou quebra de linha
+    static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,291 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.config.AsyncConfig;
+import br.fau.laser_booking.dto.PedidoEsperaResumo;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Equipamento;
+import br.fau.laser_booking.model.PedidoEspera;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.PedidoEsperaRepository;
+import br.fau.laser_booking.repository.PedidosPorEquipamento;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fila de espera por horário ocupado. O aluno pede (equipamento, início, fim); quando uma
+// reserva que cobre a janela é cancelada ou movida, o alocador agenda os pedidos daquela janela
+// em ordem de prioridade: uma alocação por vaga liberada, em vez de todo mundo repetindo o POST
+// de agendamento até acertar.
+// Prioridade vem das regras vigentes (RegrasPrioridade): só concorre quem pode agendar o horário
+// agora, e passa na frente quem as regras deixam reservar com mais antecedência naquele dia
+// (ex.: TFG na segunda antes do "todos, menos de 24h"); empate, ordem de chegada.
+// A alocação roda num pool próprio e pequeno, fora da thread de quem cancelou, sob a mesma trava
+// e transação do agendar; a reserva criada gera o CRIADA normal (SSE avisa o aluno).
+// Pool separado da entrega de SSE: clientes lentos não atrasam a realocação da vaga.
+// Contagem em memória dos pedidos aguardando por equipamento: cancelamento em equipamento
+// sem fila não agenda tarefa nem consulta o banco.
+@Component
+public class FilaEspera {
+
+    private static final Logger log = LoggerFactory.getLogger(FilaEspera.class);
+
+    private final PedidoEsperaRepository pedidoEsperaRepository;
+    private final AgendamentoService agendamentoService;
+    private final RegrasPrioridade regrasPrioridade;
+    private final CatalogoEquipamentos catalogo;
+    private final TravasPorEquipamento travas;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transacao;
+    private final MeterRegistry registry;
+    private final Clock clock;
+    private final int maximoPorAluno;
+    // Só cresce depois do commit de um pedido novo e só diminui depois do commit da saída dele
+    // (atendido, desistência, expiração): nunca fica abaixo do real; acima custa só uma consulta
+    private final ConcurrentHashMap<Integer, AtomicInteger> aguardando = new ConcurrentHashMap<>();
+
+    public FilaEspera(PedidoEsperaRepository pedidoEsperaRepository,
+                      AgendamentoService agendamentoService,
+                      RegrasPrioridade regrasPrioridade,
+                      CatalogoEquipamentos catalogo,
+                      TravasPorEquipamento travas,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry registry,
+                      Clock clock,
+                      @Value("${laserbooking.fila-espera.maximo-por-aluno:5}") int maximoPorAluno,
+                      @Value("${laserbooking.fila-espera.threads:2}") int threads,
+                      @Value("${laserbooking.fila-espera.fila-alocacoes:100}") int filaAlocacoes) {
+        this.pedidoEsperaRepository = pedidoEsperaRepository;
+        this.agendamentoService = agendamentoService;
+        this.regrasPrioridade = regrasPrioridade;
+        this.catalogo = catalogo;
+        this.travas = travas;
+        this.executor = AsyncConfig.poolDedicado("fila-espera-", threads, filaAlocacoes);
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.registry = registry;
+        this.clock = clock;
+        this.maximoPorAluno = maximoPorAluno;
+        for (PedidosPorEquipamento c : pedidoEsperaRepository.contarPorEquipamento(PedidoEspera.Status.AGUARDANDO)) {
+            aguardando.put(c.equipamentoId(), new AtomicInteger((int) c.pedidos()));
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+    }
+
+    private record Entrada(PedidoEspera pedido, boolean novo) {
+    }
+
+    // === Pedidos do aluno ===================================================
+    // Mesma janela de novo devolve o pedido que já está na fila
+    public PedidoEsperaResumo entrar(Aluno aluno, LocalDateTime inicio, LocalDateTime fim, String equipamento) {
+        if (aluno == null || aluno.getId() == null) {
+            throw new IllegalArgumentException("Aluno inválido.");
+        }
+        LocalDateTime agora = LocalDateTime.now(clock);
+        Equipamento eq = agendamentoService.validarNovoHorario(inicio, fim, equipamento, agora);
+
+        Entrada entrada = transacao.execute(tx -> pedidoEsperaRepository
+                .findFirstByAlunoIdAndEquipamentoIdAndInicioAndFimAndStatus(
+                        aluno.getId(), eq.getId(), inicio, fim, PedidoEspera.Status.AGUARDANDO)
+                .map(p -> new Entrada(p, false))
+                .orElseGet(() -> {
+                    if (pedidoEsperaRepository.countByAlunoIdAndStatus(aluno.getId(), PedidoEspera.Status.AGUARDANDO) >= maximoPorAluno) {
+                        throw new IllegalStateException("Limite de " + maximoPorAluno + " pedidos na fila de espera.");
+                    }
+                    return new Entrada(pedidoEsperaRepository.save(new PedidoEspera(aluno, eq, inicio, fim, agora)), true);
+                }));
+
+        if (entrada.novo()) {
+            aguardando.computeIfAbsent(eq.getId(), k -> new AtomicInteger()).incrementAndGet();
+            // a vaga pode ter sido liberada entre o 409 do agendar e este pedido
+            agendarAlocacao(eq.getId(), inicio, fim);
+        }
+        return PedidoEsperaResumo.de(entrada.pedido(), eq.getNome());
+    }
+
+    public void desistir(Aluno aluno, Long pedidoId) {
+        Integer equipamentoId = transacao.execute(tx -> {
+            PedidoEspera p = pedidoEsperaRepository.findById(pedidoId)
+                    .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado."));
+            if (!Objects.equals(p.getAluno().getId(), aluno.getId())) {
+                throw new PermissaoNegadaException("Você não pode desistir desse pedido.");
+            }
+            if (p.getStatus() != PedidoEspera.Status.AGUARDANDO) {
+                throw new IllegalStateException("Apenas pedidos aguardando podem ser retirados da fila.");
+            }
+            p.desistir(LocalDateTime.now(clock));
+            return p.getEquipamento().getId();
+        });
+        saiuDaFila(equipamentoId);
+    }
+
+    private void saiuDaFila(Integer equipamentoId) {
+        AtomicInteger n = aguardando.get(equipamentoId);
+        if (n != null) {
+            n.decrementAndGet();
+        }
+    }
+
+    private boolean temPedidos(Integer equipamentoId) {
+        AtomicInteger n = aguardando.get(equipamentoId);
+        return n != null && n.get() > 0;
+    }
+
+    // Pedidos cuja janela ainda não terminou (aguardando, atendidos, retirados)
+    public List<PedidoEsperaResumo> listar(Aluno aluno) {
+        return pedidoEsperaRepository.findByAlunoIdAndFimAfterOrderByInicioAsc(aluno.getId(), LocalDateTime.now(clock))
+                .stream()
+                .map(p -> PedidoEsperaResumo.de(p, catalogo.nome(p.getEquipamento().getId())))
+                .toList();
+    }
+
+    // === Alocação ===========================================================
+    // Depois do commit e do IndiceOcupacao (Order 0): a vaga já aparece livre para o alocador
+    @Order(3)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarReserva(ReservaAlteradaEvent e) {
+        switch (e.tipo()) {
+            case CANCELADA -> agendarAlocacao(e.equipamentoId(), e.inicio(), e.fim());
+            case EDITADA -> agendarAlocacao(e.equipamentoAnteriorId(), e.inicioAnterior(), e.fimAnterior());
+            default -> {
+            }
+        }
+    }
+
+    private void agendarAlocacao(Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim) {
+        if (!temPedidos(equipamentoId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    alocar(equipamentoId, inicio, fim);
+                } catch (RuntimeException ex) {
+                    log.warn("Falha ao alocar vaga da fila de espera (equipamento {}, {} - {})",
+                            equipamentoId, inicio, fim, ex);
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            // pedidos continuam aguardando: a próxima vaga liberada na janela tenta de novo
+            log.warn("Alocação da fila de espera recusada pelo executor: {}", ex.toString());
+        }
+    }
+
+    // Tenta atender os pedidos que se sobrepõem à janela liberada, do mais prioritário ao menos;
+    // uma janela grande pode atender vários pedidos menores. Devolve quantos foram atendidos
+    public int alocar(Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim) {
+        Equipamento eq = catalogo.porId(equipamentoId);
+        if (eq == null || !eq.isAtivo()) {
+            return 0;
+        }
+        LocalDateTime agora = LocalDateTime.now(clock);
+        Set<Long> tentados = new HashSet<>();
+        int atendidos = 0;
+        Tentativa t;
+        while ((t = atenderProximo(eq, inicio, fim, agora, tentados)) != null) {
+            tentados.add(t.pedidoId());
+            contar(t.resultado());
+            if (t.atendido()) {
+                saiuDaFila(eq.getId());
+                atendidos++;
+            }
+        }
+        return atendidos;
+    }
+
+    private record Tentativa(Long pedidoId, String resultado) {
+        boolean atendido() {
+            return "atendido".equals(resultado);
+        }
+    }
+
+    // Escolha e reserva na mesma transação, sob a trava do equipamento: a fila é relida a cada
+    // vaga, então um pedido mais prioritário que entrou depois desta tarefa ser agendada não
+    // perde a vez para uma lista de candidatos velha. null = nenhum candidato a tentar
+    private Tentativa atenderProximo(Equipamento eq, LocalDateTime inicio, LocalDateTime fim,
+                                     LocalDateTime agora, Set<Long> tentados) {
+        return travas.executar(eq.getId(), () -> transacao.execute(tx -> {
+            PedidoEspera p = proximoDaFila(eq.getId(), inicio, fim, agora, tentados);
+            if (p == null) {
+                return null;
+            }
+            try {
+                Reserva r = agendamentoService.criar(p.getAluno(), p.getInicio(), p.getFim(), eq, agora);
+                p.atender(r.getId(), agora);
+                return new Tentativa(p.getId(), "atendido");
+            } catch (ConflitoHorarioException e) {
+                // janela ainda ocupada em parte (ou já atendida para outro pedido): continua esperando
+                tx.setRollbackOnly();
+                return new Tentativa(p.getId(), "ocupado");
+            } catch (PermissaoNegadaException e) {
+                tx.setRollbackOnly();
+                return new Tentativa(p.getId(), "sem_permissao");
+            }
+        }));
+    }
+
+    private PedidoEspera proximoDaFila(Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim,
+                                       LocalDateTime agora, Set<Long> tentados) {
+        // mesma versão das regras para filtrar e ordenar
+        TabelaPrioridade regras = regrasPrioridade.tabela();
+        return pedidoEsperaRepository.findCandidatos(equipamentoId, PedidoEspera.Status.AGUARDANDO, fim, inicio, agora)
+                .stream()
+                .filter(p -> !tentados.contains(p.getId()))
+                .filter(p -> regras.permite(p.getAluno(), p.getInicio(), agora))
+                .min(Comparator.comparingLong((PedidoEspera p) -> regras.antecedenciaMaxima(p.getAluno(), p.getInicio()))
+                        .reversed()
+                        .thenComparing(PedidoEspera::getCriadoEm)
+                        .thenComparing(PedidoEspera::getId))
+                .orElse(null);
+    }
+
+    private void contar(String resultado) {
+        registry.counter("laserbooking.fila_espera.alocacoes", "resultado", resultado).increment();
+    }
+
+    // === Expiração ==========================================================
+    @Scheduled(initialDelayString = "${laserbooking.fila-espera.atraso-inicial:PT1M}",
+               fixedDelayString = "${laserbooking.fila-espera.intervalo-expiracao:PT15M}")
+    public void executar() {
+        expirarIniciadosAte(LocalDateTime.now(clock));
+    }
+
+    // Devolve quantos pedidos expiraram
+    public int expirarIniciadosAte(LocalDateTime agora) {
+        List<Integer> equipamentos = transacao.execute(tx -> pedidoEsperaRepository
+                .findByStatusAndInicioLessThanEqual(PedidoEspera.Status.AGUARDANDO, agora).stream()
+                .map(p -> {
+                    p.expirar(agora);
+                    return p.getEquipamento().getId();
+                })
+                .toList());
+        if (equipamentos == null || equipamentos.isEmpty()) {
+            return 0;
+        }
+        equipamentos.forEach(this::saiuDaFila);
+        log.info("Fila de espera: {} pedido(s) expirado(s)", equipamentos.size());
+        return equipamentos.size();
+    }
+}
@@ -0,0 +1,81 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.ReservaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Passa para FINALIZADA as reservas ATIVAS que já terminaram.
+// Lotes de ids + UPDATE em conjunto, cada lote na sua transação curta: não carrega
+// entidades nem segura lock de milhares de linhas de uma vez, e o status = ATIVA
+// das consultas de conflito fica restrito ao que ainda está por vir.
+@Component
+public class FinalizacaoReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(FinalizacaoReservas.class);
+
+    private final ReservaRepository reservaRepository;
+    private final IndiceOcupacao indiceOcupacao;
+    private final TransactionTemplate transacao;
+    private final Clock clock;
+    private final Counter finalizadas;
+    private final int tamanhoLote;
+
+    public FinalizacaoReservas(ReservaRepository reservaRepository,
+                               IndiceOcupacao indiceOcupacao,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry,
+                               Clock clock,
+                               @Value("${laserbooking.finalizacao.lote:500}") int tamanhoLote) {
+        this.reservaRepository = reservaRepository;
+        this.indiceOcupacao = indiceOcupacao;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.finalizadas = Counter.builder("laserbooking.finalizacao.reservas")
+                .description("Reservas passadas para FINALIZADA pelo job")
+                .register(registry);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Scheduled(initialDelayString = "${laserbooking.finalizacao.atraso-inicial:PT1M}",
+               fixedDelayString = "${laserbooking.finalizacao.intervalo:PT5M}")
+    public void executar() {
+        finalizarEncerradasAte(LocalDateTime.now(clock));
+    }
+
+    // Devolve quantas reservas foram finalizadas
+    public int finalizarEncerradasAte(LocalDateTime agora) {
+        int total = 0;
+        while (true) {
+            Integer n = transacao.execute(tx -> {
+                List<Long> ids = reservaRepository.findIdsPorStatusEncerradasAte(
+                        Reserva.Status.ATIVA, agora, Limit.of(tamanhoLote));
+                return ids.isEmpty() ? 0 : reservaRepository.alterarStatus(
+                        ids, Reserva.Status.ATIVA, Reserva.Status.FINALIZADA, agora);
+            });
+            if (n == null || n == 0) {
+                break;
+            }
+            total += n;
+            finalizadas.increment(n);
+        }
+
+        int descartadas = indiceOcupacao.descartarEncerradas(agora);
+        if (total > 0) {
+            log.info("Finalização: {} reserva(s) passaram para FINALIZADA; {} removida(s) do índice", total, descartadas);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,262 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.IntervaloReserva;
+import br.fau.laser_booking.repository.ReservaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Índice em memória das reservas ATIVAS por equipamento (chave: id do equipamento).
+// Como reservas ativas do mesmo equipamento nunca se sobrepõem, basta um mapa
+// ordenado por início: a única candidata a conflito com [inicio, fim) é a
+// reserva de maior início < fim -> O(log n) por consulta, sem ida ao banco.
+// O banco só é consultado no warm-up e quando um equipamento ainda não foi carregado.
+@Component
+public class IndiceOcupacao {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceOcupacao.class);
+
+    private final ReservaRepository reservaRepository;
+    private final Clock clock;
+    private final ConcurrentHashMap<Integer, Agenda> agendas = new ConcurrentHashMap<>();
+
+    public IndiceOcupacao(ReservaRepository reservaRepository, Clock clock) {
+        this.reservaRepository = reservaRepository;
+        this.clock = clock;
+    }
+
+    // === Consulta ==========================================================
+    public boolean haConflito(Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim) {
+        return haConflito(equipamentoId, inicio, fim, null);
+    }
+
+    // Mesmo que o de cima, mas IGNORANDO a própria reserva (para edição)
+    public boolean haConflito(Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim, Long idIgnorado) {
+        return agenda(equipamentoId).sobrepoe(inicio, fim, idIgnorado);
+    }
+
+    // Reservas ativas que encostam em [de, ate), ordenadas por início
+    public List<IntervaloReserva> intervalosEntre(Integer equipamentoId, LocalDateTime de, LocalDateTime ate) {
+        return agenda(equipamentoId).entre(de, ate);
+    }
+
+    // === Sincronização com ReservaRepository ================================
+    // Roda depois do commit: o índice nunca enxerga escrita que sofreu rollback.
+    // A escrita na agenda espera um carregamento em andamento do mesmo equipamento
+    // (write lock), então o evento é sempre aplicado por cima do que veio do banco.
+    // Order: roda antes de quem deriva dados do índice (ex.: MapaOcupacao)
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarReserva(ReservaAlteradaEvent e) {
+        if (e.mantemHorario()) {
+            return;
+        }
+        Agenda agenda = agendas.get(e.equipamentoId());
+        if (agenda != null) {
+            agenda.remover(e.reservaId());
+            if (e.status() == Reserva.Status.ATIVA) {
+                agenda.adicionar(new IntervaloReserva(e.reservaId(), e.equipamentoId(), e.inicio(), e.fim()));
+            }
+        }
+        // reserva pode ter mudado de equipamento na edição
+        if (!e.equipamentoId().equals(e.equipamentoAnteriorId())) {
+            Agenda anterior = agendas.get(e.equipamentoAnteriorId());
+            if (anterior != null) {
+                anterior.remover(e.reservaId());
+            }
+        }
+    }
+
+    // === Warm-up ============================================================
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        Map<Integer, List<IntervaloReserva>> ativas = reservaRepository
+                .findIntervalosPorStatusEFimApos(Reserva.Status.ATIVA, LocalDateTime.now(clock))
+                .stream()
+                .collect(Collectors.groupingBy(IntervaloReserva::equipamentoId));
+
+        ativas.forEach((equipamento, intervalos) -> agendas.putIfAbsent(equipamento, new Agenda(intervalos)));
+        log.info("Índice de ocupação carregado: {} equipamento(s), {} reserva(s) ativa(s)",
+                ativas.size(), ativas.values().stream().mapToInt(List::size).sum());
+    }
+
+    // Tira das agendas as reservas que terminaram até "ate" (job de finalização:
+    // o UPDATE em conjunto não publica evento por reserva)
+    public int descartarEncerradas(LocalDateTime ate) {
+        int descartadas = 0;
+        for (Agenda agenda : agendas.values()) {
+            descartadas += agenda.descartarEncerradas(ate);
+        }
+        return descartadas;
+    }
+
+    // Esquece tudo; o próximo acesso a cada equipamento recarrega do banco
+    public void invalidar() {
+        agendas.clear();
+    }
+
+    // Garante a agenda do equipamento em memória, sem devolvê-la (ex.: antes de
+    // montar derivados dentro de um compute de outro ConcurrentHashMap)
+    void carregar(Integer equipamentoId) {
+        agenda(equipamentoId);
+    }
+
+    // A consulta ao banco roda FORA do computeIfAbsent: o bin do ConcurrentHashMap
+    // é um monitor (synchronized), e I/O ali prende a carrier thread com virtual threads.
+    // A carga fica sob o write lock da própria agenda (ReentrantReadWriteLock não prende).
+    private Agenda agenda(Integer equipamentoId) {
+        Agenda agenda = agendas.computeIfAbsent(equipamentoId, eq -> new Agenda());
+        agenda.carregarSeNecessario(() -> reservaRepository
+                .findIntervalosDoEquipamentoPorStatusEFimApos(equipamentoId, Reserva.Status.ATIVA, LocalDateTime.now(clock)));
+        return agenda;
+    }
+
+    // Reservas ativas de um equipamento, ordenadas por início. A chave leva o id para desempatar:
+    // duas ativas com o mesmo início (dado antigo, inserção direta no banco) não se sobrescrevem
+    static final class Agenda {
+
+        private record Chave(LocalDateTime inicio, long id) implements Comparable<Chave> {
+
+            private static final Comparator<Chave> ORDEM =
+                    Comparator.comparing(Chave::inicio).thenComparingLong(Chave::id);
+
+            static Chave de(IntervaloReserva intervalo) {
+                return new Chave(intervalo.inicio(), intervalo.id());
+            }
+
+            // antes de qualquer reserva que comece em "inicio"
+            static Chave antesDe(LocalDateTime inicio) {
+                return new Chave(inicio, Long.MIN_VALUE);
+            }
+
+            @Override
+            public int compareTo(Chave outra) {
+                return ORDEM.compare(this, outra);
+            }
+        }
+
+        private final NavigableMap<Chave, IntervaloReserva> porInicio = new TreeMap<>();
+        private final Map<Long, IntervaloReserva> porId = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean carregada;
+
+        Agenda() {
+        }
+
+        Agenda(List<IntervaloReserva> intervalos) {
+            intervalos.forEach(this::adicionar);
+            carregada = true;
+        }
+
+        // Eventos que chegam antes da carga já estão commitados, logo a consulta
+        // também os enxerga; adicionar() por id deixa a agenda igual nos dois casos
+        void carregarSeNecessario(Supplier<List<IntervaloReserva>> banco) {
+            if (carregada) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (!carregada) {
+                    banco.get().forEach(this::adicionar);
+                    carregada = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean sobrepoe(LocalDateTime inicio, LocalDateTime fim, Long idIgnorado) {
+            lock.readLock().lock();
+            try {
+                Map.Entry<Chave, IntervaloReserva> e = porInicio.lowerEntry(Chave.antesDe(fim));
+                while (e != null && e.getValue().id().equals(idIgnorado)) {
+                    e = porInicio.lowerEntry(e.getKey());
+                }
+                return e != null && e.getValue().fim().isAfter(inicio);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<IntervaloReserva> entre(LocalDateTime de, LocalDateTime ate) {
+            lock.readLock().lock();
+            try {
+                // as que começam no último início até "de" podem atravessar o início da janela
+                Chave anterior = porInicio.floorKey(new Chave(de, Long.MAX_VALUE));
+                Chave desde = Chave.antesDe(anterior != null ? anterior.inicio() : de);
+                List<IntervaloReserva> resultado = new ArrayList<>();
+                for (IntervaloReserva intervalo : porInicio.subMap(desde, true, Chave.antesDe(ate), false).values()) {
+                    if (intervalo.sobrepoe(de, ate)) {
+                        resultado.add(intervalo);
+                    }
+                }
+                return resultado;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void adicionar(IntervaloReserva intervalo) {
+            lock.writeLock().lock();
+            try {
+                IntervaloReserva antigo = porId.put(intervalo.id(), intervalo);
+                if (antigo != null) {
+                    porInicio.remove(Chave.de(antigo));
+                }
+                porInicio.put(Chave.de(intervalo), intervalo);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int descartarEncerradas(LocalDateTime ate) {
+            lock.writeLock().lock();
+            try {
+                // fim <= ate implica inicio < ate: só o headMap pode ter encerradas
+                int antes = porId.size();
+                porInicio.headMap(Chave.antesDe(ate), false).values().removeIf(intervalo -> {
+                    if (intervalo.fim().isAfter(ate)) {
+                        return false;
+                    }
+                    porId.remove(intervalo.id());
+                    return true;
+                });
+                return antes - porId.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remover(Long id) {
+            lock.writeLock().lock();
+            try {
+                IntervaloReserva antigo = porId.remove(id);
+                if (antigo != null) {
+                    porInicio.remove(Chave.de(antigo));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
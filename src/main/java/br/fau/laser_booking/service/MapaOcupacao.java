@@ -0,0 +1,132 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.FaixaLivre;
+import br.fau.laser_booking.repository.IntervaloReserva;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ocupação de cada equipamento por dia como bitmap: 1 bit por slot de 15 min
+// (96 slots = 2 longs por equipamento/dia). O bitmap é derivado do IndiceOcupacao
+// na primeira consulta do dia e descartado quando uma reserva daquele dia muda,
+// então "o que está livre" vira varredura de bits em vez de consultas ao banco.
+@Component
+public class MapaOcupacao {
+
+    public static final int MINUTOS_SLOT = 15;
+    public static final int SLOTS_DIA = 24 * 60 / MINUTOS_SLOT;
+
+    private final IndiceOcupacao indiceOcupacao;
+    private final int horizonteCacheDias;
+    private final Clock clock;
+    private final ConcurrentHashMap<ChaveDia, long[]> bitmaps = new ConcurrentHashMap<>();
+
+    public MapaOcupacao(IndiceOcupacao indiceOcupacao,
+                        @Value("${laserbooking.disponibilidade.horizonte-cache-dias:60}") int horizonteCacheDias,
+                        Clock clock) {
+        this.indiceOcupacao = indiceOcupacao;
+        this.horizonteCacheDias = horizonteCacheDias;
+        this.clock = clock;
+    }
+
+    // Faixas livres do dia; slots que já começaram (hoje) contam como ocupados
+    public List<FaixaLivre> faixasLivres(Integer equipamentoId, LocalDate dia) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        BitSet ocupados = BitSet.valueOf(ocupacao(equipamentoId, dia, agora.toLocalDate()));
+        if (!dia.isAfter(agora.toLocalDate())) {
+            int slotsPassados = dia.isBefore(agora.toLocalDate()) ? SLOTS_DIA : slotFinal(agora.toLocalTime());
+            ocupados.set(0, slotsPassados);
+        }
+
+        List<FaixaLivre> livres = new ArrayList<>();
+        LocalDateTime meiaNoite = dia.atStartOfDay();
+        int i = ocupados.nextClearBit(0);
+        while (i < SLOTS_DIA) {
+            int fimLivre = ocupados.nextSetBit(i);
+            if (fimLivre < 0) {
+                fimLivre = SLOTS_DIA;
+            }
+            livres.add(new FaixaLivre(meiaNoite.plusMinutes((long) i * MINUTOS_SLOT),
+                    meiaNoite.plusMinutes((long) fimLivre * MINUTOS_SLOT)));
+            i = ocupados.nextClearBit(fimLivre);
+        }
+        return livres;
+    }
+
+    // Bitmap do dia; só guarda em cache dias dentro do horizonte (hoje .. hoje + N)
+    long[] ocupacao(Integer equipamentoId, LocalDate dia, LocalDate hoje) {
+        if (dia.isBefore(hoje) || dia.isAfter(hoje.plusDays(horizonteCacheDias))) {
+            return montar(equipamentoId, dia);
+        }
+        // agenda já em memória: montar() não faz I/O dentro do compute
+        indiceOcupacao.carregar(equipamentoId);
+        return bitmaps.computeIfAbsent(new ChaveDia(equipamentoId, dia), k -> montar(k.equipamentoId(), k.dia()));
+    }
+
+    // Depois do IndiceOcupacao (Order 0): o próximo montar() já enxerga a alteração
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarReserva(ReservaAlteradaEvent e) {
+        if (e.mantemHorario()) {
+            return;
+        }
+        descartar(e.equipamentoAnteriorId(), e.inicioAnterior(), e.fimAnterior());
+        descartar(e.equipamentoId(), e.inicio(), e.fim());
+    }
+
+    public void invalidar() {
+        bitmaps.clear();
+    }
+
+    private void descartar(Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim) {
+        for (LocalDate dia = inicio.toLocalDate(); dia.atStartOfDay().isBefore(fim); dia = dia.plusDays(1)) {
+            bitmaps.remove(new ChaveDia(equipamentoId, dia));
+        }
+    }
+
+    private long[] montar(Integer equipamentoId, LocalDate dia) {
+        LocalDateTime de = dia.atStartOfDay();
+        LocalDateTime ate = de.plusDays(1);
+        long[] bits = new long[(SLOTS_DIA + 63) / 64];
+        for (IntervaloReserva r : indiceOcupacao.intervalosEntre(equipamentoId, de, ate)) {
+            int primeiro = r.inicio().isBefore(de) ? 0 : slotInicial(r.inicio().toLocalTime());
+            int ultimo = r.fim().isBefore(ate) ? slotFinal(r.fim().toLocalTime()) : SLOTS_DIA;
+            marcar(bits, primeiro, ultimo);
+        }
+        return bits;
+    }
+
+    // Liga os bits [de, ate) palavra a palavra
+    private static void marcar(long[] bits, int de, int ate) {
+        for (int palavra = de >>> 6; palavra < bits.length && palavra << 6 < ate; palavra++) {
+            int base = palavra << 6;
+            int lo = Math.max(de, base) - base;
+            int hi = Math.min(ate, base + 64) - base;
+            long mascara = (hi == 64 ? -1L : (1L << hi) - 1) & (-1L << lo);
+            bits[palavra] |= mascara;
+        }
+    }
+
+    private static int slotInicial(LocalTime hora) {
+        return hora.toSecondOfDay() / (MINUTOS_SLOT * 60);
+    }
+
+    // Slot que contém o último instante antes de "hora", +1 (fim exclusivo)
+    private static int slotFinal(LocalTime hora) {
+        int segundos = hora.toSecondOfDay();
+        return (segundos + MINUTOS_SLOT * 60 - 1) / (MINUTOS_SLOT * 60);
+    }
+
+    private record ChaveDia(Integer equipamentoId, LocalDate dia) {
+    }
+}
@@ -0,0 +1,71 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Equipamento;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+// Timer "laserbooking.agendamento" por operação, equipamento e resultado.
+// A tag equipamento só recebe nomes do CatalogoEquipamentos (ou "desconhecido"): texto da
+// requisição nunca vira tag, senão cada nome inventado criaria uma série nova.
+// Percentis/histograma ficam em application.properties (management.metrics.distribution.*);
+// a contagem do timer por resultado já dá a taxa de conflitos/recusas.
+@Component
+public class MetricasAgendamento {
+
+    public static final String TIMER = "laserbooking.agendamento";
+
+    private final MeterRegistry registry;
+
+    public MetricasAgendamento(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // O equipamento pode ser informado no meio da operação (cancelar só sabe depois do findById)
+    public <T> T medir(String operacao, Function<Medicao, T> acao) {
+        Medicao medicao = new Medicao();
+        Timer.Sample amostra = Timer.start(registry);
+        String resultado = "ok";
+        try {
+            return acao.apply(medicao);
+        } catch (RuntimeException e) {
+            resultado = classificar(e);
+            throw e;
+        } finally {
+            amostra.stop(Timer.builder(TIMER)
+                    .description("Casos de uso de agendamento")
+                    .tag("operacao", operacao)
+                    .tag("equipamento", medicao.equipamento)
+                    .tag("resultado", resultado)
+                    .register(registry));
+        }
+    }
+
+    // Nova tentativa após falha de lock otimista (ver AgendamentoService#comRetentativa)
+    public void retentativa(String operacao) {
+        registry.counter("laserbooking.agendamento.retentativas", "operacao", operacao).increment();
+    }
+
+    static String classificar(RuntimeException e) {
+        if (e instanceof ConflitoHorarioException) return "conflito";
+        if (e instanceof AlteracaoConcorrenteException) return "concorrencia";
+        if (e instanceof PermissaoNegadaException) return "sem_permissao";
+        if (e instanceof IllegalArgumentException) return "invalido";
+        if (e instanceof IllegalStateException) return "recusado";
+        return "erro";
+    }
+
+    public static final class Medicao {
+
+        private String equipamento = "desconhecido";
+
+        // Já resolvido pelo catálogo; null (id fora do catálogo) mantém "desconhecido"
+        public void equipamento(Equipamento equipamento) {
+            if (equipamento != null) {
+                this.equipamento = equipamento.getNome();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package br.fau.laser_booking.service;
+
+// Aluno sem direito à operação: regra de prioridade ou não é o titular
+public class PermissaoNegadaException extends IllegalStateException {
+
+    public PermissaoNegadaException(String mensagem) {
+        super(mensagem);
+    }
+}
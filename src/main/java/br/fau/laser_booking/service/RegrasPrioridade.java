@@ -0,0 +1,43 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.repository.RegraPrioridadeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Regras de prioridade vigentes, lidas de regra_prioridade e compiladas em TabelaPrioridade
+// na subida e a cada recarregar() (POST /api/admin/regras/recarregar): mudar a política do
+// laboratório não exige deploy. Leitores só veem tabelas completas (troca de referência volatile).
+@Component
+public class RegrasPrioridade {
+
+    private static final Logger log = LoggerFactory.getLogger(RegrasPrioridade.class);
+
+    private final RegraPrioridadeRepository regraPrioridadeRepository;
+    private volatile TabelaPrioridade tabela;
+
+    public RegrasPrioridade(RegraPrioridadeRepository regraPrioridadeRepository) {
+        this.regraPrioridadeRepository = regraPrioridadeRepository;
+        recarregar();
+    }
+
+    public boolean permite(Aluno aluno, LocalDateTime inicioSlot, LocalDateTime agora) {
+        return tabela.permite(aluno, inicioSlot, agora);
+    }
+
+    // Para avaliar muitos horários de uma vez com a mesma versão das regras
+    public TabelaPrioridade tabela() {
+        return tabela;
+    }
+
+    // Devolve quantas regras ativas foram compiladas
+    public int recarregar() {
+        TabelaPrioridade nova = TabelaPrioridade.compilar(regraPrioridadeRepository.findByAtivaTrue());
+        tabela = nova;
+        log.info("Regras de prioridade carregadas: {} regra(s) ativa(s)", nova.regras());
+        return nova.regras();
+    }
+}
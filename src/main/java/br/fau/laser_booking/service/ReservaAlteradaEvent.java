@@ -0,0 +1,62 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Equipamento;
+import br.fau.laser_booking.model.Reserva;
+
+import java.time.LocalDateTime;
+
+// Publicado pelo AgendamentoService a cada escrita em Reserva.
+// Carrega só valores (nada de entidade) porque é consumido depois do commit.
+// Os campos *Anterior guardam o horário/equipamento de antes de uma edição
+// (nas demais operações são iguais aos atuais). Equipamento pelo id; o nome
+// para exibir vem do CatalogoEquipamentos.
+public record ReservaAlteradaEvent(Tipo tipo,
+                                   Long reservaId,
+                                   Long titularId,
+                                   Long suplenteId,
+                                   Integer equipamentoId,
+                                   LocalDateTime inicio,
+                                   LocalDateTime fim,
+                                   Reserva.Status status,
+                                   Integer equipamentoAnteriorId,
+                                   LocalDateTime inicioAnterior,
+                                   LocalDateTime fimAnterior) {
+
+    public enum Tipo { CRIADA, EDITADA, CANCELADA, SUPLENTE_INCLUIDO }
+
+    public static ReservaAlteradaEvent de(Tipo tipo, Reserva r) {
+        return de(tipo, r, idDe(r.getEquipamento()), r.getInicio(), r.getFim());
+    }
+
+    // Reserva inserida fora do JPA (lote via JDBC)
+    public static ReservaAlteradaEvent criada(Long reservaId, Long titularId, Integer equipamentoId,
+                                              LocalDateTime inicio, LocalDateTime fim) {
+        return new ReservaAlteradaEvent(Tipo.CRIADA, reservaId, titularId, null, equipamentoId, inicio, fim,
+                Reserva.Status.ATIVA, equipamentoId, inicio, fim);
+    }
+
+    // titular/suplente/equipamento são LAZY: getId() no proxy não dispara consulta
+    public static ReservaAlteradaEvent de(Tipo tipo,
+                                          Reserva r,
+                                          Integer equipamentoAnteriorId,
+                                          LocalDateTime inicioAnterior,
+                                          LocalDateTime fimAnterior) {
+        return new ReservaAlteradaEvent(tipo, r.getId(), idDe(r.getTitular()), idDe(r.getSuplente()),
+                idDe(r.getEquipamento()), r.getInicio(), r.getFim(), r.getStatus(),
+                equipamentoAnteriorId, inicioAnterior, fimAnterior);
+    }
+
+    // O horário ocupado não muda (ex.: inclusão de suplente)
+    public boolean mantemHorario() {
+        return tipo == Tipo.SUPLENTE_INCLUIDO;
+    }
+
+    private static Long idDe(Aluno aluno) {
+        return aluno != null ? aluno.getId() : null;
+    }
+
+    private static Integer idDe(Equipamento equipamento) {
+        return equipamento != null ? equipamento.getId() : null;
+    }
+}
@@ -0,0 +1,131 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.RegraPrioridade;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+// Regras de prioridade compiladas: para cada (dia da semana x tipo x semestre) guarda a
+// MAIOR antecedência permitida, em segundos (regras são "ou": vale a mais generosa).
+// Consulta = uma posição de long[] + aritmética de epoch seconds: O(1), sem alocar.
+// Imutável; recarregar regras = compilar outra e trocar a referência.
+public final class TabelaPrioridade {
+
+    // Semestres 1..SEMESTRE_MAXIMO têm posição própria; 0 = sem semestre, e acima do
+    // máximo todos caem na última posição
+    public static final int SEMESTRE_MAXIMO = 30;
+
+    private static final int DIAS = 7;
+    private static final int TIPOS = Aluno.TipoTrabalho.values().length + 1;   // + "sem tipo"
+    private static final int SEMESTRES = SEMESTRE_MAXIMO + 2;                    // 0 .. máximo+1
+
+    // nenhuma regra casa: nunca permitido
+    private static final long NEGADO = Long.MIN_VALUE;
+    // regra sem limite de antecedência
+    private static final long SEM_LIMITE = Long.MAX_VALUE;
+
+    private final long[] antecedenciaMaximaSegundos;
+    private final int regras;
+
+    private TabelaPrioridade(long[] antecedenciaMaximaSegundos, int regras) {
+        this.antecedenciaMaximaSegundos = antecedenciaMaximaSegundos;
+        this.regras = regras;
+    }
+
+    public static TabelaPrioridade compilar(List<RegraPrioridade> regras) {
+        long[] tabela = new long[DIAS * TIPOS * SEMESTRES];
+        Arrays.fill(tabela, NEGADO);
+        int ativas = 0;
+        for (RegraPrioridade regra : regras) {
+            if (!regra.isAtiva()) {
+                continue;
+            }
+            ativas++;
+            long limite = regra.getAntecedenciaMaximaHoras() == null
+                    ? SEM_LIMITE
+                    : regra.getAntecedenciaMaximaHoras() * 3600L;
+            int dia = regra.getDiaSemana().getValue() - 1;
+            for (int tipo = 0; tipo < TIPOS; tipo++) {
+                if (regra.getTipoTrabalho() != null && tipo != regra.getTipoTrabalho().ordinal()) {
+                    continue;
+                }
+                for (int semestre = 0; semestre < SEMESTRES; semestre++) {
+                    if (!cobreSemestre(regra, semestre)) {
+                        continue;
+                    }
+                    int i = posicao(dia, tipo, semestre);
+                    tabela[i] = Math.max(tabela[i], limite);
+                }
+            }
+        }
+        return new TabelaPrioridade(tabela, ativas);
+    }
+
+    // Regra sem faixa cobre todas as posições, inclusive "sem semestre";
+    // com faixa, só semestres conhecidos dentro dela
+    private static boolean cobreSemestre(RegraPrioridade regra, int posicao) {
+        if (regra.getSemestreMinimo() == null && regra.getSemestreMaximo() == null) {
+            return true;
+        }
+        if (posicao == 0) {
+            return false;
+        }
+        int minimo = regra.getSemestreMinimo() == null ? 1 : regra.getSemestreMinimo();
+        int maximo = regra.getSemestreMaximo() == null ? Integer.MAX_VALUE : regra.getSemestreMaximo();
+        // a última posição representa "acima do máximo": conta se a faixa passa dele
+        return posicao <= SEMESTRE_MAXIMO
+                ? posicao >= minimo && posicao <= maximo
+                : maximo > SEMESTRE_MAXIMO;
+    }
+
+    public boolean permite(Aluno aluno, LocalDateTime inicioSlot, LocalDateTime agora) {
+        return permite(aluno.getTipoTrabalho(), aluno.getSemestre(), inicioSlot, agora);
+    }
+
+    public boolean permite(Aluno.TipoTrabalho tipo, Integer semestre, LocalDateTime inicioSlot, LocalDateTime agora) {
+        long limite = limite(tipo, semestre, inicioSlot);
+        if (limite == NEGADO) {
+            return false;
+        }
+        if (limite == SEM_LIMITE) {
+            return true;
+        }
+        // segundos inteiros até o início, arredondados para baixo (como Duration.toHours() < N)
+        long segundos = inicioSlot.toEpochSecond(ZoneOffset.UTC) - agora.toEpochSecond(ZoneOffset.UTC);
+        if (inicioSlot.getNano() < agora.getNano()) {
+            segundos--;
+        }
+        return segundos < limite;
+    }
+
+    // Antecedência máxima que as regras dão ao aluno no dia do horário: ordem da fila de espera
+    // (maior = mais prioritário; Long.MAX_VALUE sem limite, Long.MIN_VALUE sem regra)
+    public long antecedenciaMaxima(Aluno aluno, LocalDateTime inicioSlot) {
+        return limite(aluno.getTipoTrabalho(), aluno.getSemestre(), inicioSlot);
+    }
+
+    private long limite(Aluno.TipoTrabalho tipo, Integer semestre, LocalDateTime inicioSlot) {
+        return antecedenciaMaximaSegundos[posicao(
+                inicioSlot.getDayOfWeek().getValue() - 1,
+                tipo == null ? TIPOS - 1 : tipo.ordinal(),
+                posicaoSemestre(semestre))];
+    }
+
+    public int regras() {
+        return regras;
+    }
+
+    private static int posicaoSemestre(Integer semestre) {
+        if (semestre == null || semestre < 1) {
+            return 0;
+        }
+        return Math.min(semestre, SEMESTRE_MAXIMO + 1);
+    }
+
+    private static int posicao(int dia, int tipo, int semestre) {
+        return (dia * TIPOS + tipo) * SEMESTRES + semestre;
+    }
+}
@@ -0,0 +1,60 @@
+package br.fau.laser_booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Serializa agendamentos do MESMO equipamento sem travar os demais.
+// Cada equipamento cai numa listra (lock) fixa pelo id: reservas em máquinas
+// diferentes correm em paralelo, reservas na mesma máquina ficam em fila.
+// Ids são sequenciais, então até "listras" equipamentos nunca dividem a mesma trava.
+// A trava precisa envolver a transação inteira (checagem + insert + commit),
+// senão duas requisições passam na checagem antes de qualquer uma commitar.
+@Component
+public class TravasPorEquipamento {
+
+    private final ReentrantLock[] listras;
+
+    public TravasPorEquipamento(@Value("${laserbooking.agendamento.listras-trava:64}") int quantidade) {
+        // potência de 2 para indexar com máscara
+        int n = Integer.highestOneBit(Math.max(1, quantidade - 1)) << 1;
+        this.listras = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            listras[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T executar(Integer equipamentoId, Supplier<T> acao) {
+        ReentrantLock trava = listras[listra(equipamentoId)];
+        trava.lock();
+        try {
+            return acao.get();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Vários equipamentos de uma vez: trava as listras em ordem crescente para não haver deadlock
+    public <T> T executar(Collection<Integer> equipamentoIds, Supplier<T> acao) {
+        int[] indices = equipamentoIds.stream().mapToInt(this::listra).distinct().sorted().toArray();
+        int travadas = 0;
+        try {
+            for (int i : indices) {
+                listras[i].lock();
+                travadas++;
+            }
+            return acao.get();
+        } finally {
+            for (int i = travadas - 1; i >= 0; i--) {
+                listras[indices[i]].unlock();
+            }
+        }
+    }
+
+    private int listra(Integer equipamentoId) {
+        return equipamentoId & (listras.length - 1);
+    }
+}
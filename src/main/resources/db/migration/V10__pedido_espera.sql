@@ -0,0 +1,22 @@
+-- Fila de espera por horário ocupado (ver FilaEspera). Um pedido = aluno + equipamento + janela;
+-- quando uma reserva que cobre a janela é cancelada ou movida, o alocador agenda os pedidos em
+-- ordem de prioridade e guarda no atendido o id da reserva criada.
+-- reserva_id sem FK: a reserva pode ir para reserva_arquivo (mesmo id).
+CREATE TABLE IF NOT EXISTS pedido_espera (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    aluno_id       BIGINT      NOT NULL,
+    equipamento_id INTEGER     NOT NULL,
+    inicio         TIMESTAMP   NOT NULL,
+    fim            TIMESTAMP   NOT NULL,
+    status         VARCHAR(16) NOT NULL CHECK (status IN ('AGUARDANDO', 'ATENDIDO', 'DESISTIU', 'EXPIRADO')),
+    reserva_id     BIGINT,
+    criado_em      TIMESTAMP   NOT NULL,
+    atualizado_em  TIMESTAMP   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_pedido_espera_aluno FOREIGN KEY (aluno_id) REFERENCES aluno (id),
+    CONSTRAINT fk_pedido_espera_equipamento FOREIGN KEY (equipamento_id) REFERENCES equipamento (id)
+);
+
+-- candidatos de uma vaga liberada (alocador) e pedidos do aluno (listagem/limite)
+CREATE INDEX ix_pedido_espera_janela ON pedido_espera (equipamento_id, status, inicio, fim);
+CREATE INDEX ix_pedido_espera_aluno ON pedido_espera (aluno_id, status);
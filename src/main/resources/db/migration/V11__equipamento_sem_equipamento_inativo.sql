@@ -0,0 +1,3 @@
+-- Marcação da V8_1 para reservas antigas sem equipamento: fica no catálogo (o histórico aponta
+-- para ela), mas inativa, fora de agendamento, fila de espera e mapa de ocupação.
+UPDATE equipamento SET ativo = FALSE WHERE nome = '(sem equipamento)';
@@ -0,0 +1,27 @@
+-- Schema inicial (equivalente ao que o ddl-auto=update gerava).
+-- IF NOT EXISTS para bancos que já existiam antes das migrations.
+CREATE TABLE IF NOT EXISTS aluno (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email         VARCHAR(255),
+    nome          VARCHAR(255),
+    semestre      INTEGER,
+    senha_hash    VARCHAR(255),
+    tipo_trabalho VARCHAR(255) CHECK (tipo_trabalho IN ('TFG', 'REGULAR')),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_aluno_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS reserva (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    atualizado_em     TIMESTAMP(6),
+    criado_em         TIMESTAMP(6),
+    equipamento       VARCHAR(255),
+    fim               TIMESTAMP(6),
+    inicio            TIMESTAMP(6),
+    status            VARCHAR(255) CHECK (status IN ('ATIVA', 'CANCELADA', 'FINALIZADA')),
+    aluno_suplente_id BIGINT,
+    aluno_titular_id  BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reserva_suplente FOREIGN KEY (aluno_suplente_id) REFERENCES aluno (id),
+    CONSTRAINT fk_reserva_titular FOREIGN KEY (aluno_titular_id) REFERENCES aluno (id)
+);
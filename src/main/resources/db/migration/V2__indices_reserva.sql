@@ -0,0 +1,8 @@
+-- Conflito de horário: equipamento = ? AND status IN (...) AND inicio < ? AND fim > ?
+-- (também atende a carga do índice de ocupação por equipamento)
+CREATE INDEX IF NOT EXISTS ix_reserva_conflito
+    ON reserva (equipamento, status, inicio, fim);
+
+-- Listagem do aluno: aluno_titular_id = ? ORDER BY inicio DESC
+CREATE INDEX IF NOT EXISTS ix_reserva_titular_inicio
+    ON reserva (aluno_titular_id, inicio);
@@ -0,0 +1,6 @@
+-- Listagem paginada por cursor: aluno_titular_id = ? AND (inicio, id) < (?, ?)
+-- ORDER BY inicio DESC, id DESC -> o id entra no índice para desempatar sem sort
+DROP INDEX IF EXISTS ix_reserva_titular_inicio;
+
+CREATE INDEX IF NOT EXISTS ix_reserva_titular_inicio_id
+    ON reserva (aluno_titular_id, inicio, id);
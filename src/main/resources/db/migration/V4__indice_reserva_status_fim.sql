@@ -0,0 +1,3 @@
+-- Job de finalização: status = 'ATIVA' AND fim <= ? ORDER BY id, em lotes
+CREATE INDEX IF NOT EXISTS ix_reserva_status_fim
+    ON reserva (status, fim);
@@ -0,0 +1,21 @@
+-- Histórico frio: reservas CANCELADA/FINALIZADA antigas saem de "reserva"
+-- (consultas de conflito e listagem do dia a dia) e vêm para cá com o mesmo id.
+CREATE TABLE IF NOT EXISTS reserva_arquivo (
+    id                BIGINT NOT NULL,
+    atualizado_em     TIMESTAMP(6),
+    criado_em         TIMESTAMP(6),
+    equipamento       VARCHAR(255),
+    fim               TIMESTAMP(6),
+    inicio            TIMESTAMP(6),
+    status            VARCHAR(255) CHECK (status IN ('ATIVA', 'CANCELADA', 'FINALIZADA')),
+    aluno_suplente_id BIGINT,
+    aluno_titular_id  BIGINT NOT NULL,
+    arquivado_em      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reserva_arquivo_suplente FOREIGN KEY (aluno_suplente_id) REFERENCES aluno (id),
+    CONSTRAINT fk_reserva_arquivo_titular FOREIGN KEY (aluno_titular_id) REFERENCES aluno (id)
+);
+
+-- Mesma listagem por cursor da tabela quente (V3)
+CREATE INDEX IF NOT EXISTS ix_reserva_arquivo_titular_inicio_id
+    ON reserva_arquivo (aluno_titular_id, inicio, id);
@@ -0,0 +1,35 @@
+-- Regras de prioridade de agendamento (antes fixas em AgendamentoService.podeAgendar).
+-- Uma linha por dia da semana; colunas null = "qualquer". Um horário é permitido se
+-- ALGUMA regra ativa casa com dia/tipo/semestre e a antecedência (horas até o início)
+-- é menor que antecedencia_maxima_horas (null = sem limite).
+CREATE TABLE IF NOT EXISTS regra_prioridade (
+    id                        BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    dia_semana                VARCHAR(16) NOT NULL
+        CHECK (dia_semana IN ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    tipo_trabalho             VARCHAR(255) CHECK (tipo_trabalho IN ('TFG', 'REGULAR')),
+    semestre_minimo           INTEGER,
+    semestre_maximo           INTEGER,
+    antecedencia_maxima_horas INTEGER,
+    ativa                     BOOLEAN DEFAULT TRUE NOT NULL,
+    descricao                 VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- Política vigente: TFG seg/ter/qui; 3º-8º semestre qua/sex; qualquer um com menos de 24h
+INSERT INTO regra_prioridade (dia_semana, tipo_trabalho, descricao) VALUES
+    ('MONDAY',   'TFG', 'TFG: segunda'),
+    ('TUESDAY',  'TFG', 'TFG: terça'),
+    ('THURSDAY', 'TFG', 'TFG: quinta');
+
+INSERT INTO regra_prioridade (dia_semana, semestre_minimo, semestre_maximo, descricao) VALUES
+    ('WEDNESDAY', 3, 8, '3º a 8º semestre: quarta'),
+    ('FRIDAY',    3, 8, '3º a 8º semestre: sexta');
+
+INSERT INTO regra_prioridade (dia_semana, antecedencia_maxima_horas, descricao) VALUES
+    ('MONDAY',    24, 'Todos: menos de 24h antes'),
+    ('TUESDAY',   24, 'Todos: menos de 24h antes'),
+    ('WEDNESDAY', 24, 'Todos: menos de 24h antes'),
+    ('THURSDAY',  24, 'Todos: menos de 24h antes'),
+    ('FRIDAY',    24, 'Todos: menos de 24h antes'),
+    ('SATURDAY',  24, 'Todos: menos de 24h antes'),
+    ('SUNDAY',    24, 'Todos: menos de 24h antes');
@@ -0,0 +1,3 @@
+-- Versão para lock otimista da Reserva (@Version): quem grava com versão velha falha
+-- em vez de sobrescrever a alteração do outro. Linhas existentes começam em 0.
+ALTER TABLE reserva ADD COLUMN IF NOT EXISTS versao BIGINT DEFAULT 0 NOT NULL;
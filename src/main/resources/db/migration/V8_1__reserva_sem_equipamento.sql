@@ -0,0 +1,6 @@
+-- Reservas da época do ddl-auto podem ter equipamento NULL: a V9 troca o nome por equipamento_id
+-- NOT NULL e pararia nelas. Antes dela, essas linhas ganham um equipamento de marcação, que a V9
+-- cadastra como qualquer outro nome e a V11 desativa (histórico preservado, ninguém agenda nele).
+-- Migration separada (e não edição da V9): bancos que já passaram da V9 validam o checksum dela.
+UPDATE reserva SET equipamento = '(sem equipamento)' WHERE equipamento IS NULL;
+UPDATE reserva_arquivo SET equipamento = '(sem equipamento)' WHERE equipamento IS NULL;
@@ -0,0 +1,24 @@
+-- Estatística de uso por equipamento, mantida a cada escrita em reserva (ver EstatisticasUso).
+-- granularidade DIA: periodo = dia do início; SEMANA: periodo = segunda-feira da semana.
+-- minutos_reservados/reservas contam as não canceladas; alunos = titulares distintos no período.
+CREATE TABLE IF NOT EXISTS uso_equipamento (
+    granularidade      VARCHAR(6)   NOT NULL CHECK (granularidade IN ('DIA', 'SEMANA')),
+    equipamento        VARCHAR(255) NOT NULL,
+    periodo            DATE         NOT NULL,
+    minutos_reservados BIGINT  DEFAULT 0 NOT NULL,
+    reservas           INTEGER DEFAULT 0 NOT NULL,
+    cancelamentos      INTEGER DEFAULT 0 NOT NULL,
+    alunos             INTEGER DEFAULT 0 NOT NULL,
+    PRIMARY KEY (granularidade, equipamento, periodo)
+);
+
+-- Reservas não canceladas por titular no período: a linha existe enquanto reservas > 0,
+-- e é o que permite manter uso_equipamento.alunos sem contar distintos em reserva
+CREATE TABLE IF NOT EXISTS uso_equipamento_aluno (
+    granularidade VARCHAR(6)   NOT NULL,
+    equipamento   VARCHAR(255) NOT NULL,
+    periodo       DATE         NOT NULL,
+    aluno_id      BIGINT       NOT NULL,
+    reservas      INTEGER      NOT NULL,
+    PRIMARY KEY (granularidade, equipamento, periodo, aluno_id)
+);
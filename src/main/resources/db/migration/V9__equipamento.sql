@@ -0,0 +1,52 @@
+-- Equipamento vira tabela própria com chave inteira; reserva/arquivo/uso passam a apontar pelo id.
+-- Conflito, índices e travas comparam um INTEGER em vez do nome digitado, e nome desconhecido
+-- é recusado pelo CatalogoEquipamentos antes de chegar ao banco.
+CREATE TABLE IF NOT EXISTS equipamento (
+    id    INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    nome  VARCHAR(255) NOT NULL,
+    ativo BOOLEAN DEFAULT TRUE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_equipamento_nome UNIQUE (nome)
+);
+
+-- Máquinas do laboratório + todo nome que já aparece em reservas (inclusive os criados por
+-- erro de digitação: ficam ativos para não mudar o histórico; desative com ativo = FALSE
+-- e POST /api/admin/equipamentos/recarregar)
+INSERT INTO equipamento (nome)
+SELECT nome FROM (
+    SELECT 'cortadora 1' AS nome UNION SELECT 'cortadora 2' UNION SELECT 'cortadora 3' UNION SELECT 'cortadora 4'
+    UNION SELECT equipamento FROM reserva WHERE equipamento IS NOT NULL
+    UNION SELECT equipamento FROM reserva_arquivo WHERE equipamento IS NOT NULL
+) n
+ORDER BY nome;
+
+-- reserva
+ALTER TABLE reserva ADD COLUMN equipamento_id INTEGER;
+UPDATE reserva r SET equipamento_id = (SELECT e.id FROM equipamento e WHERE e.nome = r.equipamento);
+ALTER TABLE reserva ALTER COLUMN equipamento_id SET NOT NULL;
+ALTER TABLE reserva ADD CONSTRAINT fk_reserva_equipamento FOREIGN KEY (equipamento_id) REFERENCES equipamento (id);
+DROP INDEX IF EXISTS ix_reserva_conflito;
+CREATE INDEX ix_reserva_conflito ON reserva (equipamento_id, status, inicio, fim);
+ALTER TABLE reserva DROP COLUMN equipamento;
+
+-- reserva_arquivo
+ALTER TABLE reserva_arquivo ADD COLUMN equipamento_id INTEGER;
+UPDATE reserva_arquivo r SET equipamento_id = (SELECT e.id FROM equipamento e WHERE e.nome = r.equipamento);
+ALTER TABLE reserva_arquivo ALTER COLUMN equipamento_id SET NOT NULL;
+ALTER TABLE reserva_arquivo ADD CONSTRAINT fk_reserva_arquivo_equipamento FOREIGN KEY (equipamento_id) REFERENCES equipamento (id);
+ALTER TABLE reserva_arquivo DROP COLUMN equipamento;
+
+-- uso_equipamento / uso_equipamento_aluno (V8): mesma chave, com o id no lugar do nome
+ALTER TABLE uso_equipamento ADD COLUMN equipamento_id INTEGER;
+UPDATE uso_equipamento u SET equipamento_id = (SELECT e.id FROM equipamento e WHERE e.nome = u.equipamento);
+ALTER TABLE uso_equipamento ALTER COLUMN equipamento_id SET NOT NULL;
+ALTER TABLE uso_equipamento DROP PRIMARY KEY;
+ALTER TABLE uso_equipamento DROP COLUMN equipamento;
+ALTER TABLE uso_equipamento ADD PRIMARY KEY (granularidade, equipamento_id, periodo);
+
+ALTER TABLE uso_equipamento_aluno ADD COLUMN equipamento_id INTEGER;
+UPDATE uso_equipamento_aluno u SET equipamento_id = (SELECT e.id FROM equipamento e WHERE e.nome = u.equipamento);
+ALTER TABLE uso_equipamento_aluno ALTER COLUMN equipamento_id SET NOT NULL;
+ALTER TABLE uso_equipamento_aluno DROP PRIMARY KEY;
+ALTER TABLE uso_equipamento_aluno DROP COLUMN equipamento;
+ALTER TABLE uso_equipamento_aluno ADD PRIMARY KEY (granularidade, equipamento_id, periodo, aluno_id);
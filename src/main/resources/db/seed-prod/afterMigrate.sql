@@ -0,0 +1,9 @@
+-- Perfil prod: garante os alunos de demonstração sem apagar nada
+-- (ids pela identity; numa base nova saem 1 e 2, como no seed de desenvolvimento)
+INSERT INTO ALUNO (nome, email, senha_hash, semestre, tipo_trabalho)
+SELECT 'Fulano TFG', 'fulano@fau.br', 'abc123', 9, 'TFG'
+WHERE NOT EXISTS (SELECT 1 FROM ALUNO WHERE email = 'fulano@fau.br');
+
+INSERT INTO ALUNO (nome, email, senha_hash, semestre, tipo_trabalho)
+SELECT 'Ciclano Regular', 'ciclano@fau.br', 'abc123', 5, 'REGULAR'
+WHERE NOT EXISTS (SELECT 1 FROM ALUNO WHERE email = 'ciclano@fau.br');
@@ -1,4 +1,9 @@
 -- Recria/garante alunos sempre que o app subir
+-- (callback do Flyway: roda depois de toda migração, mesmo sem migration pendente)
+DELETE FROM PEDIDO_ESPERA;
+DELETE FROM USO_EQUIPAMENTO_ALUNO;
+DELETE FROM USO_EQUIPAMENTO;
+DELETE FROM RESERVA_ARQUIVO;
 DELETE FROM RESERVA;
 DELETE FROM ALUNO;
 
@@ -7,3 +12,6 @@ VALUES (1, 'Fulano TFG',    'fulano@fau.br',   'abc123', 9, 'TFG');
 
 INSERT INTO ALUNO (id, nome, email, senha_hash, semestre, tipo_trabalho)
 VALUES (2, 'Ciclano Regular','ciclano@fau.br', 'abc123', 5, 'REGULAR');
+
+-- ids explícitos acima não avançam a identity; sem isso o próximo aluno criado colide com o id 1
+ALTER TABLE ALUNO ALTER COLUMN ID RESTART WITH 3;
@@ -0,0 +1,80 @@
+package br.fau.laser_booking;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Migrations sobre dados antigos: o que o schema de hoje não deixaria mais inserir
+class MigracoesTests {
+
+    @TempDir
+    Path migrationsAntigas;
+
+    @Test
+    void reservaSemEquipamentoNaoParaAV9() {
+        DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:migracoes-sem-equipamento;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        flyway(ds, "classpath:db/migration").target("8").load().migrate();
+
+        jdbc.update("INSERT INTO aluno (email, nome, semestre, senha_hash, tipo_trabalho) VALUES ('antigo@fau.br', 'Antigo', 9, 'x', 'TFG')");
+        Long aluno = jdbc.queryForObject("SELECT id FROM aluno", Long.class);
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, equipamento, inicio, fim, status) "
+                + "VALUES (?, NULL, TIMESTAMP '2024-05-06 10:00:00', TIMESTAMP '2024-05-06 11:00:00', 'FINALIZADA')", aluno);
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, equipamento, inicio, fim, status) "
+                + "VALUES (?, 'cortadora 2', TIMESTAMP '2024-05-07 10:00:00', TIMESTAMP '2024-05-07 11:00:00', 'FINALIZADA')", aluno);
+        jdbc.update("INSERT INTO reserva_arquivo (id, aluno_titular_id, equipamento, inicio, fim, status, arquivado_em) "
+                + "VALUES (900, ?, NULL, TIMESTAMP '2023-05-06 10:00:00', TIMESTAMP '2023-05-06 11:00:00', 'CANCELADA', "
+                + "TIMESTAMP '2024-01-01 00:00:00')", aluno);
+
+        flyway(ds, "classpath:db/migration").load().migrate();
+
+        assertThat(jdbc.queryForList("SELECT e.nome FROM reserva r JOIN equipamento e ON e.id = r.equipamento_id ORDER BY r.inicio",
+                String.class)).containsExactly("(sem equipamento)", "cortadora 2");
+        assertThat(jdbc.queryForObject("SELECT e.nome FROM reserva_arquivo r JOIN equipamento e ON e.id = r.equipamento_id",
+                String.class)).isEqualTo("(sem equipamento)");
+        assertThat(jdbc.queryForObject("SELECT ativo FROM equipamento WHERE nome = '(sem equipamento)'", Boolean.class)).isFalse();
+        assertThat(jdbc.queryForObject("SELECT ativo FROM equipamento WHERE nome = 'cortadora 2'", Boolean.class)).isTrue();
+    }
+
+    // Banco que já tinha aplicado até a V10 quando a V8_1 foi criada: sobe sem ela e segue para a V11
+    @Test
+    void bancoQueJaPassouDaV9IgnoraAV8_1() throws IOException {
+        Path migrations = Path.of(new ClassPathResource("db/migration").getURI());
+        try (Stream<Path> arquivos = Files.list(migrations)) {
+            for (Path arquivo : arquivos.toList()) {
+                String nome = arquivo.getFileName().toString();
+                if (!nome.startsWith("V8_1__") && !nome.startsWith("V11__")) {
+                    Files.copy(arquivo, migrationsAntigas.resolve(nome));
+                }
+            }
+        }
+        String url = "jdbc:h2:mem:migracoes-ja-na-v10;DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource ds = new DriverManagerDataSource(url, "sa", "");
+        flyway(ds, "filesystem:" + migrationsAntigas).load().migrate();
+
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(LaserBookingApplication.class)
+                .run("--server.port=0", "--spring.datasource.url=" + url, "--logging.level.root=WARN")) {
+            List<String> versoes = contexto.getBean(JdbcTemplate.class)
+                    .queryForList("SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" ORDER BY \"installed_rank\"", String.class);
+            assertThat(versoes).doesNotContain("8.1").endsWith("10", "11");
+        }
+    }
+
+    private static FluentConfiguration flyway(DriverManagerDataSource ds, String local) {
+        return Flyway.configure().dataSource(ds).locations(local);
+    }
+}
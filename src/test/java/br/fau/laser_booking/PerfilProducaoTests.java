@@ -0,0 +1,85 @@
+package br.fau.laser_booking;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.service.AgendamentoService;
+import br.fau.laser_booking.service.CatalogoEquipamentos;
+import org.h2.tools.RunScript;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Perfil prod sobe duas vezes sobre o mesmo arquivo: reservas sobrevivem e o seed não duplica alunos
+class PerfilProducaoTests {
+
+    @TempDir
+    Path dados;
+
+    @Test
+    void restartMantemReservasEAlunos() {
+        Long reservaId;
+        try (ConfigurableApplicationContext contexto = subir()) {
+            AlunoRepository alunos = contexto.getBean(AlunoRepository.class);
+            assertThat(alunos.count()).isEqualTo(2);
+            Aluno tfg = alunos.findAll().stream()
+                    .filter(a -> a.getTipoTrabalho() == Aluno.TipoTrabalho.TFG)
+                    .findFirst().orElseThrow();
+            LocalDateTime segunda = LocalDate.now().plusDays(1)
+                    .with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(10, 0);
+            reservaId = contexto.getBean(AgendamentoService.class)
+                    .agendarHorario(tfg, segunda, segunda.plusHours(1), "cortadora 1").getId();
+        }
+
+        try (ConfigurableApplicationContext contexto = subir()) {
+            assertThat(contexto.getBean(AlunoRepository.class).count()).isEqualTo(2);
+            Reserva r = contexto.getBean(ReservaRepository.class).findById(reservaId).orElseThrow();
+            assertThat(r.getStatus()).isEqualTo(Reserva.Status.ATIVA);
+        }
+    }
+
+    // Arquivo criado pelo ddl-auto, sem flyway_schema_history: baseline na V1, V2+ aplicadas por cima
+    @Test
+    void bancoDaEpocaDoDdlAutoViraBaseline() throws Exception {
+        try (Connection c = DriverManager.getConnection("jdbc:h2:file:" + dados + "/laserbooking", "sa", "");
+             Reader v1 = new InputStreamReader(new ClassPathResource("db/migration/V1__schema_inicial.sql").getInputStream(),
+                     StandardCharsets.UTF_8)) {
+            RunScript.execute(c, v1);
+            c.createStatement().execute("INSERT INTO aluno (email, nome, semestre, senha_hash, tipo_trabalho) "
+                    + "VALUES ('antigo@fau.br', 'Antigo', 9, 'x', 'TFG')");
+            c.createStatement().execute("INSERT INTO reserva (aluno_titular_id, equipamento, inicio, fim, status) "
+                    + "VALUES ((SELECT id FROM aluno WHERE email = 'antigo@fau.br'), 'cortadora 2', TIMESTAMP '2024-05-06 10:00:00', TIMESTAMP '2024-05-06 11:00:00', 'FINALIZADA')");
+        }
+
+        try (ConfigurableApplicationContext contexto = subir()) {
+            Reserva r = contexto.getBean(ReservaRepository.class).findAll().get(0);
+            assertThat(contexto.getBean(CatalogoEquipamentos.class).nome(r.getEquipamento().getId())).isEqualTo("cortadora 2");
+            assertThat(contexto.getBean(AlunoRepository.class).findByEmail("antigo@fau.br")).isPresent();
+        }
+    }
+
+    private ConfigurableApplicationContext subir() {
+        return new SpringApplicationBuilder(LaserBookingApplication.class)
+                .profiles("prod")
+                .run(
+                        "--server.port=0",
+                        "--laserbooking.dados.diretorio=" + dados,
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,78 @@
+package br.fau.laser_booking.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Corpo relido pelo FiltroIdempotencia, lido por quem usa a API assíncrona do servlet
+class CorpoRelidoTests {
+
+    private static final byte[] CORPO = "{\"alunoId\":1}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void leituraAssincronaEntregaOCorpoInteiro() throws IOException {
+        ServletInputStream entrada = new FiltroIdempotencia.CorpoRelido(new MockHttpServletRequest(), CORPO).getInputStream();
+        ByteArrayOutputStream lido = new ByteArrayOutputStream();
+        List<String> eventos = new ArrayList<>();
+
+        entrada.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                eventos.add("dados");
+                byte[] buffer = new byte[4];
+                while (entrada.isReady() && !entrada.isFinished()) {
+                    int n = entrada.read(buffer);
+                    lido.write(buffer, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                eventos.add("fim");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                eventos.add("erro");
+            }
+        });
+
+        assertThat(eventos).containsExactly("dados", "fim");
+        assertThat(lido.toByteArray()).isEqualTo(CORPO);
+    }
+
+    @Test
+    void falhaDoListenerVaiParaOnError() throws IOException {
+        ServletInputStream entrada = new FiltroIdempotencia.CorpoRelido(new MockHttpServletRequest(), CORPO).getInputStream();
+        List<Throwable> erros = new ArrayList<>();
+        IOException falha = new IOException("cliente desistiu");
+
+        entrada.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                throw falha;
+            }
+
+            @Override
+            public void onAllDataRead() {
+                erros.add(new AssertionError("não deveria terminar"));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                erros.add(t);
+            }
+        });
+
+        assertThat(erros).containsExactly(falha);
+    }
+}
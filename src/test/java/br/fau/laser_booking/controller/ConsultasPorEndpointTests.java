@@ -0,0 +1,158 @@
+package br.fau.laser_booking.controller;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.service.CatalogoEquipamentos;
+import br.fau.laser_booking.service.IndiceOcupacao;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Quantidade de statements SQL por endpoint não pode crescer com o volume de dados (sem N+1)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:consultas-por-endpoint",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class ConsultasPorEndpointTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    CatalogoEquipamentos catalogo;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    Statistics estatisticas;
+    Aluno titular;
+    LocalDateTime segunda;
+
+    @BeforeEach
+    void preparar() {
+        estatisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        titular = alunoRepository.findById(1L).orElseThrow();
+        segunda = LocalDate.now().plusDays(2).with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(8, 0);
+    }
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        alunoRepository.findAll().stream()
+                .filter(a -> a.getId() > 2)
+                .forEach(alunoRepository::delete);
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void listagemNaoCresceComONumeroDeReservas() throws Exception {
+        popular(3);
+        long poucas = statements(get("/api/agendamentos/meus/1?limite=100"));
+
+        popular(60);
+        long muitas = statements(get("/api/agendamentos/meus/1?limite=100"));
+
+        assertThat(muitas).isEqualTo(poucas);
+    }
+
+    @Test
+    void escritasNaoCarregamAssociacoesExtras() throws Exception {
+        List<Reserva> reservas = popular(3);
+        long suplente = statements(post("/api/agendamentos/" + reservas.get(0).getId() + "/suplente")
+                .param("titularId", "1").param("suplenteId", "2").with(csrf()));
+        long editar = statements(post("/api/agendamentos/" + reservas.get(1).getId() + "/editar")
+                .param("alunoId", "1")
+                .param("inicio", segunda.plusWeeks(1).toString())
+                .param("fim", segunda.plusWeeks(1).plusMinutes(30).toString())
+                .param("equipamento", "cortadora 1").with(csrf()));
+        long cancelar = statements(post("/api/agendamentos/" + reservas.get(2).getId() + "/cancelar")
+                .param("alunoId", "1").with(csrf()));
+
+        List<Reserva> mais = popular(60);
+        assertThat(statements(post("/api/agendamentos/" + reservas.get(0).getId() + "/suplente")
+                .param("titularId", "1").param("suplenteId", "2").with(csrf()))).isEqualTo(suplente);
+        assertThat(statements(post("/api/agendamentos/" + reservas.get(1).getId() + "/editar")
+                .param("alunoId", "1")
+                .param("inicio", segunda.plusWeeks(2).toString())
+                .param("fim", segunda.plusWeeks(2).plusMinutes(30).toString())
+                .param("equipamento", "cortadora 1").with(csrf()))).isEqualTo(editar);
+        assertThat(statements(post("/api/agendamentos/" + mais.get(0).getId() + "/cancelar")
+                .param("alunoId", "1").with(csrf()))).isEqualTo(cancelar);
+
+        // findById do aluno + findById da reserva + update; nada de selects extras em aluno
+        assertThat(cancelar).isLessThanOrEqualTo(3);
+    }
+
+    // Cada reserva com um suplente diferente: um N+1 apareceria como um select por reserva
+    private List<Reserva> popular(int quantidade) {
+        List<Reserva> criadas = new ArrayList<>();
+        int existentes = (int) reservaRepository.count();
+        for (int i = 0; i < quantidade; i++) {
+            Aluno suplente = new Aluno();
+            suplente.setNome("Suplente " + (existentes + i));
+            suplente.setEmail("suplente" + (existentes + i) + "@fau.br");
+            suplente.setSenhaHash("x");
+            suplente.setSemestre(5);
+            suplente.setTipoTrabalho(Aluno.TipoTrabalho.REGULAR);
+            suplente = alunoRepository.save(suplente);
+
+            Reserva r = new Reserva();
+            r.setTitular(titular);
+            r.setSuplente(suplente);
+            r.setEquipamento(catalogo.resolver("cortadora 2"));
+            r.setInicio(segunda.plusHours(existentes + i));
+            r.setFim(segunda.plusHours(existentes + i).plusMinutes(30));
+            r.setStatus(Reserva.Status.ATIVA);
+            criadas.add(reservaRepository.save(r));
+        }
+        indiceOcupacao.invalidar();
+        return criadas;
+    }
+
+    // Sempre com o cache de alunos frio, para as contagens serem comparáveis
+    private long statements(RequestBuilder requisicao) throws Exception {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+        estatisticas.clear();
+        mvc.perform(requisicao).andExpect(status().is2xxSuccessful());
+        return estatisticas.getPrepareStatementCount();
+    }
+}
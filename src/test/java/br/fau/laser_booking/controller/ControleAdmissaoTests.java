@@ -0,0 +1,62 @@
+package br.fau.laser_booking.controller;
+
+import br.fau.laser_booking.config.FiltroIdempotencia;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Rajada de 2 e uma ficha por minuto: a terceira escrita seguida do mesmo aluno é recusada
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controle-admissao-tests",
+        "laserbooking.admissao.rajada=2",
+        "laserbooking.admissao.por-minuto=1"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class ControleAdmissaoTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void alunoQueEstouraARajadaRecebe429SemAtrapalharOsOutros() throws Exception {
+        // reserva inexistente: a requisição é admitida e falha no serviço (não importa como)
+        for (int i = 0; i < 2; i++) {
+            int status = mvc.perform(cancelar(1L)).andReturn().getResponse().getStatus();
+            assertThat(status).isNotEqualTo(429);
+        }
+
+        String retryAfter = mvc.perform(cancelar(1L).header(FiltroIdempotencia.CABECALHO, "cancelar-999"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andReturn().getResponse().getHeader(HttpHeaders.RETRY_AFTER);
+        // a próxima ficha chega em até um minuto
+        assertThat(Long.parseLong(retryAfter)).isBetween(1L, 60L);
+
+        // 429 não fica guardado pela idempotência: o reenvio tenta de novo (e é recusado de novo)
+        mvc.perform(cancelar(1L).header(FiltroIdempotencia.CABECALHO, "cancelar-999"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().doesNotExist(FiltroIdempotencia.CABECALHO_REPETIDA));
+
+        // o balde é por aluno
+        int outro = mvc.perform(cancelar(2L)).andReturn().getResponse().getStatus();
+        assertThat(outro).isNotEqualTo(429);
+    }
+
+    private static MockHttpServletRequestBuilder cancelar(Long alunoId) {
+        return post("/api/agendamentos/999999/cancelar")
+                .param("alunoId", String.valueOf(alunoId))
+                .with(csrf());
+    }
+}
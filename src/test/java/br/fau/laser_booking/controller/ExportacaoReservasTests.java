@@ -0,0 +1,140 @@
+package br.fau.laser_booking.controller;
+
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.service.ExportacaoReservas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:exportacao-tests")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ExportacaoReservasTests {
+
+    private static final LocalDateTime MARCO = LocalDateTime.of(2030, 3, 4, 9, 0);
+    private static final String EQUIPAMENTO = "(SELECT id FROM equipamento WHERE nome = '%s')";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    ExportacaoReservas exportacaoReservas;
+
+    @AfterEach
+    void limpar() {
+        jdbc.update("DELETE FROM reserva_arquivo");
+        reservaRepository.deleteAll();
+        jdbc.update("DELETE FROM equipamento WHERE nome = 'cortadora 1, sala 2'");
+    }
+
+    @Test
+    void exportaReservasEArquivoEmCsvENdjson() throws Exception {
+        jdbc.update("INSERT INTO equipamento (nome) VALUES ('cortadora 1, sala 2')");
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, aluno_suplente_id, inicio, fim, equipamento_id, status, criado_em, atualizado_em) "
+                        + "VALUES (1, 2, ?, ?, " + EQUIPAMENTO.formatted("cortadora 1, sala 2") + ", 'ATIVA', ?, ?)",
+                Timestamp.valueOf(MARCO), Timestamp.valueOf(MARCO.plusMinutes(90)),
+                Timestamp.valueOf(MARCO.minusDays(1)), Timestamp.valueOf(MARCO.minusDays(1)));
+        // fora do período
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, inicio, fim, equipamento_id, status) VALUES (1, ?, ?, "
+                        + EQUIPAMENTO.formatted("cortadora 1") + ", 'ATIVA')",
+                Timestamp.valueOf(MARCO.plusMonths(1)), Timestamp.valueOf(MARCO.plusMonths(1).plusHours(1)));
+        jdbc.update("INSERT INTO reserva_arquivo (id, aluno_titular_id, inicio, fim, equipamento_id, status, arquivado_em) "
+                        + "VALUES (9000, 2, ?, ?, " + EQUIPAMENTO.formatted("cortadora 2") + ", 'FINALIZADA', ?)",
+                Timestamp.valueOf(MARCO.minusDays(2)), Timestamp.valueOf(MARCO.minusDays(2).plusHours(1)),
+                Timestamp.valueOf(MARCO));
+
+        String csv = exportar("csv", true);
+        List<String> linhas = csv.lines().toList();
+        assertThat(linhas).hasSize(3);
+        assertThat(linhas.get(0)).startsWith("id,titular_id,");
+        assertThat(linhas.get(1)).contains(",1,", "\"cortadora 1, sala 2\"", ",2030-03-04T09:00,2030-03-04T10:30,90,ATIVA,")
+                .endsWith(",false");
+        assertThat(linhas.get(2)).startsWith("9000,2,").contains("FINALIZADA").endsWith(",true");
+
+        assertThat(exportar("csv", false).lines()).hasSize(2);
+
+        String ndjson = exportar("ndjson", true);
+        assertThat(ndjson.lines()).hasSize(2);
+        assertThat(ndjson.lines().toList().get(0)).contains("\"duracaoMinutos\":90", "\"arquivada\":false");
+    }
+
+    @Test
+    @WithMockUser
+    void alunoNaoExporta() throws Exception {
+        mvc.perform(get("/api/admin/reservas/exportacao").param("de", "2030-03-01").param("ate", "2030-03-31"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void periodoInvertidoEFormatoDesconhecidoSao400() throws Exception {
+        mvc.perform(get("/api/admin/reservas/exportacao").param("de", "2030-03-31").param("ate", "2030-03-01"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/admin/reservas/exportacao").param("formato", "xlsx")
+                        .param("de", "2030-03-01").param("ate", "2030-03-31"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportacaoAbandonadaAntesDaEscritaDevolveAVaga() throws Exception {
+        // uma exportação simultânea por padrão: a vaga presa bloqueia as próximas
+        ExportacaoReservas.Exportacao abandonada =
+                exportacaoReservas.iniciar(ExportacaoReservas.Formato.CSV, MARCO, MARCO.plusDays(1), false);
+        mvc.perform(get("/api/admin/reservas/exportacao").param("de", "2030-03-01").param("ate", "2030-03-31"))
+                .andExpect(status().isConflict());
+
+        // o que o fim do request assíncrono faz quando o corpo nunca rodou
+        abandonada.liberar();
+        abandonada.liberar();
+        assertThatThrownBy(() -> abandonada.escrever(OutputStream.nullOutputStream()))
+                .isInstanceOf(IOException.class);
+
+        assertThat(exportar("csv", false).lines()).hasSize(1);
+        // a vaga voltou uma vez só
+        ExportacaoReservas.Exportacao proxima =
+                exportacaoReservas.iniciar(ExportacaoReservas.Formato.CSV, MARCO, MARCO.plusDays(1), false);
+        assertThatThrownBy(() -> exportacaoReservas.iniciar(ExportacaoReservas.Formato.CSV, MARCO, MARCO.plusDays(1), false))
+                .isInstanceOf(IllegalStateException.class);
+        proxima.liberar();
+    }
+
+    private String exportar(String formato, boolean incluirArquivo) throws Exception {
+        MvcResult inicio = mvc.perform(get("/api/admin/reservas/exportacao")
+                        .param("formato", formato)
+                        .param("de", "2030-03-01")
+                        .param("ate", "2030-03-31")
+                        .param("incluirArquivo", String.valueOf(incluirArquivo)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"reservas-2030-03-01-2030-03-31." + formato + "\""))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,187 @@
+package br.fau.laser_booking.controller;
+
+import br.fau.laser_booking.config.FiltroIdempotencia;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.service.AgendamentoService;
+import br.fau.laser_booking.service.IndiceOcupacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotencia-tests",
+        // o reenvio desiste logo de esperar pela original ainda em andamento
+        "laserbooking.idempotencia.espera-em-andamento=PT0.2S"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class IdempotenciaTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @SpyBean
+    AgendamentoService agendamentoService;
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void reenvioDoAgendamentoRepeteARespostaSemCriarOutraReserva() throws Exception {
+        String corpo = corpo(9);
+
+        MvcResult primeira = mvc.perform(agendar(corpo, "form-123"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(FiltroIdempotencia.CABECALHO_REPETIDA))
+                .andReturn();
+        // sem a chave, o reenvio esbarraria no próprio horário (409)
+        MvcResult reenvio = mvc.perform(agendar(corpo, "form-123"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(FiltroIdempotencia.CABECALHO_REPETIDA, "true"))
+                .andReturn();
+        assertThat(reenvio.getResponse().getContentAsString()).isEqualTo(primeira.getResponse().getContentAsString());
+        assertThat(reservaRepository.count()).isEqualTo(1);
+
+        // mesma chave com outro conteúdo é erro do cliente
+        mvc.perform(agendar(corpo.replace("cortadora 1", "cortadora 2"), "form-123"))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(reservaRepository.count()).isEqualTo(1);
+
+        // cancelamento (parâmetros, sem corpo): o reenvio não vira "apenas reservas ativas"
+        Long id = reservaRepository.findAll().get(0).getId();
+        mvc.perform(post("/api/agendamentos/" + id + "/cancelar").param("alunoId", "1")
+                        .header(FiltroIdempotencia.CABECALHO, "cancelar-1").with(csrf()))
+                .andExpect(status().isOk());
+        mvc.perform(post("/api/agendamentos/" + id + "/cancelar").param("alunoId", "1")
+                        .header(FiltroIdempotencia.CABECALHO, "cancelar-1").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(FiltroIdempotencia.CABECALHO_REPETIDA, "true"));
+    }
+
+    @Test
+    void mesmaChaveComOutraRequisicaoE422SemExecutar() throws Exception {
+        mvc.perform(agendar(corpo(10), "form-422")).andExpect(status().isCreated());
+
+        // outro horário, outro caminho: nada disso executa
+        mvc.perform(agendar(corpo(11), "form-422"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(FiltroIdempotencia.CABECALHO_REPETIDA));
+        mvc.perform(post("/api/agendamentos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo(10))
+                        .header(FiltroIdempotencia.CABECALHO, "form-422")
+                        .with(csrf()))
+                .andExpect(status().isUnprocessableEntity());
+        verify(agendamentoService, times(1)).agendarHorario(any(), any(), any(), any());
+        assertThat(reservaRepository.count()).isEqualTo(1);
+
+        // a chave é por usuário: a mesma chave de outra pessoa executa normalmente
+        // (e esbarra no horário já reservado)
+        mvc.perform(agendar(corpo(10), "form-422").with(user("outro")))
+                .andExpect(status().isConflict())
+                .andExpect(header().doesNotExist(FiltroIdempotencia.CABECALHO_REPETIDA));
+    }
+
+    @Test
+    void reenvioEnquantoAOriginalRodaE409EDepoisRepete() throws Exception {
+        CountDownLatch entrou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        doAnswer(invocacao -> {
+            entrou.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return invocacao.callRealMethod();
+        }).when(agendamentoService).agendarHorario(any(), any(), any(), any());
+
+        // usuário explícito: a original roda fora da thread do teste
+        CompletableFuture<Integer> original = CompletableFuture.supplyAsync(() -> {
+            try {
+                return mvc.perform(agendar(corpo(12), "form-409").with(user("user")))
+                        .andReturn().getResponse().getStatus();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entrou.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            mvc.perform(agendar(corpo(12), "form-409"))
+                    .andExpect(status().isConflict())
+                    .andExpect(header().doesNotExist(FiltroIdempotencia.CABECALHO_REPETIDA));
+        } finally {
+            liberar.countDown();
+        }
+
+        assertThat(original.get(5, TimeUnit.SECONDS)).isEqualTo(201);
+        mvc.perform(agendar(corpo(12), "form-409"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(FiltroIdempotencia.CABECALHO_REPETIDA, "true"));
+        verify(agendamentoService, times(1)).agendarHorario(any(), any(), any(), any());
+        assertThat(reservaRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void resposta5xxNaoFicaGuardada() throws Exception {
+        doThrow(new RuntimeException("banco fora do ar"))
+                .doCallRealMethod()
+                .when(agendamentoService).agendarHorario(any(), any(), any(), any());
+
+        mvc.perform(agendar(corpo(13), "form-500")).andExpect(status().isInternalServerError());
+        // a mesma chave executa de verdade na próxima tentativa
+        mvc.perform(agendar(corpo(13), "form-500"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(FiltroIdempotencia.CABECALHO_REPETIDA));
+        verify(agendamentoService, times(2)).agendarHorario(any(), any(), any(), any());
+        assertThat(reservaRepository.count()).isEqualTo(1);
+    }
+
+    // Segunda-feira (TFG sem limite de antecedência), uma hora a partir de "hora"
+    private static String corpo(int hora) {
+        LocalDateTime segunda = LocalDate.now().plusDays(2).with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(hora, 0);
+        return """
+                {"alunoId":1,"inicio":"%s","fim":"%s","equipamento":"cortadora 1"}""".formatted(segunda, segunda.plusHours(1));
+    }
+
+    private static MockHttpServletRequestBuilder agendar(String corpo, String chave) {
+        return post("/api/agendamentos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(corpo)
+                .header(FiltroIdempotencia.CABECALHO, chave)
+                .with(csrf());
+    }
+}
@@ -0,0 +1,166 @@
+package br.fau.laser_booking.controller;
+
+import br.fau.laser_booking.repository.ReservaRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Listagem "minhas reservas" por cursor (inicio DESC, id DESC), com e sem o arquivo
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:listagem-reservas-tests")
+@AutoConfigureMockMvc
+@WithMockUser
+class ListagemReservasTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 3, 4, 8, 0);
+    private static final String EQUIPAMENTO = "(SELECT id FROM equipamento WHERE nome = 'cortadora 1')";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    ObjectMapper json;
+
+    @AfterEach
+    void limpar() {
+        jdbc.update("DELETE FROM reserva_arquivo");
+        reservaRepository.deleteAll();
+    }
+
+    record Item(long id, LocalDateTime inicio) {
+    }
+
+    private static final Comparator<Item> ORDEM = Comparator.comparing(Item::inicio).thenComparing(Item::id).reversed();
+
+    @Test
+    void percorrePaginasSemRepetirNemPularComEmpatesNoInicio() throws Exception {
+        List<Item> esperadas = new ArrayList<>();
+        for (int i = 0; i < 42; i++) {
+            // de três em três com o mesmo início: o id desempata
+            esperadas.add(inserir(BASE.plusHours(i / 3)));
+        }
+        // de outro aluno: não aparece
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, inicio, fim, equipamento_id, status) VALUES (2, ?, ?, "
+                + EQUIPAMENTO + ", 'ATIVA')", Timestamp.valueOf(BASE), Timestamp.valueOf(BASE.plusMinutes(30)));
+        esperadas.sort(ORDEM);
+
+        // limite padrão = 20: 20 + 20 + 2, a última sem cursor
+        JsonNode primeira = pagina(listar());
+        assertThat(primeira.get("itens")).hasSize(20);
+        JsonNode segunda = pagina(proxima(listar(), primeira));
+        assertThat(segunda.get("itens")).hasSize(20);
+        JsonNode terceira = pagina(proxima(listar(), segunda));
+        assertThat(terceira.get("itens")).hasSize(2);
+        assertThat(terceira.get("proximoInicio").isNull()).isTrue();
+        assertThat(terceira.get("proximoId").isNull()).isTrue();
+
+        List<Item> vistas = new ArrayList<>();
+        for (JsonNode p : List.of(primeira, segunda, terceira)) {
+            vistas.addAll(itens(p));
+        }
+        assertThat(vistas).containsExactlyElementsOf(esperadas);
+
+        // página que termina no meio de um empate: a seguinte continua pelo id
+        JsonNode cortada = pagina(listar().param("limite", "4"));
+        assertThat(LocalDateTime.parse(cortada.get("proximoInicio").asText())).isEqualTo(esperadas.get(3).inicio());
+        assertThat(itens(pagina(proxima(listar().param("limite", "4"), cortada))))
+                .containsExactlyElementsOf(esperadas.subList(4, 8));
+
+        // exatamente o limite: sem próxima página
+        JsonNode todas = pagina(listar().param("limite", "42"));
+        assertThat(todas.get("itens")).hasSize(42);
+        assertThat(todas.get("proximoId").isNull()).isTrue();
+    }
+
+    @Test
+    void limiteECursorInvalidosSao400() throws Exception {
+        inserir(BASE);
+        mvc.perform(listar().param("limite", "100")).andExpect(status().isOk());
+        mvc.perform(listar().param("limite", "101")).andExpect(status().isBadRequest());
+        mvc.perform(listar().param("limite", "0")).andExpect(status().isBadRequest());
+        // cursor pela metade
+        mvc.perform(listar().param("antesDeInicio", BASE.toString())).andExpect(status().isBadRequest());
+        mvc.perform(listar().param("antesDeId", "10")).andExpect(status().isBadRequest());
+        // cursor mal formado
+        mvc.perform(listar().param("antesDeInicio", "ontem").param("antesDeId", "10")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void historicoArquivadoEntraNaMesmaOrdemSemDuplicar() throws Exception {
+        Item quente1 = inserir(BASE.plusDays(10));
+        Item quente2 = inserir(BASE.plusDays(5));
+        Item frio1 = arquivar(9001L, BASE.plusDays(7));
+        Item frio2 = arquivar(9002L, BASE.minusDays(3));
+        // arquivada no meio da listagem: está nas duas tabelas com o mesmo id
+        arquivar(quente2.id(), quente2.inicio());
+
+        assertThat(itens(pagina(listar()))).containsExactly(quente1, quente2);
+
+        List<Item> vistas = new ArrayList<>();
+        JsonNode p = pagina(listar().param("incluirArquivo", "true").param("limite", "2"));
+        vistas.addAll(itens(p));
+        while (!p.get("proximoId").isNull()) {
+            p = pagina(proxima(listar().param("incluirArquivo", "true").param("limite", "2"), p));
+            vistas.addAll(itens(p));
+        }
+        assertThat(vistas).containsExactly(quente1, frio1, quente2, frio2);
+    }
+
+    private Item inserir(LocalDateTime inicio) {
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, inicio, fim, equipamento_id, status) VALUES (1, ?, ?, "
+                + EQUIPAMENTO + ", 'ATIVA')", Timestamp.valueOf(inicio), Timestamp.valueOf(inicio.plusMinutes(30)));
+        return new Item(jdbc.queryForObject("SELECT MAX(id) FROM reserva", Long.class), inicio);
+    }
+
+    private Item arquivar(long id, LocalDateTime inicio) {
+        jdbc.update("INSERT INTO reserva_arquivo (id, aluno_titular_id, inicio, fim, equipamento_id, status, arquivado_em) "
+                        + "VALUES (?, 1, ?, ?, " + EQUIPAMENTO + ", 'FINALIZADA', ?)",
+                id, Timestamp.valueOf(inicio), Timestamp.valueOf(inicio.plusMinutes(30)), Timestamp.valueOf(BASE));
+        return new Item(id, inicio);
+    }
+
+    private static MockHttpServletRequestBuilder listar() {
+        return get("/api/agendamentos/meus/1");
+    }
+
+    private static MockHttpServletRequestBuilder proxima(MockHttpServletRequestBuilder req, JsonNode anterior) {
+        return req.param("antesDeInicio", anterior.get("proximoInicio").asText())
+                .param("antesDeId", anterior.get("proximoId").asText());
+    }
+
+    private JsonNode pagina(MockHttpServletRequestBuilder req) throws Exception {
+        String corpo = mvc.perform(req).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return json.readTree(corpo);
+    }
+
+    private static List<Item> itens(JsonNode pagina) {
+        List<Item> itens = new ArrayList<>();
+        for (JsonNode n : pagina.get("itens")) {
+            itens.add(new Item(n.get("id").asLong(), LocalDateTime.parse(n.get("inicio").asText())));
+        }
+        return itens;
+    }
+}
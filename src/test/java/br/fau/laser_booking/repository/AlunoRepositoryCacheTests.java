@@ -0,0 +1,176 @@
+package br.fau.laser_booking.repository;
+
+import br.fau.laser_booking.model.Aluno;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:aluno-cache-tests",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AlunoRepositoryCacheTests {
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry registry;
+
+    Statistics estatisticas;
+
+    @BeforeEach
+    void preparar() {
+        estatisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        limparCaches();
+    }
+
+    @AfterEach
+    void limpar() {
+        alunoRepository.findAll().stream()
+                .filter(a -> a.getId() > 2)
+                .forEach(alunoRepository::delete);
+    }
+
+    @Test
+    void segundaBuscaNaoVaiAoBanco() {
+        assertThat(statements(() -> alunoRepository.findById(1L).orElseThrow())).isEqualTo(1);
+        assertThat(statements(() -> alunoRepository.findById(1L).orElseThrow())).isZero();
+
+        String email = alunoRepository.findById(1L).orElseThrow().getEmail();
+        assertThat(statements(() -> alunoRepository.findByEmail(email).orElseThrow())).isEqualTo(1);
+        assertThat(statements(() -> alunoRepository.findByEmail(email).orElseThrow())).isZero();
+
+        // ausência não fica em cache: o aluno pode ser criado depois
+        assertThat(alunoRepository.findById(9999L)).isEmpty();
+        assertThat(statements(() -> alunoRepository.findById(9999L))).isEqualTo(1);
+    }
+
+    @Test
+    void escritasInvalidamOCache() {
+        Aluno a = alunoRepository.save(novo("cache1@fau.br"));
+        Aluno b = alunoRepository.save(novo("cache2@fau.br"));
+
+        // save
+        aquecer(a, b);
+        a.setNome("Renomeado por save");
+        alunoRepository.save(a);
+        assertThat(alunoRepository.findById(a.getId()).orElseThrow().getNome()).isEqualTo("Renomeado por save");
+        assertThat(alunoRepository.findByEmail("cache1@fau.br").orElseThrow().getNome()).isEqualTo("Renomeado por save");
+
+        // saveAndFlush
+        aquecer(a, b);
+        a.setNome("Renomeado por saveAndFlush");
+        alunoRepository.saveAndFlush(a);
+        assertThat(alunoRepository.findById(a.getId()).orElseThrow().getNome()).isEqualTo("Renomeado por saveAndFlush");
+
+        // saveAll
+        aquecer(a, b);
+        a.setNome("Renomeado por saveAll");
+        b.setNome("Renomeado por saveAll");
+        alunoRepository.saveAll(List.of(a, b));
+        assertThat(alunoRepository.findById(a.getId()).orElseThrow().getNome()).isEqualTo("Renomeado por saveAll");
+        assertThat(alunoRepository.findByEmail("cache2@fau.br").orElseThrow().getNome()).isEqualTo("Renomeado por saveAll");
+
+        // deleteAllById
+        aquecer(a, b);
+        alunoRepository.deleteAllById(List.of(a.getId(), b.getId()));
+        assertThat(alunoRepository.findById(a.getId())).isEmpty();
+        assertThat(alunoRepository.findByEmail("cache2@fau.br")).isEmpty();
+    }
+
+    @Test
+    void cadaLeituraRecebeUmaCopia() {
+        Aluno primeira = alunoRepository.findById(1L).orElseThrow();
+        primeira.setNome("Alterado sem salvar");
+
+        Aluno segunda = alunoRepository.findById(1L).orElseThrow();
+        assertThat(segunda).isNotSameAs(primeira);
+        assertThat(segunda.getNome()).isNotEqualTo("Alterado sem salvar");
+        assertThat(alunoRepository.findByEmail(segunda.getEmail()).orElseThrow()).isNotSameAs(segunda);
+    }
+
+    @Test
+    void cacheMontadoNaConfigContinuaComMetricas() {
+        alunoRepository.findById(1L).orElseThrow();
+        alunoRepository.findById(1L).orElseThrow();
+        assertThat(registry.find("cache.gets").tags("cache", "alunos", "result", "hit").functionCounter())
+                .isNotNull()
+                .satisfies(c -> assertThat(c.count()).isPositive());
+    }
+
+    @Test
+    void invalidacaoDentroDeTransacaoSoNoCommit() {
+        Aluno a = alunoRepository.save(novo("cache3@fau.br"));
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        aquecer(a);
+        transacao.executeWithoutResult(tx -> {
+            a.setNome("Renomeado e desfeito");
+            alunoRepository.save(a);
+            tx.setRollbackOnly();
+        });
+        // rollback: nada invalidado, e o cache continua igual ao banco
+        assertThat(statements(() -> alunoRepository.findById(a.getId()).orElseThrow())).isZero();
+        assertThat(alunoRepository.findById(a.getId()).orElseThrow().getNome()).isEqualTo("cache3@fau.br");
+
+        transacao.executeWithoutResult(tx -> {
+            a.setNome("Renomeado na transação");
+            alunoRepository.save(a);
+            // ainda não confirmado: quem ler agora continua vendo o valor do banco
+            assertThat(cacheManager.getCache("alunos").get(a.getId())).isNotNull();
+        });
+        assertThat(cacheManager.getCache("alunos").get(a.getId())).isNull();
+        assertThat(alunoRepository.findById(a.getId()).orElseThrow().getNome()).isEqualTo("Renomeado na transação");
+    }
+
+    private void aquecer(Aluno... alunos) {
+        for (Aluno aluno : alunos) {
+            alunoRepository.findById(aluno.getId()).orElseThrow();
+            alunoRepository.findByEmail(aluno.getEmail()).orElseThrow();
+        }
+        assertThat(cacheManager.getCache("alunos").get(alunos[0].getId())).isNotNull();
+    }
+
+    private long statements(Runnable consulta) {
+        estatisticas.clear();
+        consulta.run();
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private void limparCaches() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+    }
+
+    private static Aluno novo(String email) {
+        Aluno a = new Aluno();
+        a.setNome(email);
+        a.setEmail(email);
+        a.setSenhaHash("x");
+        a.setSemestre(5);
+        a.setTipoTrabalho(Aluno.TipoTrabalho.REGULAR);
+        return a;
+    }
+}
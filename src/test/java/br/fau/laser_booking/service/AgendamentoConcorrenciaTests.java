@@ -0,0 +1,192 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AgendamentoConcorrenciaTests {
+
+    private static final int TENTATIVAS = 3000;
+    private static final List<String> EQUIPAMENTOS = List.of("cortadora 1", "cortadora 2", "cortadora 3");
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void agendamentosConcorrentesNuncaSeSobrepoem() throws Exception {
+        // aluno TFG numa segunda-feira: a regra de prioridade sempre libera
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        LocalDateTime base = LocalDate.now().plusDays(2)
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
+                .atTime(8, 0);
+
+        AtomicInteger criadas = new AtomicInteger();
+        AtomicInteger conflitos = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int i = 0; i < TENTATIVAS; i++) {
+                futuros.add(pool.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    String equipamento = EQUIPAMENTOS.get(rnd.nextInt(EQUIPAMENTOS.size()));
+                    LocalDateTime inicio = base.plusMinutes(15L * rnd.nextInt(40));
+                    LocalDateTime fim = inicio.plusMinutes(15L * (1 + rnd.nextInt(6)));
+                    try {
+                        agendamentoService.agendarHorario(tfg, inicio, fim, equipamento);
+                        criadas.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        conflitos.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> f : futuros) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(criadas.get()).isPositive();
+        assertThat(criadas.get() + conflitos.get()).isEqualTo(TENTATIVAS);
+
+        Map<Integer, List<Reserva>> porEquipamento = reservaRepository.findAll().stream()
+                .filter(r -> r.getStatus() == Reserva.Status.ATIVA)
+                .collect(Collectors.groupingBy(r -> r.getEquipamento().getId()));
+        assertThat(porEquipamento.values().stream().mapToInt(List::size).sum()).isEqualTo(criadas.get());
+
+        porEquipamento.forEach((equipamento, reservas) -> {
+            reservas.sort(Comparator.comparing(Reserva::getInicio));
+            for (int i = 1; i < reservas.size(); i++) {
+                assertThat(reservas.get(i).getInicio())
+                        .as("sobreposição em %s", equipamento)
+                        .isAfterOrEqualTo(reservas.get(i - 1).getFim());
+            }
+        });
+    }
+
+    @Test
+    void gravacaoComVersaoVelhaFalhaEmVezDeSobrescrever() {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        Aluno regular = alunoRepository.findById(2L).orElseThrow();
+        Reserva r = agendamentoService.agendarHorario(tfg, proximaSegunda(), proximaSegunda().plusHours(1), "cortadora 1");
+
+        Reserva velha = new TransactionTemplate(transactionManager)
+                .execute(tx -> reservaRepository.findById(r.getId()).orElseThrow());
+        agendamentoService.cancelarReserva(tfg, r.getId());
+
+        // sem @Version este save voltaria o status para ATIVA
+        velha.setSuplente(regular);
+        assertThatThrownBy(() -> reservaRepository.save(velha))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(reservaRepository.findById(r.getId()).orElseThrow().getStatus())
+                .isEqualTo(Reserva.Status.CANCELADA);
+    }
+
+    @Test
+    void alteracoesConcorrentesNaMesmaReservaNaoSePerdem() throws Exception {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        Aluno regular = alunoRepository.findById(2L).orElseThrow();
+        LocalDateTime segunda = proximaSegunda();
+        Long id = agendamentoService.agendarHorario(tfg, segunda, segunda.plusMinutes(30), "cortadora 1").getId();
+
+        // suplente (com retentativa), edições para horários sempre diferentes (sem retentativa)
+        // e um cancelamento, todos na mesma linha
+        List<Runnable> operacoes = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            operacoes.add(() -> agendamentoService.incluirSuplente(tfg, id, regular));
+        }
+        for (int i = 1; i <= 10; i++) {
+            LocalDateTime inicio = segunda.plusMinutes(30L * i);
+            operacoes.add(() -> agendamentoService.editarHorario(tfg, id, inicio, inicio.plusMinutes(30), "cortadora 1"));
+        }
+        AtomicBoolean cancelou = new AtomicBoolean();
+        operacoes.add(20, () -> {
+            agendamentoService.cancelarReserva(tfg, id);
+            cancelou.set(true);
+        });
+
+        AtomicInteger gravadas = new AtomicInteger();
+        AtomicInteger concorrentes = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (Runnable op : operacoes) {
+                futuros.add(pool.submit(() -> {
+                    try {
+                        op.run();
+                        gravadas.incrementAndGet();
+                    } catch (AlteracaoConcorrenteException e) {
+                        concorrentes.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // edição depois do cancelamento: recusada pela regra, não pela concorrência
+                        recusadas.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> f : futuros) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(gravadas.get() + concorrentes.get() + recusadas.get()).isEqualTo(operacoes.size());
+        // cada operação bem-sucedida é exatamente um UPDATE com versão conferida:
+        // nenhuma sobrescreveu outra em silêncio
+        Reserva finalizada = reservaRepository.findById(id).orElseThrow();
+        assertThat(finalizada.getVersao()).isEqualTo(gravadas.get());
+        // o cancelamento pode esgotar as tentativas (409), mas nunca é desfeito por outra gravação
+        assertThat(finalizada.getStatus()).isEqualTo(cancelou.get() ? Reserva.Status.CANCELADA : Reserva.Status.ATIVA);
+    }
+
+    private static LocalDateTime proximaSegunda() {
+        return LocalDate.now().plusDays(2).with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(10, 0);
+    }
+}
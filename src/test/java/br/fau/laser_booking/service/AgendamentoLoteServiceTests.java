@@ -0,0 +1,178 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.AgendamentoLoteRequest;
+import br.fau.laser_booking.dto.HorarioSolicitado;
+import br.fau.laser_booking.dto.ResultadoHorario;
+import br.fau.laser_booking.dto.ResultadoHorario.Situacao;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.support.RelogioAjustavel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:agendamento-lote-tests")
+@Import(RelogioAjustavel.Config.class)
+class AgendamentoLoteServiceTests {
+
+    // domingo 03/03/2030 12:00: TFG agenda segunda sem limite, o regular só até 24h à frente
+    private static final LocalDateTime DOMINGO = LocalDateTime.of(2030, 3, 3, 12, 0);
+    private static final LocalDateTime SEGUNDA_10H = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Autowired
+    RelogioAjustavel relogio;
+
+    @Autowired
+    AgendamentoLoteService loteService;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    CatalogoEquipamentos catalogo;
+
+    private Aluno tfg;
+
+    @BeforeEach
+    void preparar() {
+        relogio.ajustar(DOMINGO);
+        tfg = alunoRepository.findById(1L).orElseThrow();
+    }
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void cadaHorarioTemSeuResultadoEOsConflitosNaoDerrubamOLote() {
+        agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+
+        List<ResultadoHorario> resultados = loteService.agendarLote(tfg, List.of(
+                horario(SEGUNDA_10H.plusMinutes(30), SEGUNDA_10H.plusMinutes(90), "cortadora 1"),
+                horario(SEGUNDA_10H.plusHours(2), SEGUNDA_10H.plusHours(3), "cortadora 1"),
+                // cai em cima do anterior do mesmo lote
+                horario(SEGUNDA_10H.plusMinutes(150), SEGUNDA_10H.plusMinutes(210), "cortadora 1"),
+                horario(SEGUNDA_10H.plusHours(2), SEGUNDA_10H.plusHours(3), "cortadora 2"),
+                horario(SEGUNDA_10H.plusHours(5), SEGUNDA_10H.plusHours(4), "cortadora 1"),
+                horario(DOMINGO.minusHours(2), DOMINGO.minusHours(1), "cortadora 1"),
+                horario(SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "impressora 3d")));
+
+        assertThat(resultados).extracting(ResultadoHorario::situacao).containsExactly(
+                Situacao.CONFLITO, Situacao.CRIADA, Situacao.CONFLITO, Situacao.CRIADA,
+                Situacao.INVALIDO, Situacao.INVALIDO, Situacao.INVALIDO);
+        assertThat(resultados.get(1).reservaId()).isNotNull();
+        assertThat(resultados.get(0).reservaId()).isNull();
+        assertThat(resultados.get(0).mensagem()).isNotBlank();
+
+        // regular: segunda às 9h está a menos de 24h; terça é só do TFG
+        Aluno regular = alunoRepository.findById(2L).orElseThrow();
+        assertThat(loteService.agendarLote(regular, List.of(
+                horario(SEGUNDA_10H.minusHours(1), SEGUNDA_10H, "cortadora 3"),
+                horario(SEGUNDA_10H.plusDays(1), SEGUNDA_10H.plusDays(1).plusHours(1), "cortadora 3"))))
+                .extracting(ResultadoHorario::situacao)
+                .containsExactly(Situacao.CRIADA, Situacao.SEM_PERMISSAO);
+    }
+
+    @Test
+    void linhasDoInsertEmBatchValemComoReservasComuns() {
+        Long id = loteService.agendarLote(tfg, List.of(
+                horario(SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1"))).get(0).reservaId();
+
+        // o índice recebeu o evento: o agendamento avulso já enxerga o horário
+        assertThat(indiceOcupacao.haConflito(catalogo.resolver("cortadora 1").getId(),
+                SEGUNDA_10H.plusMinutes(30), SEGUNDA_10H.plusMinutes(45))).isTrue();
+        assertThatThrownBy(() -> agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1"))
+                .isInstanceOf(ConflitoHorarioException.class);
+
+        // colunas que o JPA preencheria (versão, auditoria) vieram do INSERT/DEFAULT
+        Reserva r = reservaRepository.findById(id).orElseThrow();
+        assertThat(r.getStatus()).isEqualTo(Reserva.Status.ATIVA);
+        assertThat(r.getVersao()).isZero();
+        assertThat(r.getCriadoEm()).isEqualTo(DOMINGO);
+        assertThat(r.getTitular().getId()).isEqualTo(tfg.getId());
+
+        // e a edição com lock otimista funciona sobre elas
+        agendamentoService.editarHorario(tfg, id, SEGUNDA_10H.plusHours(2), SEGUNDA_10H.plusHours(3), "cortadora 1");
+        assertThat(reservaRepository.findById(id).orElseThrow().getVersao()).isEqualTo(1);
+        agendamentoService.cancelarReserva(tfg, id);
+        assertThat(indiceOcupacao.haConflito(catalogo.resolver("cortadora 1").getId(),
+                SEGUNDA_10H.plusHours(2), SEGUNDA_10H.plusHours(3))).isFalse();
+    }
+
+    @Test
+    void recorrenciaExpandeOsDiasDaSemanaDoPeriodo() {
+        AgendamentoLoteRequest req = new AgendamentoLoteRequest();
+        req.setAlunoId(1L);
+        AgendamentoLoteRequest.Horario avulso = new AgendamentoLoteRequest.Horario();
+        avulso.setInicio(SEGUNDA_10H);
+        avulso.setFim(SEGUNDA_10H.plusHours(1));
+        avulso.setEquipamento("cortadora 2");
+        req.getHorarios().add(avulso);
+        // segundas e quartas de 04/03 a 13/03: 04, 06, 11 e 13
+        AgendamentoLoteRequest.Recorrencia rec = recorrencia(LocalDate.of(2030, 3, 4), LocalDate.of(2030, 3, 13));
+        req.setRecorrencia(rec);
+
+        List<HorarioSolicitado> horarios = loteService.expandir(req);
+        assertThat(horarios).extracting(HorarioSolicitado::inicio).containsExactly(
+                SEGUNDA_10H,
+                LocalDateTime.of(2030, 3, 4, 14, 0), LocalDateTime.of(2030, 3, 6, 14, 0),
+                LocalDateTime.of(2030, 3, 11, 14, 0), LocalDateTime.of(2030, 3, 13, 14, 0));
+        assertThat(horarios.get(1).fim()).isEqualTo(LocalDateTime.of(2030, 3, 4, 16, 0));
+        assertThat(horarios.get(1).equipamento()).isEqualTo("cortadora 1");
+
+        rec.setAte(LocalDate.of(2030, 3, 1));
+        assertThatThrownBy(() -> loteService.expandir(req)).isInstanceOf(IllegalArgumentException.class);
+        rec.setHoraFim(null);
+        assertThatThrownBy(() -> loteService.expandir(req)).isInstanceOf(IllegalArgumentException.class);
+
+        // todos os dias por um ano passa do máximo por lote
+        AgendamentoLoteRequest grande = new AgendamentoLoteRequest();
+        AgendamentoLoteRequest.Recorrencia ano = recorrencia(LocalDate.of(2030, 3, 4), LocalDate.of(2031, 3, 4));
+        ano.setDiasDaSemana(List.of(DayOfWeek.values()));
+        grande.setRecorrencia(ano);
+        assertThatThrownBy(() -> loteService.expandir(grande)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> loteService.expandir(new AgendamentoLoteRequest()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HorarioSolicitado horario(LocalDateTime inicio, LocalDateTime fim, String equipamento) {
+        return new HorarioSolicitado(inicio, fim, equipamento);
+    }
+
+    private static AgendamentoLoteRequest.Recorrencia recorrencia(LocalDate de, LocalDate ate) {
+        AgendamentoLoteRequest.Recorrencia rec = new AgendamentoLoteRequest.Recorrencia();
+        rec.setDiasDaSemana(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        rec.setDe(de);
+        rec.setAte(ate);
+        rec.setHoraInicio(LocalTime.of(14, 0));
+        rec.setHoraFim(LocalTime.of(16, 0));
+        rec.setEquipamento("cortadora 1");
+        return rec;
+    }
+}
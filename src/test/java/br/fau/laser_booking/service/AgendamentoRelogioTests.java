@@ -0,0 +1,88 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.support.RelogioAjustavel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:relogio-tests")
+@Import(RelogioAjustavel.Config.class)
+class AgendamentoRelogioTests {
+
+    // sexta 01/03/2030 09:00; segunda 04/03 é dia de TFG
+    private static final LocalDateTime AGORA = LocalDateTime.of(2030, 3, 1, 9, 0);
+    private static final LocalDateTime SEGUNDA_10H = LocalDateTime.of(2030, 3, 4, 10, 0);
+    private static final LocalDateTime SABADO_10H = LocalDateTime.of(2030, 3, 2, 10, 0);
+
+    @Autowired
+    RelogioAjustavel relogio;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @BeforeEach
+    void zerarRelogio() {
+        relogio.ajustar(AGORA);
+    }
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void auditoriaECancelamentoSeguemORelogioDaAplicacao() {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        Reserva r = agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+        assertThat(r.getCriadoEm()).isEqualTo(AGORA);
+        assertThat(r.getAtualizadoEm()).isEqualTo(AGORA);
+
+        // 30 min antes do início: dentro da janela em que não se cancela mais
+        relogio.ajustar(SEGUNDA_10H.minusMinutes(30));
+        assertThatThrownBy(() -> agendamentoService.cancelarReserva(tfg, r.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("menos de 1h");
+
+        relogio.ajustar(SEGUNDA_10H.minusHours(2));
+        agendamentoService.cancelarReserva(tfg, r.getId());
+        Reserva cancelada = reservaRepository.findById(r.getId()).orElseThrow();
+        assertThat(cancelada.getStatus()).isEqualTo(Reserva.Status.CANCELADA);
+        assertThat(cancelada.getCriadoEm()).isEqualTo(AGORA);
+        assertThat(cancelada.getAtualizadoEm()).isEqualTo(SEGUNDA_10H.minusHours(2));
+    }
+
+    @Test
+    void janelaDe24hAbreQuandoORelogioAvanca() {
+        Aluno regular = alunoRepository.findById(2L).orElseThrow();
+        // sábado: só a regra das 24h vale para o aluno regular
+        assertThatThrownBy(() -> agendamentoService.agendarHorario(regular, SABADO_10H, SABADO_10H.plusHours(1), "cortadora 1"))
+                .isInstanceOf(PermissaoNegadaException.class);
+
+        relogio.avancar(Duration.ofHours(2));
+        Reserva r = agendamentoService.agendarHorario(regular, SABADO_10H, SABADO_10H.plusHours(1), "cortadora 1");
+        assertThat(r.getCriadoEm()).isEqualTo(AGORA.plusHours(2));
+    }
+}
@@ -0,0 +1,162 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.PaginaReservas;
+import br.fau.laser_booking.dto.ReservaResumo;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaArquivadaRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:arquivamento-tests",
+        "laserbooking.arquivamento.lote=4"
+})
+class ArquivamentoReservasTests {
+
+    @Autowired
+    ArquivamentoReservas arquivamento;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    ReservaArquivadaRepository reservaArquivadaRepository;
+
+    @Autowired
+    ExportacaoReservas exportacao;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @AfterEach
+    void limpar() {
+        jdbc.update("DELETE FROM reserva_arquivo");
+        reservaRepository.deleteAll();
+    }
+
+    @Test
+    void moveSoEncerradasAntigasEListagemJuntaHistoricoQuandoPedido() {
+        LocalDateTime agora = LocalDateTime.now();
+        // 10 antigas (finalizadas/canceladas), 1 antiga ainda ATIVA, 5 recentes
+        for (int i = 0; i < 10; i++) {
+            LocalDateTime inicio = agora.minusDays(100 + i);
+            inserir(inicio, i % 2 == 0 ? "FINALIZADA" : "CANCELADA");
+        }
+        inserir(agora.minusDays(200), "ATIVA");
+        for (int i = 0; i < 5; i++) {
+            inserir(agora.minusDays(1 + i), "FINALIZADA");
+        }
+
+        assertThat(arquivamento.arquivar(30)).isEqualTo(10);
+        assertThat(reservaArquivadaRepository.count()).isEqualTo(10);
+        assertThat(reservaRepository.count()).isEqualTo(6);
+        // reiniciar não tem o que fazer
+        assertThat(arquivamento.arquivar(30)).isZero();
+
+        Aluno aluno = alunoRepository.findById(1L).orElseThrow();
+        assertThat(percorrer(aluno, false)).hasSize(6);
+
+        // com histórico: as 16, em (inicio DESC, id DESC), páginas de 4 atravessando as duas tabelas
+        List<ReservaResumo> tudo = percorrer(aluno, true);
+        assertThat(tudo).hasSize(16);
+        assertThat(tudo).extracting(ReservaResumo::id).doesNotHaveDuplicates();
+        for (int i = 1; i < tudo.size(); i++) {
+            assertThat(tudo.get(i).inicio()).isBefore(tudo.get(i - 1).inicio());
+        }
+    }
+
+    @Test
+    void agendadoPulaEmSilencioEnquantoODisparoManualRoda() throws InterruptedException {
+        inserir(LocalDateTime.now().minusDays(400), "FINALIZADA");
+
+        // outra thread segura a trava como um disparo manual em andamento
+        CountDownLatch travada = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        Thread manual = new Thread(() -> {
+            arquivamento.emExecucao.lock();
+            try {
+                travada.countDown();
+                soltar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                arquivamento.emExecucao.unlock();
+            }
+        });
+        manual.start();
+        travada.await();
+        try {
+            arquivamento.executar();
+            assertThat(reservaArquivadaRepository.count()).isZero();
+            // o admin continua recebendo o conflito (409)
+            assertThatThrownBy(() -> arquivamento.arquivar(30)).isInstanceOf(IllegalStateException.class);
+        } finally {
+            soltar.countDown();
+            manual.join();
+        }
+
+        arquivamento.executar();
+        assertThat(reservaArquivadaRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void exportacaoComHistoricoSeguraOArquivamento() throws IOException {
+        LocalDateTime agora = LocalDateTime.now();
+        for (int i = 0; i < 6; i++) {
+            inserir(agora.minusDays(400 + i), "FINALIZADA");
+        }
+
+        ExportacaoReservas.Exportacao comHistorico = exportacao.iniciar(ExportacaoReservas.Formato.NDJSON,
+                agora.minusDays(500), agora, true);
+        assertThatThrownBy(() -> arquivamento.arquivar(30)).isInstanceOf(IllegalStateException.class);
+        arquivamento.executar();
+        assertThat(reservaArquivadaRepository.count()).isZero();
+
+        // cada reserva sai uma vez só, de uma das tabelas
+        assertThat(comHistorico.escrever(new ByteArrayOutputStream())).isEqualTo(6);
+
+        // a escrita terminou e soltou o histórico
+        assertThat(arquivamento.arquivar(30)).isEqualTo(6);
+    }
+
+    private List<ReservaResumo> percorrer(Aluno aluno, boolean incluirArquivo) {
+        List<ReservaResumo> todas = new ArrayList<>();
+        PaginaReservas pagina = agendamentoService.listarReservasDoAluno(aluno, null, null, 4, incluirArquivo);
+        todas.addAll(pagina.itens());
+        while (pagina.proximoId() != null) {
+            pagina = agendamentoService.listarReservasDoAluno(aluno, pagina.proximoInicio(), pagina.proximoId(), 4, incluirArquivo);
+            todas.addAll(pagina.itens());
+        }
+        return todas;
+    }
+
+    private void inserir(LocalDateTime inicio, String status) {
+        jdbc.update("""
+                INSERT INTO reserva (aluno_titular_id, equipamento_id, inicio, fim, status, criado_em, atualizado_em)
+                VALUES (1, (SELECT id FROM equipamento WHERE nome = 'cortadora 1'), ?, ?, ?, ?, ?)""",
+                Timestamp.valueOf(inicio), Timestamp.valueOf(inicio.plusHours(1)), status,
+                Timestamp.valueOf(inicio), Timestamp.valueOf(inicio));
+    }
+}
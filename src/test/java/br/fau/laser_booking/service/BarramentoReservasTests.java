@@ -0,0 +1,110 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Reserva;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BarramentoReservasTests {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+    // executor manual: as entregas só rodam quando o teste manda
+    private final Queue<Runnable> pendentes = new ArrayDeque<>();
+    private final BarramentoReservas barramento = new BarramentoReservas(pendentes::add, 2, 10);
+
+    @Test
+    void entregaPorEquipamentoEPorAlunoTitularOuSuplente() {
+        List<Long> doEquipamento = new ArrayList<>();
+        List<Long> doAluno = new ArrayList<>();
+        barramento.assinar(1, null, (eventos, perdeu) -> eventos.forEach(e -> doEquipamento.add(e.reservaId())));
+        barramento.assinar(null, 7L, (eventos, perdeu) -> eventos.forEach(e -> doAluno.add(e.reservaId())));
+
+        barramento.aoAlterarReserva(evento(1L, 7L, null, 1));
+        barramento.aoAlterarReserva(evento(2L, 8L, null, 2));
+        barramento.aoAlterarReserva(evento(3L, 8L, 7L, 2));
+        executarPendentes();
+
+        assertThat(doEquipamento).containsExactly(1L);
+        assertThat(doAluno).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void filaCheiaDescartaPendentesEAvisaRessincronizacao() {
+        List<Long> recebidos = new ArrayList<>();
+        List<Boolean> avisos = new ArrayList<>();
+        barramento.assinar(1, null, (eventos, perdeu) -> {
+            avisos.add(perdeu);
+            eventos.forEach(e -> recebidos.add(e.reservaId()));
+        });
+
+        // capacidade 2: o terceiro transborda antes de qualquer entrega
+        for (long id = 1; id <= 3; id++) {
+            barramento.aoAlterarReserva(evento(id, 7L, null, 1));
+        }
+        barramento.aoAlterarReserva(evento(4L, 7L, null, 1));
+        executarPendentes();
+
+        assertThat(avisos).containsExactly(true);
+        assertThat(recebidos).containsExactly(4L);
+    }
+
+    @Test
+    void entregaSaturadaViraRessincronizacao() {
+        List<Long> recebidos = new ArrayList<>();
+        List<Boolean> avisos = new ArrayList<>();
+        // pool de entrega cheio na primeira tentativa
+        boolean[] saturado = {true};
+        BarramentoReservas comPoolCheio = new BarramentoReservas(tarefa -> {
+            if (saturado[0]) {
+                throw new TaskRejectedException("pool de entrega cheio");
+            }
+            pendentes.add(tarefa);
+        }, 2, 10);
+        comPoolCheio.assinar(1, null, (eventos, perdeu) -> {
+            avisos.add(perdeu);
+            eventos.forEach(e -> recebidos.add(e.reservaId()));
+        });
+
+        comPoolCheio.aoAlterarReserva(evento(1L, 7L, null, 1));
+        saturado[0] = false;
+        comPoolCheio.aoAlterarReserva(evento(2L, 7L, null, 1));
+        executarPendentes();
+
+        assertThat(avisos).containsExactly(true);
+        assertThat(recebidos).containsExactly(2L);
+    }
+
+    @Test
+    void assinaturaCanceladaQuandoEntregaFalha() {
+        barramento.assinar(1, null, (eventos, perdeu) -> {
+            throw new IOException("cliente desconectou");
+        });
+        assertThat(barramento.assinaturasAtivas()).isEqualTo(1);
+
+        barramento.aoAlterarReserva(evento(1L, 7L, null, 1));
+        executarPendentes();
+
+        assertThat(barramento.assinaturasAtivas()).isZero();
+    }
+
+    private void executarPendentes() {
+        Runnable r;
+        while ((r = pendentes.poll()) != null) {
+            r.run();
+        }
+    }
+
+    private static ReservaAlteradaEvent evento(Long id, Long titularId, Long suplenteId, Integer equipamentoId) {
+        return new ReservaAlteradaEvent(ReservaAlteradaEvent.Tipo.CRIADA, id, titularId, suplenteId, equipamentoId,
+                INICIO, INICIO.plusHours(1), Reserva.Status.ATIVA, equipamentoId, INICIO, INICIO.plusHours(1));
+    }
+}
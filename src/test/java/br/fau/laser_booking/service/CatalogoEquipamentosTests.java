@@ -0,0 +1,69 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Equipamento;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:catalogo-equipamentos-tests")
+class CatalogoEquipamentosTests {
+
+    private static final LocalDateTime INICIO = LocalDateTime.now().plusDays(3).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    @Autowired
+    CatalogoEquipamentos catalogo;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @AfterEach
+    void limpar() {
+        jdbc.update("UPDATE equipamento SET ativo = TRUE");
+        catalogo.recarregar();
+    }
+
+    @Test
+    void resolveNomeParaIdERecusaDesconhecidoEInativo() {
+        Equipamento cortadora = catalogo.resolver(" cortadora 2 ");
+        assertThat(cortadora.getNome()).isEqualTo("cortadora 2");
+        assertThat(catalogo.nome(cortadora.getId())).isEqualTo("cortadora 2");
+
+        Aluno aluno = alunoRepository.findById(1L).orElseThrow();
+        long reservas = reservaRepository.count();
+        assertThatThrownBy(() -> agendamentoService.agendarHorario(aluno, INICIO, INICIO.plusHours(1), "laser1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("desconhecido");
+
+        // desativado no banco só vale depois de recarregar
+        jdbc.update("UPDATE equipamento SET ativo = FALSE WHERE nome = 'cortadora 4'");
+        assertThat(catalogo.resolver("cortadora 4").isAtivo()).isTrue();
+        int ativos = catalogo.recarregar();
+        assertThat(catalogo.ativos()).hasSize(ativos).extracting(Equipamento::getNome).doesNotContain("cortadora 4");
+        assertThatThrownBy(() -> agendamentoService.agendarHorario(aluno, INICIO, INICIO.plusHours(1), "cortadora 4"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("indisponível");
+        // histórico continua consultável
+        assertThat(catalogo.buscar("cortadora 4").isAtivo()).isFalse();
+
+        assertThat(reservaRepository.count()).isEqualTo(reservas);
+    }
+}
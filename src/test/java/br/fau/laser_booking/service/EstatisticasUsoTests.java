@@ -0,0 +1,99 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.UsoEquipamento;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.support.RelogioAjustavel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:estatisticas-uso-tests")
+@Import(RelogioAjustavel.Config.class)
+class EstatisticasUsoTests {
+
+    // relógio em sexta 01/03/2030 09:00; segunda 04 e terça 05 são dias de TFG
+    private static final LocalDateTime SEGUNDA = LocalDateTime.of(2030, 3, 4, 0, 0);
+    private static final LocalDate MARCO = LocalDate.of(2030, 3, 1);
+    private static final LocalDate FIM_MARCO = LocalDate.of(2030, 3, 31);
+
+    @Autowired
+    EstatisticasUso estatisticasUso;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @AfterEach
+    void limpar() {
+        jdbc.update("DELETE FROM uso_equipamento_aluno");
+        jdbc.update("DELETE FROM uso_equipamento");
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void agendarEditarECancelarAtualizamDiaESemanaComoAReconstrucao() {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        Reserva primeira = agendamentoService.agendarHorario(tfg, SEGUNDA.withHour(10), SEGUNDA.withHour(11), "cortadora 1");
+        Reserva segunda = agendamentoService.agendarHorario(tfg, SEGUNDA.withHour(13), SEGUNDA.withHour(14).withMinute(30), "cortadora 1");
+        assertThat(porDia()).containsExactly(
+                new UsoEquipamento("cortadora 1", SEGUNDA.toLocalDate(), 150, 2, 0, 1));
+
+        // muda de dia, mesma semana
+        agendamentoService.editarHorario(tfg, segunda.getId(), SEGUNDA.plusDays(1).withHour(10), SEGUNDA.plusDays(1).withHour(11), "cortadora 1");
+        agendamentoService.cancelarReserva(tfg, primeira.getId());
+        // conflito: a transação volta e o uso não muda
+        try {
+            agendamentoService.agendarHorario(tfg, SEGUNDA.plusDays(1).withHour(10), SEGUNDA.plusDays(1).withHour(11), "cortadora 1");
+        } catch (ConflitoHorarioException esperado) {
+        }
+
+        List<UsoEquipamento> dias = porDia();
+        List<UsoEquipamento> semanas = porSemana();
+        assertThat(dias).containsExactly(
+                new UsoEquipamento("cortadora 1", SEGUNDA.toLocalDate(), 0, 0, 1, 0),
+                new UsoEquipamento("cortadora 1", SEGUNDA.toLocalDate().plusDays(1), 60, 1, 0, 1));
+        assertThat(semanas).containsExactly(
+                new UsoEquipamento("cortadora 1", SEGUNDA.toLocalDate(), 60, 1, 1, 1));
+
+        // backfill a partir das reservas chega ao mesmo resultado
+        assertThat(estatisticasUso.reconstruir()).isEqualTo(3);
+        assertThat(porDia()).isEqualTo(dias);
+        assertThat(porSemana()).isEqualTo(semanas);
+        // semana pedida no meio pega a semana inteira; outro equipamento não tem uso
+        assertThat(estatisticasUso.consultar(EstatisticasUso.Granularidade.SEMANA, "cortadora 1",
+                SEGUNDA.toLocalDate().plusDays(2), SEGUNDA.toLocalDate().plusDays(2))).isEqualTo(semanas);
+        assertThat(estatisticasUso.consultar(EstatisticasUso.Granularidade.DIA, "cortadora 2", MARCO, FIM_MARCO)).isEmpty();
+    }
+
+    private List<UsoEquipamento> porDia() {
+        return estatisticasUso.consultar(EstatisticasUso.Granularidade.DIA, null, MARCO, FIM_MARCO);
+    }
+
+    private List<UsoEquipamento> porSemana() {
+        return estatisticasUso.consultar(EstatisticasUso.Granularidade.SEMANA, null, MARCO, FIM_MARCO);
+    }
+}
@@ -0,0 +1,157 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.PedidoEsperaResumo;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.PedidoEspera;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.PedidoEsperaRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.support.RelogioAjustavel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fila-espera-tests",
+        // uma thread de entrega de SSE e nenhuma fila: duas assinaturas presas já saturam
+        "laserbooking.eventos.threads-entrega=1",
+        "laserbooking.eventos.fila-entrega=0"
+})
+@Import(RelogioAjustavel.Config.class)
+class FilaEsperaTests {
+
+    // domingo 03/03/2030 12:00: segunda 04 às 10h está a menos de 24h, todo mundo pode agendar,
+    // mas TFG (segunda sem limite de antecedência) tem prioridade sobre o regular (24h)
+    private static final LocalDateTime DOMINGO = LocalDateTime.of(2030, 3, 3, 12, 0);
+    private static final LocalDateTime SEGUNDA_10H = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Autowired
+    RelogioAjustavel relogio;
+
+    @Autowired
+    FilaEspera filaEspera;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    PedidoEsperaRepository pedidoEsperaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    BarramentoReservas barramento;
+
+    @Autowired
+    CatalogoEquipamentos catalogo;
+
+    @BeforeEach
+    void ajustarRelogio() {
+        relogio.ajustar(DOMINGO);
+    }
+
+    @AfterEach
+    void limpar() {
+        pedidoEsperaRepository.deleteAll();
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void vagaCanceladaVaiParaOPedidoMaisPrioritarioEmSegundoPlano() throws InterruptedException {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        Aluno regular = alunoRepository.findById(2L).orElseThrow();
+        Aluno outroTfg = novoAluno("outro.tfg@fau.br", Aluno.TipoTrabalho.TFG);
+
+        Reserva ocupada = agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+
+        // o regular chega primeiro; pedir de novo devolve o mesmo pedido
+        PedidoEsperaResumo doRegular = filaEspera.entrar(regular, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+        assertThat(filaEspera.entrar(regular, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), " cortadora 1").id())
+                .isEqualTo(doRegular.id());
+        PedidoEsperaResumo doTfg = filaEspera.entrar(outroTfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+        assertThat(doTfg.status()).isEqualTo(PedidoEspera.Status.AGUARDANDO);
+
+        agendamentoService.cancelarReserva(tfg, ocupada.getId());
+
+        PedidoEspera atendido = aguardarAtendimento(doTfg.id());
+        assertThat(atendido.getStatus()).isEqualTo(PedidoEspera.Status.ATENDIDO);
+        Reserva nova = reservaRepository.findById(atendido.getReservaId()).orElseThrow();
+        assertThat(nova.getTitular().getId()).isEqualTo(outroTfg.getId());
+        assertThat(nova.getStatus()).isEqualTo(Reserva.Status.ATIVA);
+        assertThat(nova.getInicio()).isEqualTo(SEGUNDA_10H);
+        assertThat(pedidoEsperaRepository.findById(doRegular.id()).orElseThrow().getStatus())
+                .isEqualTo(PedidoEspera.Status.AGUARDANDO);
+
+        // só o dono desiste; o que sobrou expira quando o horário começa
+        assertThatThrownBy(() -> filaEspera.desistir(outroTfg, doRegular.id()))
+                .isInstanceOf(PermissaoNegadaException.class);
+        assertThat(filaEspera.expirarIniciadosAte(SEGUNDA_10H)).isEqualTo(1);
+        assertThat(filaEspera.listar(regular)).extracting(PedidoEsperaResumo::status)
+                .containsExactly(PedidoEspera.Status.EXPIRADO);
+    }
+
+    @Test
+    void realocaMesmoComEntregaDeEventosSaturada() throws InterruptedException {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        Aluno regular = alunoRepository.findById(2L).orElseThrow();
+        Integer cortadora1 = catalogo.resolver("cortadora 1").getId();
+
+        // clientes SSE que nunca terminam de receber: prendem a única thread de entrega
+        CountDownLatch soltar = new CountDownLatch(1);
+        BarramentoReservas.Entrega travada = (eventos, perdeu) -> soltar.await();
+        BarramentoReservas.Assinatura a1 = barramento.assinar(cortadora1, null, travada);
+        BarramentoReservas.Assinatura a2 = barramento.assinar(cortadora1, null, travada);
+        try {
+            Reserva ocupada = agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+            PedidoEsperaResumo pedido = filaEspera.entrar(regular, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+
+            agendamentoService.cancelarReserva(tfg, ocupada.getId());
+
+            assertThat(aguardarAtendimento(pedido.id()).getStatus()).isEqualTo(PedidoEspera.Status.ATENDIDO);
+        } finally {
+            soltar.countDown();
+            a1.cancelar();
+            a2.cancelar();
+        }
+    }
+
+    private Aluno novoAluno(String email, Aluno.TipoTrabalho tipo) {
+        Aluno a = new Aluno();
+        a.setNome(email);
+        a.setEmail(email);
+        a.setSenhaHash("x");
+        a.setSemestre(9);
+        a.setTipoTrabalho(tipo);
+        return alunoRepository.save(a);
+    }
+
+    // A alocação roda no executor, depois do commit do cancelamento
+    private PedidoEspera aguardarAtendimento(Long pedidoId) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        PedidoEspera p = pedidoEsperaRepository.findById(pedidoId).orElseThrow();
+        while (p.getStatus() == PedidoEspera.Status.AGUARDANDO && System.nanoTime() < limite) {
+            Thread.sleep(20);
+            p = pedidoEsperaRepository.findById(pedidoId).orElseThrow();
+        }
+        return p;
+    }
+}
@@ -0,0 +1,72 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:finalizacao-tests",
+        "laserbooking.finalizacao.lote=7"
+})
+class FinalizacaoReservasTests {
+
+    @Autowired
+    FinalizacaoReservas finalizacao;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void finalizaSoAsAtivasEncerradasEmVariosLotes() {
+        LocalDateTime agora = LocalDateTime.of(2030, 3, 4, 12, 0);
+        // 20 ativas encerradas (3 lotes de 7), 1 em andamento, 1 futura, 1 cancelada encerrada
+        for (int i = 0; i < 20; i++) {
+            inserir("cortadora 1", agora.minusHours(2 * i + 2), agora.minusHours(2 * i + 1), "ATIVA");
+        }
+        inserir("cortadora 1", agora.minusMinutes(30), agora.plusMinutes(30), "ATIVA");
+        inserir("cortadora 1", agora.plusDays(1), agora.plusDays(1).plusHours(1), "ATIVA");
+        inserir("cortadora 2", agora.minusHours(3), agora.minusHours(2), "CANCELADA");
+
+        assertThat(finalizacao.finalizarEncerradasAte(agora)).isEqualTo(20);
+
+        Map<Reserva.Status, Long> porStatus = reservaRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Reserva::getStatus, Collectors.counting()));
+        assertThat(porStatus).containsEntry(Reserva.Status.FINALIZADA, 20L)
+                .containsEntry(Reserva.Status.ATIVA, 2L)
+                .containsEntry(Reserva.Status.CANCELADA, 1L);
+
+        // segunda rodada não tem o que fazer
+        assertThat(finalizacao.finalizarEncerradasAte(agora)).isZero();
+    }
+
+    private void inserir(String equipamento, LocalDateTime inicio, LocalDateTime fim, String status) {
+        jdbc.update("""
+                INSERT INTO reserva (aluno_titular_id, equipamento_id, inicio, fim, status, criado_em, atualizado_em)
+                VALUES (1, (SELECT id FROM equipamento WHERE nome = ?), ?, ?, ?, ?, ?)""",
+                equipamento, Timestamp.valueOf(inicio), Timestamp.valueOf(fim), status,
+                Timestamp.valueOf(inicio), Timestamp.valueOf(inicio));
+    }
+}
@@ -0,0 +1,140 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.support.RelogioAjustavel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:indice-ocupacao-tests")
+@Import(RelogioAjustavel.Config.class)
+class IndiceOcupacaoTests {
+
+    // domingo 03/03/2030 12:00; o aluno 1 (TFG) agenda segunda sem limite de antecedência
+    private static final LocalDateTime DOMINGO = LocalDateTime.of(2030, 3, 3, 12, 0);
+    private static final LocalDateTime SEGUNDA_10H = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Autowired
+    RelogioAjustavel relogio;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    CatalogoEquipamentos catalogo;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private Aluno tfg;
+    private Integer cortadora1;
+    private Integer cortadora2;
+
+    @BeforeEach
+    void preparar() {
+        relogio.ajustar(DOMINGO);
+        tfg = alunoRepository.findById(1L).orElseThrow();
+        cortadora1 = catalogo.resolver("cortadora 1").getId();
+        cortadora2 = catalogo.resolver("cortadora 2").getId();
+    }
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void intervalosSemiabertosEncostadosNaoConflitam() {
+        Reserva r = agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+
+        // [10h, 11h): quem termina às 10h ou começa às 11h só encosta
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.minusHours(1), SEGUNDA_10H)).isFalse();
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.plusHours(1), SEGUNDA_10H.plusHours(2))).isFalse();
+
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.plusMinutes(30), SEGUNDA_10H.plusMinutes(90))).isTrue();
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.minusMinutes(30), SEGUNDA_10H.plusMinutes(1))).isTrue();
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.plusMinutes(15), SEGUNDA_10H.plusMinutes(45))).isTrue();
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.minusHours(1), SEGUNDA_10H.plusHours(2))).isTrue();
+
+        // outro equipamento, ou a própria reserva na edição
+        assertThat(indiceOcupacao.haConflito(cortadora2, SEGUNDA_10H, SEGUNDA_10H.plusHours(1))).isFalse();
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), r.getId())).isFalse();
+    }
+
+    @Test
+    void equipamentoAindaNaoCarregadoVemDoBancoNoPrimeiroAcesso() {
+        // escrita direta no banco não publica evento: só a carga preguiçosa enxerga
+        indiceOcupacao.invalidar();
+        inserirAtiva(cortadora2, SEGUNDA_10H, SEGUNDA_10H.plusHours(2));
+        // já encerrada: não entra na agenda
+        inserirAtiva(cortadora2, DOMINGO.minusHours(2), DOMINGO.minusHours(1));
+
+        assertThat(indiceOcupacao.haConflito(cortadora2, SEGUNDA_10H.plusHours(1), SEGUNDA_10H.plusHours(3))).isTrue();
+        assertThat(indiceOcupacao.intervalosEntre(cortadora2, DOMINGO.minusDays(1), SEGUNDA_10H.plusDays(1)))
+                .hasSize(1);
+    }
+
+    @Test
+    void edicaoECancelamentoAtualizamOIndice() {
+        Reserva r = agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1");
+
+        agendamentoService.editarHorario(tfg, r.getId(), SEGUNDA_10H.plusHours(4), SEGUNDA_10H.plusHours(5), "cortadora 1");
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H, SEGUNDA_10H.plusHours(1))).isFalse();
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.plusHours(4), SEGUNDA_10H.plusHours(5))).isTrue();
+
+        // troca de equipamento: sai da agenda antiga e entra na nova
+        agendamentoService.editarHorario(tfg, r.getId(), SEGUNDA_10H.plusHours(4), SEGUNDA_10H.plusHours(5), "cortadora 2");
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.plusHours(4), SEGUNDA_10H.plusHours(5))).isFalse();
+        assertThat(indiceOcupacao.haConflito(cortadora2, SEGUNDA_10H.plusHours(4), SEGUNDA_10H.plusHours(5))).isTrue();
+
+        agendamentoService.cancelarReserva(tfg, r.getId());
+        assertThat(indiceOcupacao.haConflito(cortadora2, SEGUNDA_10H.plusHours(4), SEGUNDA_10H.plusHours(5))).isFalse();
+        // a janela liberada aceita outra reserva
+        agendamentoService.agendarHorario(tfg, SEGUNDA_10H.plusHours(4), SEGUNDA_10H.plusHours(5), "cortadora 2");
+    }
+
+    @Test
+    void ativasComOMesmoInicioNaoSeSobrescrevem() {
+        // dado antigo: duas ativas começando às 10h na mesma máquina
+        indiceOcupacao.invalidar();
+        inserirAtiva(cortadora1, SEGUNDA_10H, SEGUNDA_10H.plusHours(1));
+        inserirAtiva(cortadora1, SEGUNDA_10H, SEGUNDA_10H.plusHours(2));
+        Long longa = jdbc.queryForObject("SELECT MAX(id) FROM reserva", Long.class);
+
+        assertThat(indiceOcupacao.intervalosEntre(cortadora1, SEGUNDA_10H.plusMinutes(30), SEGUNDA_10H.plusHours(3)))
+                .hasSize(2);
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.plusMinutes(90), SEGUNDA_10H.plusHours(3))).isTrue();
+
+        // cancelar uma tira só ela
+        agendamentoService.cancelarReserva(tfg, longa);
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H.plusMinutes(90), SEGUNDA_10H.plusHours(3))).isFalse();
+        assertThat(indiceOcupacao.haConflito(cortadora1, SEGUNDA_10H, SEGUNDA_10H.plusMinutes(30))).isTrue();
+    }
+
+    private void inserirAtiva(Integer equipamentoId, LocalDateTime inicio, LocalDateTime fim) {
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, inicio, fim, equipamento_id, status) VALUES (1, ?, ?, ?, 'ATIVA')",
+                Timestamp.valueOf(inicio), Timestamp.valueOf(fim), equipamentoId);
+    }
+}
@@ -0,0 +1,129 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.dto.FaixaLivre;
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.support.RelogioAjustavel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:mapa-ocupacao-tests")
+@Import(RelogioAjustavel.Config.class)
+class MapaOcupacaoTests {
+
+    // domingo 03/03/2030 12:07; o aluno 1 (TFG) agenda segunda sem limite de antecedência
+    private static final LocalDateTime AGORA = LocalDateTime.of(2030, 3, 3, 12, 7);
+    private static final LocalDate DOMINGO = AGORA.toLocalDate();
+    private static final LocalDate SEGUNDA = DOMINGO.plusDays(1);
+    private static final LocalDate TERCA = DOMINGO.plusDays(2);
+
+    @Autowired
+    RelogioAjustavel relogio;
+
+    @Autowired
+    MapaOcupacao mapaOcupacao;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    CatalogoEquipamentos catalogo;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private Integer cortadora1;
+
+    @BeforeEach
+    void preparar() {
+        relogio.ajustar(AGORA);
+        cortadora1 = catalogo.resolver("cortadora 1").getId();
+    }
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+        mapaOcupacao.invalidar();
+    }
+
+    @Test
+    void reservaForaDoSlotOcupaOsSlotsQueEncosta() {
+        // 10:05-10:50 ocupa 10:00-11:00; 23:40-00:20 ocupa o fim da segunda e o começo da terça
+        inserirAtiva(SEGUNDA.atTime(10, 5), SEGUNDA.atTime(10, 50));
+        inserirAtiva(SEGUNDA.atTime(23, 40), TERCA.atTime(0, 20));
+
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, SEGUNDA)).containsExactly(
+                new FaixaLivre(SEGUNDA.atStartOfDay(), SEGUNDA.atTime(10, 0)),
+                new FaixaLivre(SEGUNDA.atTime(11, 0), SEGUNDA.atTime(23, 30)));
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, TERCA)).containsExactly(
+                new FaixaLivre(TERCA.atTime(0, 30), TERCA.plusDays(1).atStartOfDay()));
+    }
+
+    @Test
+    void slotsQueJaComecaramContamComoOcupados() {
+        // 12:07: o slot das 12:00 já começou, o primeiro livre é o das 12:15
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, DOMINGO)).containsExactly(
+                new FaixaLivre(DOMINGO.atTime(12, 15), SEGUNDA.atStartOfDay()));
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, DOMINGO.minusDays(1))).isEmpty();
+        // dia inteiro livre
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, SEGUNDA)).containsExactly(
+                new FaixaLivre(SEGUNDA.atStartOfDay(), TERCA.atStartOfDay()));
+    }
+
+    @Test
+    void criarEditarECancelarDescartamOBitmapDoDia() {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+        // bitmap da segunda já em cache antes de cada alteração
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, SEGUNDA)).hasSize(1);
+
+        Reserva r = agendamentoService.agendarHorario(tfg, SEGUNDA.atTime(10, 0), SEGUNDA.atTime(11, 0), "cortadora 1");
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, SEGUNDA)).containsExactly(
+                new FaixaLivre(SEGUNDA.atStartOfDay(), SEGUNDA.atTime(10, 0)),
+                new FaixaLivre(SEGUNDA.atTime(11, 0), TERCA.atStartOfDay()));
+
+        agendamentoService.editarHorario(tfg, r.getId(), SEGUNDA.atTime(14, 0), SEGUNDA.atTime(15, 0), "cortadora 1");
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, SEGUNDA)).containsExactly(
+                new FaixaLivre(SEGUNDA.atStartOfDay(), SEGUNDA.atTime(14, 0)),
+                new FaixaLivre(SEGUNDA.atTime(15, 0), TERCA.atStartOfDay()));
+
+        // mudou de equipamento: libera a cortadora 1 e ocupa a 2
+        Integer cortadora2 = catalogo.resolver("cortadora 2").getId();
+        assertThat(mapaOcupacao.faixasLivres(cortadora2, SEGUNDA)).hasSize(1);
+        agendamentoService.editarHorario(tfg, r.getId(), SEGUNDA.atTime(14, 0), SEGUNDA.atTime(15, 0), "cortadora 2");
+        assertThat(mapaOcupacao.faixasLivres(cortadora1, SEGUNDA)).hasSize(1);
+        assertThat(mapaOcupacao.faixasLivres(cortadora2, SEGUNDA)).hasSize(2);
+
+        agendamentoService.cancelarReserva(tfg, r.getId());
+        assertThat(mapaOcupacao.faixasLivres(cortadora2, SEGUNDA)).containsExactly(
+                new FaixaLivre(SEGUNDA.atStartOfDay(), TERCA.atStartOfDay()));
+    }
+
+    // Direto no banco (sem evento): vale só com índice e mapa ainda frios
+    private void inserirAtiva(LocalDateTime inicio, LocalDateTime fim) {
+        jdbc.update("INSERT INTO reserva (aluno_titular_id, inicio, fim, equipamento_id, status) VALUES (1, ?, ?, ?, 'ATIVA')",
+                Timestamp.valueOf(inicio), Timestamp.valueOf(fim), cortadora1);
+    }
+}
@@ -0,0 +1,94 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.Reserva;
+import br.fau.laser_booking.repository.AlunoRepository;
+import br.fau.laser_booking.repository.ReservaRepository;
+import br.fau.laser_booking.support.RelogioAjustavel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricas-agendamento-tests")
+@Import(RelogioAjustavel.Config.class)
+class MetricasAgendamentoTests {
+
+    private static final LocalDateTime DOMINGO = LocalDateTime.of(2030, 3, 3, 12, 0);
+    private static final LocalDateTime SEGUNDA_10H = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Autowired
+    RelogioAjustavel relogio;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    AgendamentoService agendamentoService;
+
+    @Autowired
+    AlunoRepository alunoRepository;
+
+    @Autowired
+    ReservaRepository reservaRepository;
+
+    @Autowired
+    IndiceOcupacao indiceOcupacao;
+
+    @BeforeEach
+    void ajustarRelogio() {
+        relogio.ajustar(DOMINGO);
+    }
+
+    @AfterEach
+    void limpar() {
+        reservaRepository.deleteAll();
+        indiceOcupacao.invalidar();
+    }
+
+    @Test
+    void timerPorOperacaoEquipamentoEResultado() {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+
+        Reserva r = agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), " cortadora 1 ");
+        assertThatThrownBy(() -> agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), "cortadora 1"))
+                .isInstanceOf(ConflitoHorarioException.class);
+        agendamentoService.cancelarReserva(tfg, r.getId());
+
+        assertThat(contagem("agendar", "cortadora 1", "ok")).isEqualTo(1);
+        assertThat(contagem("agendar", "cortadora 1", "conflito")).isEqualTo(1);
+        // o cancelar só descobre o equipamento depois de ler a reserva
+        assertThat(contagem("cancelar", "cortadora 1", "ok")).isEqualTo(1);
+    }
+
+    @Test
+    void equipamentoInventadoNaoViraTag() {
+        Aluno tfg = alunoRepository.findById(1L).orElseThrow();
+
+        for (String nome : new String[]{"cortadora-xyz-1", "cortadora-xyz-2", "  "}) {
+            assertThatThrownBy(() -> agendamentoService.agendarHorario(tfg, SEGUNDA_10H, SEGUNDA_10H.plusHours(1), nome))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        assertThat(contagem("agendar", "desconhecido", "invalido")).isEqualTo(3);
+        assertThat(registry.find(MetricasAgendamento.TIMER).timers())
+                .extracting(t -> t.getId().getTag("equipamento"))
+                .doesNotContain("cortadora-xyz-1", "cortadora-xyz-2");
+    }
+
+    private long contagem(String operacao, String equipamento, String resultado) {
+        Timer timer = registry.find(MetricasAgendamento.TIMER)
+                .tags("operacao", operacao, "equipamento", equipamento, "resultado", resultado)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
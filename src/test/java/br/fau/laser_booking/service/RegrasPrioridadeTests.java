@@ -0,0 +1,84 @@
+package br.fau.laser_booking.service;
+
+import br.fau.laser_booking.model.Aluno;
+import br.fau.laser_booking.model.RegraPrioridade;
+import br.fau.laser_booking.repository.RegraPrioridadeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:regras-tests")
+class RegrasPrioridadeTests {
+
+    @Autowired
+    RegrasPrioridade regrasPrioridade;
+
+    @Autowired
+    RegraPrioridadeRepository regraPrioridadeRepository;
+
+    @Test
+    void regrasDaMigrationReproduzemAPoliticaAntiga() {
+        TabelaPrioridade tabela = regrasPrioridade.tabela();
+        LocalDateTime agora = LocalDateTime.of(2030, 3, 4, 10, 0, 0, 500_000_000);
+        Aluno aluno = new Aluno();
+
+        for (Aluno.TipoTrabalho tipo : new Aluno.TipoTrabalho[]{Aluno.TipoTrabalho.TFG, Aluno.TipoTrabalho.REGULAR, null}) {
+            for (Integer semestre : new Integer[]{null, 0, 1, 2, 3, 5, 8, 9, 12, 40}) {
+                aluno.setTipoTrabalho(tipo);
+                aluno.setSemestre(semestre);
+                // duas semanas em passos de 7 min, mais a borda das 24h com e sem fração de segundo
+                for (long minutos = -60; minutos < 14 * 24 * 60; minutos += 7) {
+                    LocalDateTime inicio = agora.plusMinutes(minutos);
+                    assertThat(tabela.permite(aluno, inicio, agora))
+                            .as("%s %s %s", tipo, semestre, inicio)
+                            .isEqualTo(politicaAntiga(aluno, inicio, agora));
+                }
+                for (LocalDateTime inicio : new LocalDateTime[]{agora.plusHours(24), agora.plusHours(24).minusNanos(1),
+                        agora.plusHours(24).minusSeconds(1).withNano(0)}) {
+                    assertThat(tabela.permite(aluno, inicio, agora))
+                            .as("%s %s %s", tipo, semestre, inicio)
+                            .isEqualTo(politicaAntiga(aluno, inicio, agora));
+                }
+            }
+        }
+    }
+
+    @Test
+    void recarregarAplicaRegraNovaSemReiniciar() {
+        Aluno regular = new Aluno();
+        regular.setTipoTrabalho(Aluno.TipoTrabalho.REGULAR);
+        regular.setSemestre(10);
+        LocalDateTime agora = LocalDateTime.of(2030, 3, 4, 10, 0);
+        LocalDateTime sabado = LocalDateTime.of(2030, 3, 9, 10, 0);
+        assertThat(regrasPrioridade.permite(regular, sabado, agora)).isFalse();
+
+        RegraPrioridade sabadoLivre = regraPrioridadeRepository.save(
+                new RegraPrioridade(DayOfWeek.SATURDAY, null, null, null, null));
+        try {
+            assertThat(regrasPrioridade.permite(regular, sabado, agora)).isFalse();
+            regrasPrioridade.recarregar();
+            assertThat(regrasPrioridade.permite(regular, sabado, agora)).isTrue();
+        } finally {
+            regraPrioridadeRepository.delete(sabadoLivre);
+            regrasPrioridade.recarregar();
+        }
+    }
+
+    // AgendamentoService.podeAgendar antes da tabela regra_prioridade
+    private static boolean politicaAntiga(Aluno aluno, LocalDateTime inicioSlot, LocalDateTime agora) {
+        DayOfWeek dia = inicioSlot.getDayOfWeek();
+        boolean ehTFG = aluno.getTipoTrabalho() == Aluno.TipoTrabalho.TFG;
+        Integer semestre = aluno.getSemestre();
+        boolean diaTFG = dia == DayOfWeek.MONDAY || dia == DayOfWeek.TUESDAY || dia == DayOfWeek.THURSDAY;
+        boolean diaSemestres = dia == DayOfWeek.WEDNESDAY || dia == DayOfWeek.FRIDAY;
+        if (ehTFG && diaTFG) return true;
+        if (semestre != null && semestre >= 3 && semestre <= 8 && diaSemestres) return true;
+        return Duration.between(agora, inicioSlot).toHours() < 24;
+    }
+}
@@ -0,0 +1,63 @@
+package br.fau.laser_booking.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Relógio de teste: parado até o teste mandar ajustar/avançar.
+// Nos testes Spring: @Import(RelogioAjustavel.Config.class) e @Autowired RelogioAjustavel.
+public final class RelogioAjustavel extends Clock {
+
+    private final AtomicReference<Instant> agora;
+    private final ZoneId zona;
+
+    public RelogioAjustavel(LocalDateTime inicio) {
+        this(inicio.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+
+    private RelogioAjustavel(Instant inicio, ZoneId zona) {
+        this.agora = new AtomicReference<>(inicio);
+        this.zona = zona;
+    }
+
+    public void ajustar(LocalDateTime instante) {
+        agora.set(instante.atZone(zona).toInstant());
+    }
+
+    public void avancar(Duration duracao) {
+        agora.updateAndGet(i -> i.plus(duracao));
+    }
+
+    @Override
+    public Instant instant() {
+        return agora.get();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zona;
+    }
+
+    @Override
+    public Clock withZone(ZoneId outra) {
+        return new RelogioAjustavel(agora.get(), outra);
+    }
+
+    @TestConfiguration
+    public static class Config {
+
+        // Começa numa sexta-feira qualquer, longe do relógio real
+        @Bean
+        @Primary
+        public RelogioAjustavel relogioAjustavel() {
+            return new RelogioAjustavel(LocalDateTime.of(2030, 3, 1, 9, 0));
+        }
+    }
+}